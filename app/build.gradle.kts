@@ -1,6 +1,7 @@
 plugins {
     alias(libs.plugins.android.application)
     alias(libs.plugins.google.gms.google.services)
+    alias(libs.plugins.baselineprofile)
 }
 
 android {
@@ -15,17 +16,33 @@ android {
         versionName = "1.0"
 
         testInstrumentationRunner = "androidx.test.runner.AndroidJUnitRunner"
+
+        // Firebase's on-disk database cache; Firebase accepts 1 to 100 MB
+        val databaseCacheMb = providers.gradleProperty("databaseCacheMb").getOrElse("10").toLong()
+        require(databaseCacheMb in 1..100) { "databaseCacheMb must be between 1 and 100" }
+        buildConfigField("long", "DATABASE_CACHE_BYTES", "${databaseCacheMb * 1024 * 1024}L")
     }
 
     buildTypes {
         release {
-            isMinifyEnabled = false
+            isMinifyEnabled = true
+            isShrinkResources = true
             proguardFiles(
                 getDefaultProguardFile("proguard-android-optimize.txt"),
                 "proguard-rules.pro"
             )
         }
     }
+    buildFeatures {
+        buildConfig = true
+    }
+    // The baselineprofile plugin adds benchmarkRelease and nonMinifiedRelease;
+    // both get the receiver :benchmark uses to seed a large local history
+    sourceSets.matching { it.name == "benchmarkRelease" || it.name == "nonMinifiedRelease" }
+        .configureEach {
+            java.srcDir("src/benchmark/java")
+            manifest.srcFile("src/benchmark/AndroidManifest.xml")
+        }
     compileOptions {
         sourceCompatibility = JavaVersion.VERSION_11
         targetCompatibility = JavaVersion.VERSION_11
@@ -33,12 +50,19 @@ android {
 }
 
 dependencies {
+    implementation(project(":core"))
+    implementation(libs.profileinstaller)
+    baselineProfile(project(":benchmark"))
+
     implementation("androidx.appcompat:appcompat:1.6.1")
     implementation("androidx.constraintlayout:constraintlayout:2.1.4")
     implementation("androidx.recyclerview:recyclerview:1.3.2")
     implementation("com.google.android.material:material:1.11.0")
     implementation("androidx.cardview:cardview:1.0.0")
     implementation("androidx.drawerlayout:drawerlayout:1.2.0")
+    implementation("androidx.lifecycle:lifecycle-livedata:2.6.2")
+    implementation("androidx.lifecycle:lifecycle-viewmodel:2.6.2")
+    implementation("androidx.work:work-runtime:2.9.0")
 
     // Firebase BOM controls all versions
     implementation(platform("com.google.firebase:firebase-bom:32.7.0"))
@@ -49,4 +73,13 @@ dependencies {
     implementation("com.jakewharton.threetenabp:threetenabp:1.4.4")
 }
 
+// Generate with: ./gradlew :app:generateReleaseBaselineProfile
+// The output, src/release/generated/baselineProfiles/baseline-prof.txt, is not
+// committed yet: it needs the Android SDK and the managed emulator. Until it is,
+// release builds ship without a profile and the BaselineProfileMode.Require
+// benchmarks fail, so generate and commit it before relying on either.
+baselineProfile {
+    dexLayoutOptimization = true
+}
+
 
@@ -0,0 +1,58 @@
+package com.example.periodtracker;
+
+import android.content.BroadcastReceiver;
+import android.content.Context;
+import android.content.Intent;
+import android.util.Log;
+
+import com.example.periodtracker.core.EpochDays;
+import com.example.periodtracker.core.SymptomEntry;
+import com.google.firebase.auth.FirebaseAuth;
+import com.google.firebase.auth.FirebaseUser;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Fills the local store with a synthetic daily history for the signed-in
+ * user, so the benchmarks can scroll a large HistoryFragment without writing
+ * to Firebase. Only built into the benchmarkRelease and nonMinifiedRelease
+ * variants:
+ * {@code adb shell am broadcast -n com.example.periodtracker/.SeedHistoryReceiver --ei days 3000}
+ */
+public class SeedHistoryReceiver extends BroadcastReceiver {
+
+    private static final String TAG = "SeedHistoryReceiver";
+    private static final String EXTRA_DAYS = "days";
+
+    @Override
+    public void onReceive(Context context, Intent intent) {
+        FirebaseUser user = FirebaseAuth.getInstance().getCurrentUser();
+        if (user == null) {
+            Log.e(TAG, "No signed-in user to seed");
+            return;
+        }
+        int days = intent.getIntExtra(EXTRA_DAYS, 3000);
+        Context appContext = context.getApplicationContext();
+        PendingResult pending = goAsync();
+
+        new Thread(() -> {
+            Random random = new Random(days);
+            int today = EpochDays.today();
+            List<SymptomEntry> entries = new ArrayList<>(days);
+            for (int i = 1; i <= days; i++) {
+                int day = today - i;
+                entries.add(new SymptomEntry(day, (long) day * 86_400 + 9 * 3600,
+                        (byte) random.nextInt(SymptomEntry.MOOD_COUNT),
+                        (byte) random.nextInt(SymptomEntry.FLOW_COUNT),
+                        random.nextInt(1 << SymptomEntry.SYMPTOM_COUNT),
+                        "Synthetic entry " + i));
+            }
+            SymptomRepository.getInstance(appContext).saveSynced(user.getUid(), entries, () -> {
+                Log.d(TAG, "Seeded " + days + " days");
+                pending.finish();
+            });
+        }, "seed-history").start();
+    }
+}
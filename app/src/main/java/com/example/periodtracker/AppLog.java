@@ -0,0 +1,106 @@
+package com.example.periodtracker;
+
+import android.util.Log;
+
+import java.util.function.Supplier;
+
+/**
+ * Level-gated logging for debug and diagnostic output.
+ *
+ * Debug and verbose output exists only in debug builds: {@link #DEBUG} is a
+ * build-time constant, so in release builds every method below but
+ * {@link #e} returns before touching its arguments, and R8 removes the calls
+ * altogether. Messages that
+ * need concatenation are passed as a {@link Supplier} or as key/value pairs,
+ * so the string is only built when the line is actually written.
+ *
+ * Names, dates, cycle lengths and symptoms are personal health data. Pass them
+ * through {@link #phi(Object)}: they are written as {@code <redacted>} unless
+ * this is a debug build and {@code adb shell setprop log.tag.PeriodTrackerPHI
+ * VERBOSE} has been set on the device.
+ */
+public final class AppLog {
+
+    /** True in debug builds only; guards call sites whose arguments are costly to compute. */
+    public static final boolean DEBUG = BuildConfig.DEBUG;
+
+    private static final String PHI_TAG = "PeriodTrackerPHI";
+    private static final String REDACTED = "<redacted>";
+    /** What {@link #phi(Object)} returns when nothing could ever print the value. */
+    private static final Phi REDACTED_PHI = new Phi(null);
+
+    private AppLog() {
+    }
+
+    public static void d(String tag, String message) {
+        if (!DEBUG) return;
+        Log.d(tag, message);
+    }
+
+    /** Logs the supplied message; {@code message} is not called in release builds. */
+    public static void d(String tag, Supplier<String> message) {
+        if (!DEBUG) return;
+        Log.d(tag, message.get());
+    }
+
+    /** Logs {@code name key=value}. */
+    public static void event(String tag, String name, String key, Object value) {
+        if (!DEBUG) return;
+        Log.d(tag, new StringBuilder(name).append(' ')
+                .append(key).append('=').append(format(value)).toString());
+    }
+
+    /** Logs {@code name key1=value1 key2=value2}. */
+    public static void event(String tag, String name, String key1, Object value1,
+                             String key2, Object value2) {
+        if (!DEBUG) return;
+        Log.d(tag, new StringBuilder(name).append(' ')
+                .append(key1).append('=').append(format(value1)).append(' ')
+                .append(key2).append('=').append(format(value2)).toString());
+    }
+
+    /** Logs {@code name key1=value1 key2=value2 key3=value3}. */
+    public static void event(String tag, String name, String key1, Object value1,
+                             String key2, Object value2, String key3, Object value3) {
+        if (!DEBUG) return;
+        Log.d(tag, new StringBuilder(name).append(' ')
+                .append(key1).append('=').append(format(value1)).append(' ')
+                .append(key2).append('=').append(format(value2)).append(' ')
+                .append(key3).append('=').append(format(value3)).toString());
+    }
+
+    /**
+     * Logs {@code message: detail} as an error, in release builds too. Error
+     * details such as exception messages can name database paths, and so uids
+     * and dates; pass them through {@link #phi(Object)}.
+     */
+    public static void e(String tag, String message, Object detail) {
+        Log.e(tag, message + ": " + format(detail));
+    }
+
+    /** Marks a personal health value for redaction when it is logged. */
+    public static Object phi(Object value) {
+        return DEBUG ? new Phi(value) : REDACTED_PHI;
+    }
+
+    private static String format(Object value) {
+        if (value instanceof Phi) {
+            return DEBUG && Log.isLoggable(PHI_TAG, Log.VERBOSE)
+                    ? String.valueOf(((Phi) value).value) : REDACTED;
+        }
+        return String.valueOf(value);
+    }
+
+    private static final class Phi {
+        final Object value;
+
+        Phi(Object value) {
+            this.value = value;
+        }
+
+        @Override
+        public String toString() {
+            return REDACTED;
+        }
+    }
+}
@@ -0,0 +1,54 @@
+package com.example.periodtracker;
+
+import android.content.Context;
+import android.content.res.Configuration;
+import android.graphics.Color;
+import android.graphics.drawable.Drawable;
+
+import androidx.core.content.ContextCompat;
+
+import com.prolificinteractive.materialcalendarview.spans.DotSpan;
+
+/**
+ * Backgrounds and spans used by CalendarFragment's decorators.
+ *
+ * They are resolved once per {@link Configuration} (which covers night mode
+ * and density) and shared by every decorator and every calendar instance.
+ * Sharing is safe: MaterialCalendarView gives each day its own copy of a
+ * background through the drawable's ConstantState, and DotSpan is stateless.
+ */
+public final class CalendarDecorStyles {
+
+    private static CalendarDecorStyles cached;
+    /** Drawables and spans created by {@link #get(Context)} since process start. */
+    private static int allocations;
+
+    public final Drawable periodBackground;
+    public final Drawable fertileBackground;
+    public final Drawable ovulationBackground;
+    public final DotSpan todayDot;
+
+    private final Configuration configuration;
+
+    private CalendarDecorStyles(Context context, Configuration configuration) {
+        this.configuration = new Configuration(configuration);
+        periodBackground = ContextCompat.getDrawable(context, R.drawable.period_day_circle);
+        fertileBackground = ContextCompat.getDrawable(context, R.drawable.fertilie_day_circle);
+        ovulationBackground = ContextCompat.getDrawable(context, R.drawable.ovulation_day_circle);
+        todayDot = new DotSpan(8, Color.parseColor("#E91E63"));
+        allocations += 4;
+    }
+
+    /** Styles for the context's current configuration, resolving them only if it changed. */
+    public static synchronized CalendarDecorStyles get(Context context) {
+        Configuration configuration = context.getResources().getConfiguration();
+        if (cached == null || !cached.configuration.equals(configuration)) {
+            cached = new CalendarDecorStyles(context, configuration);
+        }
+        return cached;
+    }
+
+    public static synchronized int allocationCount() {
+        return allocations;
+    }
+}
@@ -1,8 +1,6 @@
 package com.example.periodtracker;
 
-import android.graphics.Color;
 import android.os.Bundle;
-import android.util.Log;
 import android.view.LayoutInflater;
 import android.view.View;
 import android.view.ViewGroup;
@@ -11,30 +9,20 @@ import android.widget.Toast;
 
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
-import androidx.core.content.ContextCompat;
 import androidx.fragment.app.Fragment;
+import androidx.lifecycle.ViewModelProvider;
 
-import com.google.firebase.auth.FirebaseAuth;
-import com.google.firebase.database.DataSnapshot;
-import com.google.firebase.database.DatabaseError;
-import com.google.firebase.database.DatabaseReference;
-import com.google.firebase.database.FirebaseDatabase;
-import com.google.firebase.database.ValueEventListener;
+import com.example.periodtracker.core.DayStateTable;
+import com.example.periodtracker.core.MonthStateCache;
 import com.jakewharton.threetenabp.AndroidThreeTen;
 import com.prolificinteractive.materialcalendarview.CalendarDay;
 import com.prolificinteractive.materialcalendarview.DayViewDecorator;
 import com.prolificinteractive.materialcalendarview.DayViewFacade;
 import com.prolificinteractive.materialcalendarview.MaterialCalendarView;
 import com.prolificinteractive.materialcalendarview.OnDateSelectedListener;
-import com.prolificinteractive.materialcalendarview.spans.DotSpan;
 
-import org.threeten.bp.LocalDate;
-
-import java.text.ParseException;
 import java.text.SimpleDateFormat;
-import java.util.Calendar;
 import java.util.Date;
-import java.util.HashSet;
 import java.util.Locale;
 
 public class CalendarFragment extends Fragment {
@@ -43,35 +31,47 @@ public class CalendarFragment extends Fragment {
 
     private MaterialCalendarView calendarView;
     private TextView tvCalendarTitle;
-    private final HashSet<CalendarDay> periodDays = new HashSet<>();
-    private final HashSet<CalendarDay> fertileDays = new HashSet<>();
-    private final HashSet<CalendarDay> ovulationDays = new HashSet<>();
+    private CalendarViewModel viewModel;
+    /** Months projected from the current forecast, read by the decorators; null until loaded. */
+    private MonthStateCache dayStates;
 
-    private FirebaseAuth mAuth;
-    private DatabaseReference dbRef;
+    // Decorator work since the last logged render, to measure what a page costs
+    private int shouldDecorateCalls;
+    private int decorateCalls;
+    private long decorateNanos;
+    private int allocationsAtLastLog;
 
     @Nullable
     @Override
     public View onCreateView(@NonNull LayoutInflater inflater, @Nullable ViewGroup container,
                              @Nullable Bundle savedInstanceState) {
 
+        long createStart = System.nanoTime();
         View view = inflater.inflate(R.layout.fragment_calendar, container, false);
         calendarView = view.findViewById(R.id.calendarView);
         tvCalendarTitle = view.findViewById(R.id.tv_calendar_title);
 
+        viewModel = new ViewModelProvider(this).get(CalendarViewModel.class);
+
         // Initialize ThreeTenABP
         AndroidThreeTen.init(requireContext());
 
-        mAuth = FirebaseAuth.getInstance();
-        dbRef = FirebaseDatabase.getInstance().getReference();
-
         // Display today's date
         String todayDate = new SimpleDateFormat("dd MMM yyyy", Locale.getDefault()).format(new Date());
         tvCalendarTitle.setText("My Cycle Calendar 🌸\n" + todayDate);
 
+        // Decorators read dayStates, so they are added once and invalidated on new data
+        applyDecorators();
+
         // Load real cycle data from Firebase
         loadCycleData();
 
+        // Months are projected as they are shown; get the next one ready while this one is read
+        calendarView.setOnMonthChangedListener((widget, date) -> {
+            logDecoratorWork();
+            prefetchNextMonth(date);
+        });
+
         // Date click listener
         calendarView.setOnDateChangedListener(new OnDateSelectedListener() {
             @Override
@@ -79,11 +79,12 @@ public class CalendarFragment extends Fragment {
                 String dateStr = date.getDay() + " " + getMonthName(date.getMonth() - 1) + " " + date.getYear();
                 String info = "Selected: " + dateStr;
 
-                if (periodDays.contains(date)) {
+                int state = stateOf(date);
+                if ((state & DayStateTable.PERIOD) != 0) {
                     info = "🩸 Period Day - " + dateStr;
-                } else if (fertileDays.contains(date)) {
+                } else if ((state & DayStateTable.FERTILE) != 0) {
                     info = "💖 Fertile Window - " + dateStr;
-                } else if (ovulationDays.contains(date)) {
+                } else if ((state & DayStateTable.OVULATION) != 0) {
                     info = "🥚 Ovulation Day - " + dateStr;
                 }
 
@@ -91,105 +92,88 @@ public class CalendarFragment extends Fragment {
             }
         });
 
+        Metrics.trackFirstRender("calendar", view, createStart);
+
         return view;
     }
 
     private void loadCycleData() {
-        String uid = mAuth.getCurrentUser().getUid();
+        viewModel.getProfile().observe(getViewLifecycleOwner(), profile -> {
+            if (profile == null || !profile.exists()) return;
 
-        dbRef.child("users").child(uid).addListenerForSingleValueEvent(new ValueEventListener() {
-            @Override
-            public void onDataChange(@NonNull DataSnapshot snapshot) {
-                if (snapshot.exists()) {
-                    Integer cycleLength = snapshot.child("cycleLength").getValue(Integer.class);
-                    String lastPeriodDate = snapshot.child("lastPeriodDate").getValue(String.class);
-
-                    if (cycleLength != null && lastPeriodDate != null) {
-                        calculateCycleDates(lastPeriodDate, cycleLength);
-                        applyDecorators();
-                    } else {
-                        Toast.makeText(requireContext(),
-                                "Complete your profile to see cycle predictions",
-                                Toast.LENGTH_SHORT).show();
-                    }
-                }
-            }
-
-            @Override
-            public void onCancelled(@NonNull DatabaseError error) {
-                Log.e(TAG, "Error loading cycle data: " + error.getMessage());
+            if (profile.getCycleLength() == null || profile.getLastPeriodDate() == null) {
+                Toast.makeText(requireContext(),
+                        "Complete your profile to see cycle predictions",
+                        Toast.LENGTH_SHORT).show();
             }
         });
-    }
 
-    private void calculateCycleDates(String lastPeriodDateStr, int cycleLength) {
-        try {
-            SimpleDateFormat sdf = new SimpleDateFormat("yyyy-MM-dd", Locale.getDefault());
-            Date lastPeriodDate = sdf.parse(lastPeriodDateStr);
+        viewModel.getDayStates().observe(getViewLifecycleOwner(), states -> {
+            if (states == null) return;
 
-            if (lastPeriodDate == null) return;
-
-            Calendar calendar = Calendar.getInstance();
-            calendar.setTime(lastPeriodDate);
-
-            // Current period (5 days)
-            Calendar periodCal = (Calendar) calendar.clone();
-            for (int i = 0; i < 5; i++) {
-                periodDays.add(getCalendarDayFromCalendar(periodCal));
-                periodCal.add(Calendar.DAY_OF_MONTH, 1);
-            }
-
-            // Next period (cycleLength days later)
-            Calendar nextPeriodCal = (Calendar) calendar.clone();
-            nextPeriodCal.add(Calendar.DAY_OF_MONTH, cycleLength);
-            for (int i = 0; i < 5; i++) {
-                periodDays.add(getCalendarDayFromCalendar(nextPeriodCal));
-                nextPeriodCal.add(Calendar.DAY_OF_MONTH, 1);
-            }
+            dayStates = states;
+            logDecoratorWork();
+            calendarView.invalidateDecorators();
+            prefetchNextMonth(calendarView.getCurrentDate());
+        });
 
-            // Fertile window (5 days before ovulation)
-            Calendar fertileCal = (Calendar) calendar.clone();
-            fertileCal.add(Calendar.DAY_OF_MONTH, cycleLength - 14 - 5);
-            for (int i = 0; i < 6; i++) {
-                fertileDays.add(getCalendarDayFromCalendar(fertileCal));
-                fertileCal.add(Calendar.DAY_OF_MONTH, 1);
+        viewModel.getLoadError().observe(getViewLifecycleOwner(), error -> {
+            if (error != null) {
+                AppLog.e(TAG, "Error loading cycle data", AppLog.phi(error));
             }
+        });
+    }
 
-            // Ovulation day (14 days before next period)
-            Calendar ovulationCal = (Calendar) calendar.clone();
-            ovulationCal.add(Calendar.DAY_OF_MONTH, cycleLength - 14);
-            ovulationDays.add(getCalendarDayFromCalendar(ovulationCal));
+    /** State mask of a calendar day; projects its month on first use. */
+    private int stateOf(CalendarDay day) {
+        MonthStateCache states = dayStates;
+        return states == null ? 0 : states.get(day.getYear(), day.getMonth(), day.getDay());
+    }
 
-            Log.d(TAG, "Period days marked: " + periodDays.size());
-            Log.d(TAG, "Fertile days marked: " + fertileDays.size());
-            Log.d(TAG, "Ovulation days marked: " + ovulationDays.size());
+    /** shouldDecorate for the background decorators, counted and timed for the page metrics. */
+    private boolean hasState(CalendarDay day, int state) {
+        long start = System.nanoTime();
+        shouldDecorateCalls++;
+        boolean result = (stateOf(day) & state) != 0;
+        decorateNanos += System.nanoTime() - start;
+        return result;
+    }
 
-        } catch (ParseException e) {
-            Log.e(TAG, "Date parsing error: " + e.getMessage());
-        }
+    private void prefetchNextMonth(CalendarDay shown) {
+        if (shown == null) return;
+        int year = shown.getMonth() == 12 ? shown.getYear() + 1 : shown.getYear();
+        int month = shown.getMonth() % 12 + 1;
+        viewModel.prefetch(year, month);
     }
 
-    /** ✅ Converts java.util.Calendar to CalendarDay using ThreeTenABP */
-    private CalendarDay getCalendarDayFromCalendar(Calendar calendar) {
-        LocalDate localDate = LocalDate.of(
-                calendar.get(Calendar.YEAR),
-                calendar.get(Calendar.MONTH) + 1,
-                calendar.get(Calendar.DAY_OF_MONTH)
-        );
-        return CalendarDay.from(localDate);
+    /** Logs and resets the decorator counters for the page rendered since the last call. */
+    private void logDecoratorWork() {
+        int allocations = CalendarDecorStyles.allocationCount();
+        AppLog.event(TAG, "decorators", "shouldDecorate", shouldDecorateCalls,
+                "decorate", decorateCalls, "allocations", allocations - allocationsAtLastLog);
+        if (shouldDecorateCalls > 0) {
+            Metrics.histogram(Metrics.CALENDAR_DECORATE).record(decorateNanos / 1000);
+        }
+        shouldDecorateCalls = 0;
+        decorateCalls = 0;
+        decorateNanos = 0;
+        allocationsAtLastLog = allocations;
     }
 
     private void applyDecorators() {
+        CalendarDecorStyles styles = CalendarDecorStyles.get(requireContext());
+
         // Period days decorator (Red/Pink)
         calendarView.addDecorator(new DayViewDecorator() {
             @Override
             public boolean shouldDecorate(CalendarDay day) {
-                return periodDays.contains(day);
+                return hasState(day, DayStateTable.PERIOD);
             }
 
             @Override
             public void decorate(DayViewFacade view) {
-                view.setBackgroundDrawable(ContextCompat.getDrawable(requireContext(), R.drawable.period_day_circle));
+                decorateCalls++;
+                view.setBackgroundDrawable(styles.periodBackground);
             }
         });
 
@@ -197,12 +181,13 @@ public class CalendarFragment extends Fragment {
         calendarView.addDecorator(new DayViewDecorator() {
             @Override
             public boolean shouldDecorate(CalendarDay day) {
-                return fertileDays.contains(day);
+                return hasState(day, DayStateTable.FERTILE);
             }
 
             @Override
             public void decorate(DayViewFacade view) {
-                view.setBackgroundDrawable(ContextCompat.getDrawable(requireContext(), R.drawable.fertilie_day_circle));
+                decorateCalls++;
+                view.setBackgroundDrawable(styles.fertileBackground);
             }
         });
 
@@ -210,12 +195,13 @@ public class CalendarFragment extends Fragment {
         calendarView.addDecorator(new DayViewDecorator() {
             @Override
             public boolean shouldDecorate(CalendarDay day) {
-                return ovulationDays.contains(day);
+                return hasState(day, DayStateTable.OVULATION);
             }
 
             @Override
             public void decorate(DayViewFacade view) {
-                view.setBackgroundDrawable(ContextCompat.getDrawable(requireContext(), R.drawable.ovulation_day_circle));
+                decorateCalls++;
+                view.setBackgroundDrawable(styles.ovulationBackground);
             }
         });
 
@@ -225,12 +211,14 @@ public class CalendarFragment extends Fragment {
 
             @Override
             public boolean shouldDecorate(CalendarDay day) {
+                shouldDecorateCalls++;
                 return day.equals(today);
             }
 
             @Override
             public void decorate(DayViewFacade view) {
-                view.addSpan(new DotSpan(8, Color.parseColor("#E91E63")));
+                decorateCalls++;
+                view.addSpan(styles.todayDot);
             }
         });
     }
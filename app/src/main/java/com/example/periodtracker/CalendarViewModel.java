@@ -0,0 +1,80 @@
+package com.example.periodtracker;
+
+import androidx.lifecycle.LiveData;
+import androidx.lifecycle.MediatorLiveData;
+import androidx.lifecycle.ViewModel;
+
+import com.example.periodtracker.core.CycleCalendar;
+import com.example.periodtracker.core.CycleForecast;
+import com.example.periodtracker.core.MonthStateCache;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Projected calendar months for CalendarFragment.
+ *
+ * The month cache is built once per forecast and survives rotation and other
+ * configuration changes, so a recreated calendar redraws from memory. Months
+ * are prefetched on an executor that is shut down when the screen goes away.
+ */
+public class CalendarViewModel extends ViewModel {
+
+    private static final String TAG = "CalendarViewModel";
+
+    /** Projected months kept in memory; a few pages either side of the visible one. */
+    private static final int CACHED_MONTHS = 12;
+
+    private final UserProfileRepository repository = UserProfileRepository.getInstance();
+    private final MediatorLiveData<MonthStateCache> dayStates = new MediatorLiveData<>();
+    private final ExecutorService prefetchExecutor = Executors.newSingleThreadExecutor();
+
+    private CycleForecast projectedForecast;
+
+    public CalendarViewModel() {
+        dayStates.addSource(repository.getForecast(), this::project);
+    }
+
+    public LiveData<UserProfile> getProfile() {
+        return repository.getProfile();
+    }
+
+    /** Months projected from the current forecast; {@code null} while there is none. */
+    public LiveData<MonthStateCache> getDayStates() {
+        return dayStates;
+    }
+
+    public LiveData<String> getLoadError() {
+        return repository.getLoadError();
+    }
+
+    /** Projects a month in the background so paging to it finds it cached. */
+    public void prefetch(int year, int month) {
+        MonthStateCache states = dayStates.getValue();
+        if (states == null || prefetchExecutor.isShutdown()) return;
+        prefetchExecutor.execute(() -> states.prefetch(year, month));
+    }
+
+    private void project(CycleForecast forecast) {
+        // LiveData redelivers the same forecast when the source reattaches; keep the cache
+        if (forecast == projectedForecast) return;
+        projectedForecast = forecast;
+
+        UserProfile profile = repository.getProfile().getValue();
+        if (forecast == null || profile == null) {
+            dayStates.setValue(null);
+            return;
+        }
+
+        AppLog.event(TAG, "projecting", "cycleLength", AppLog.phi(forecast.cycleLength()),
+                "loggedStarts", profile.getPeriodStarts().length);
+        dayStates.setValue(new MonthStateCache(
+                new CycleCalendar(profile.getPeriodStarts(), forecast.cycleLength()),
+                CACHED_MONTHS));
+    }
+
+    @Override
+    protected void onCleared() {
+        prefetchExecutor.shutdownNow();
+    }
+}
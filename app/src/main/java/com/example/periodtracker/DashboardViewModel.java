@@ -0,0 +1,171 @@
+package com.example.periodtracker;
+
+
+import androidx.lifecycle.LiveData;
+import androidx.lifecycle.MediatorLiveData;
+import androidx.lifecycle.MutableLiveData;
+import androidx.lifecycle.ViewModel;
+
+import com.example.periodtracker.core.CycleForecast;
+import com.example.periodtracker.core.CyclePredictionEngine;
+import com.example.periodtracker.core.EpochDays;
+import com.example.periodtracker.core.SymptomEntry;
+import com.example.periodtracker.core.SymptomSummary;
+import com.example.periodtracker.core.TrackerDataSource;
+import com.google.firebase.auth.FirebaseAuth;
+import com.google.firebase.auth.FirebaseUser;
+
+import org.threeten.bp.LocalDate;
+import org.threeten.bp.format.DateTimeFormatter;
+
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Dashboard text derived from the shared profile and forecast.
+ *
+ * The prediction lines are formatted once per forecast and kept across
+ * configuration changes, so a rotated dashboard rebinds without recomputing.
+ * Symptom insights come from the small summary/{uid} node rather than the
+ * symptom history.
+ */
+public class DashboardViewModel extends ViewModel {
+
+    private static final String TAG = "DashboardViewModel";
+
+    private static final DateTimeFormatter DISPLAY_FORMAT =
+            DateTimeFormatter.ofPattern("MMM dd", Locale.getDefault());
+
+    /** Formatted prediction lines for the dashboard cards. */
+    public static final class Predictions {
+        public final String nextPeriodText;
+        public final String fertileWindowText;
+
+        Predictions(String nextPeriodText, String fertileWindowText) {
+            this.nextPeriodText = nextPeriodText;
+            this.fertileWindowText = fertileWindowText;
+        }
+    }
+
+    private final UserProfileRepository repository = UserProfileRepository.getInstance();
+    private final MediatorLiveData<Predictions> predictions = new MediatorLiveData<>();
+    private final MutableLiveData<String> insights = new MutableLiveData<>();
+
+    private TrackerDataSource.Subscription summarySubscription;
+
+    private CycleForecast formattedForecast;
+    private int formattedOn;
+
+    public DashboardViewModel() {
+        predictions.addSource(repository.getForecast(), this::format);
+        listenToSummary();
+    }
+
+    public LiveData<UserProfile> getProfile() {
+        return repository.getProfile();
+    }
+
+    /** Prediction lines for the current forecast; {@code null} while there is none. */
+    public LiveData<Predictions> getPredictions() {
+        return predictions;
+    }
+
+    public LiveData<String> getLoadError() {
+        return repository.getLoadError();
+    }
+
+    /** One-paragraph summary of the logged symptoms; {@code null} until it has loaded. */
+    public LiveData<String> getInsights() {
+        return insights;
+    }
+
+    @Override
+    protected void onCleared() {
+        if (summarySubscription != null) summarySubscription.remove();
+    }
+
+    private void listenToSummary() {
+        FirebaseUser user = FirebaseAuth.getInstance().getCurrentUser();
+        if (user == null) return;
+
+        TrackerDataSource.Callback<TrackerDataSource.Node> listener =
+                new TrackerDataSource.Callback<TrackerDataSource.Node>() {
+            @Override
+            public void onSuccess(TrackerDataSource.Node node) {
+                SnapshotDispatcher.getInstance().dispatch("summary", () -> {
+                    Object value = node.value();
+                    @SuppressWarnings("unchecked")
+                    Map<String, Object> map = value instanceof Map ? (Map<String, Object>) value : null;
+                    return formatInsights(SymptomSummary.fromFirebase(map));
+                }, insights::setValue);
+            }
+
+            @Override
+            public void onFailure(Exception error) {
+                AppLog.e(TAG, "Error loading summary", AppLog.phi(error.getMessage()));
+            }
+        };
+        summarySubscription = PeriodTrackerApp.getDataSource()
+                .observeSummary(user.getUid(), listener);
+    }
+
+    private static String formatInsights(SymptomSummary summary) {
+        if (summary.entryCount() == 0) return "Log symptoms to see your patterns";
+
+        StringBuilder text = new StringBuilder()
+                .append(summary.entryCount()).append(" days logged");
+        int symptom = summary.mostCommonSymptom();
+        if (symptom >= 0) {
+            text.append("\nMost common symptom: ").append(SymptomEntry.symptomName(symptom))
+                    .append(" (").append(summary.symptomCount(symptom)).append(" days)");
+        }
+        int mood = summary.mostCommonMood();
+        if (mood >= 0) {
+            text.append("\nUsual mood: ").append(SymptomEntry.moodName(mood));
+        }
+        double flow = summary.averageFlow();
+        if (flow > 0) {
+            text.append("\nAverage flow: ").append(SymptomEntry.flowName((int) Math.round(flow)));
+        }
+        return text.toString();
+    }
+
+    private void format(CycleForecast forecast) {
+        int today = EpochDays.today();
+        // LiveData redelivers the same forecast when the source reattaches
+        if (forecast == formattedForecast && today == formattedOn) return;
+        formattedForecast = forecast;
+        formattedOn = today;
+
+        if (forecast == null) {
+            predictions.setValue(null);
+            return;
+        }
+
+        // Days until the next predicted period, with its confidence band
+        int daysUntilPeriod = forecast.predictedStart(0) - today;
+        int band = forecast.bandDays(0);
+
+        String nextPeriodText;
+        if (daysUntilPeriod > 0) {
+            nextPeriodText = "In " + daysUntilPeriod + " days (±" + band + ")";
+        } else if (daysUntilPeriod == 0) {
+            nextPeriodText = "Today";
+        } else {
+            nextPeriodText = "Period may be late";
+        }
+
+        // Fertile window: the five days before ovulation plus ovulation day,
+        // which typically falls 14 days before the next period
+        long fertileWindow = forecast.fertileWindow(0);
+        String fertileWindowText =
+                DISPLAY_FORMAT.format(LocalDate.ofEpochDay(CyclePredictionEngine.rangeStart(fertileWindow)))
+                        + " - " +
+                DISPLAY_FORMAT.format(LocalDate.ofEpochDay(CyclePredictionEngine.rangeEnd(fertileWindow)));
+
+        AppLog.event(TAG, "predicted", "daysUntilPeriod", AppLog.phi(daysUntilPeriod),
+                "band", band, "cycleLength", AppLog.phi(forecast.cycleLength()));
+
+        predictions.setValue(new Predictions(nextPeriodText, fertileWindowText));
+    }
+}
@@ -0,0 +1,252 @@
+package com.example.periodtracker;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import com.example.periodtracker.core.TrackerDataSource;
+import com.google.android.gms.tasks.Task;
+import com.google.firebase.database.ChildEventListener;
+import com.google.firebase.database.DataSnapshot;
+import com.google.firebase.database.DatabaseError;
+import com.google.firebase.database.DatabaseReference;
+import com.google.firebase.database.FirebaseDatabase;
+import com.google.firebase.database.MutableData;
+import com.google.firebase.database.Query;
+import com.google.firebase.database.ServerValue;
+import com.google.firebase.database.Transaction;
+import com.google.firebase.database.ValueEventListener;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.TreeMap;
+
+/**
+ * {@link TrackerDataSource} backed by the Firebase Realtime Database.
+ *
+ * Callbacks run on the main thread, as Firebase delivers them. Nodes wrap
+ * the raw {@link DataSnapshot} and only convert it when asked, so callers can
+ * keep that work on the {@link SnapshotDispatcher} thread. One-shot reads use
+ * {@link Query#get()}, which answers from memory for nodes {@link OfflineCache}
+ * keeps synced, else asks the server and only falls back to the disk cache
+ * when offline. The first result of every read and listener is counted as a
+ * fast or slow read; see {@link OfflineCache#recordRead}.
+ */
+public class FirebaseDataSource implements TrackerDataSource {
+
+    private final DatabaseReference root = FirebaseDatabase.getInstance().getReference();
+
+    @Override
+    public Subscription observeUser(String uid, Callback<Node> callback) {
+        return observe("users", root.child("users").child(uid), callback);
+    }
+
+    @Override
+    public Subscription observeSummary(String uid, Callback<Node> callback) {
+        return observe("summary", root.child("summary").child(uid), callback);
+    }
+
+    @Override
+    public void getUser(String uid, Callback<Node> callback) {
+        get("users", root.child("users").child(uid), callback);
+    }
+
+    @Override
+    public void getSummary(String uid, Callback<Node> callback) {
+        get("summary", root.child("summary").child(uid), callback);
+    }
+
+    @Override
+    public void getSymptoms(String uid, Callback<Node> callback) {
+        get("symptoms", symptoms(uid), callback);
+    }
+
+    @Override
+    public void getSymptomRange(String uid, String firstKey, String lastKey,
+                                Callback<Node> callback) {
+        get("symptoms", symptoms(uid).orderByKey().startAt(firstKey).endAt(lastKey), callback);
+    }
+
+    @Override
+    public void getSymptomsThrough(String uid, @Nullable String lastKey, int limit,
+                                   Callback<Node> callback) {
+        Query query = symptoms(uid).orderByKey();
+        if (lastKey != null) {
+            query = query.endAt(lastKey);
+        }
+        get("symptoms", query.limitToLast(limit), callback);
+    }
+
+    /**
+     * A ChildEventListener on symptoms/{uid} ordered by updatedAt, so a
+     * resumed listener downloads only the days written since. Firebase fires
+     * value events after the child events of the same data, so a one-shot
+     * value listener on the same query marks the end of the initial batch.
+     * Relies on the {@code ".indexOn": "updatedAt"} in database.rules.json;
+     * without it the server sends the whole node and the client filters it.
+     */
+    @Override
+    public Subscription observeSymptomsSince(String uid, @Nullable Long sinceUpdatedAt,
+                                             ChildListener listener) {
+        Query query = symptoms(uid).orderByChild("updatedAt");
+        if (sinceUpdatedAt != null) {
+            query = query.startAt(sinceUpdatedAt);
+        }
+        long start = System.nanoTime();
+        ChildEventListener children = new ChildEventListener() {
+            @Override
+            public void onChildAdded(@NonNull DataSnapshot snapshot, @Nullable String previousKey) {
+                listener.onChildAdded(snapshot.getKey(), new SnapshotNode(snapshot));
+            }
+
+            @Override
+            public void onChildChanged(@NonNull DataSnapshot snapshot, @Nullable String previousKey) {
+                listener.onChildChanged(snapshot.getKey(), new SnapshotNode(snapshot));
+            }
+
+            @Override
+            public void onChildRemoved(@NonNull DataSnapshot snapshot) {
+                listener.onChildRemoved(snapshot.getKey());
+            }
+
+            @Override
+            public void onChildMoved(@NonNull DataSnapshot snapshot, @Nullable String previousKey) {
+                // Order within the query is irrelevant; days are keyed by date
+            }
+
+            @Override
+            public void onCancelled(@NonNull DatabaseError error) {
+                listener.onFailure(error.toException());
+            }
+        };
+        ValueEventListener caughtUp = new ValueEventListener() {
+            @Override
+            public void onDataChange(@NonNull DataSnapshot snapshot) {
+                OfflineCache.recordRead("symptoms", start);
+                listener.onCaughtUp();
+            }
+
+            @Override
+            public void onCancelled(@NonNull DatabaseError error) {
+                // Reported by the child listener
+            }
+        };
+        Query registered = query;
+        registered.addChildEventListener(children);
+        registered.addListenerForSingleValueEvent(caughtUp);
+        return () -> {
+            registered.removeEventListener(children);
+            registered.removeEventListener(caughtUp);
+        };
+    }
+
+    @Override
+    public void update(Map<String, Object> updates, Callback<Void> callback) {
+        complete(root.updateChildren(updates), callback);
+    }
+
+    @Override
+    public Object increment(long delta) {
+        return ServerValue.increment(delta);
+    }
+
+    @Override
+    public Object serverTimestamp() {
+        return ServerValue.TIMESTAMP;
+    }
+
+    @Override
+    public void initialize(String path, String markerKey, Map<String, Object> value,
+                           Callback<Boolean> callback) {
+        root.child(path).runTransaction(new Transaction.Handler() {
+            @NonNull
+            @Override
+            public Transaction.Result doTransaction(@NonNull MutableData current) {
+                if (current.hasChild(markerKey)) return Transaction.abort();
+                current.setValue(value);
+                return Transaction.success(current);
+            }
+
+            @Override
+            public void onComplete(@Nullable DatabaseError error, boolean committed,
+                                   @Nullable DataSnapshot snapshot) {
+                if (error != null) {
+                    callback.onFailure(error.toException());
+                } else {
+                    callback.onSuccess(committed);
+                }
+            }
+        });
+    }
+
+    private DatabaseReference symptoms(String uid) {
+        return root.child("symptoms").child(uid);
+    }
+
+    private static Subscription observe(String node, DatabaseReference ref,
+                                        Callback<Node> callback) {
+        long start = System.nanoTime();
+        ValueEventListener listener = new ValueEventListener() {
+            private boolean first = true;
+
+            @Override
+            public void onDataChange(@NonNull DataSnapshot snapshot) {
+                if (first) {
+                    first = false;
+                    OfflineCache.recordRead(node, start);
+                }
+                callback.onSuccess(new SnapshotNode(snapshot));
+            }
+
+            @Override
+            public void onCancelled(@NonNull DatabaseError error) {
+                callback.onFailure(error.toException());
+            }
+        };
+        ref.addValueEventListener(listener);
+        return () -> ref.removeEventListener(listener);
+    }
+
+    private static void get(String node, Query query, Callback<Node> callback) {
+        long start = System.nanoTime();
+        query.get()
+                .addOnSuccessListener(snapshot -> {
+                    OfflineCache.recordRead(node, start);
+                    callback.onSuccess(new SnapshotNode(snapshot));
+                })
+                .addOnFailureListener(callback::onFailure);
+    }
+
+    private static void complete(Task<Void> task, Callback<Void> callback) {
+        task.addOnSuccessListener(unused -> callback.onSuccess(null))
+                .addOnFailureListener(callback::onFailure);
+    }
+
+    private static final class SnapshotNode implements Node {
+        private final DataSnapshot snapshot;
+
+        SnapshotNode(DataSnapshot snapshot) {
+            this.snapshot = snapshot;
+        }
+
+        @Override
+        public boolean exists() {
+            return snapshot.exists();
+        }
+
+        @Override
+        public Object value() {
+            return snapshot.getValue();
+        }
+
+        @Override
+        public SortedMap<String, Object> children() {
+            if (!snapshot.hasChildren()) return Collections.emptySortedMap();
+            SortedMap<String, Object> children = new TreeMap<>();
+            for (DataSnapshot child : snapshot.getChildren()) {
+                children.put(child.getKey(), child.getValue());
+            }
+            return children;
+        }
+    }
+}
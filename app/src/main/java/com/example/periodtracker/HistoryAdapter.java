@@ -0,0 +1,101 @@
+package com.example.periodtracker;
+
+import android.view.LayoutInflater;
+import android.view.View;
+import android.view.ViewGroup;
+import android.widget.TextView;
+
+import androidx.annotation.NonNull;
+import androidx.recyclerview.widget.DiffUtil;
+import androidx.recyclerview.widget.ListAdapter;
+import androidx.recyclerview.widget.RecyclerView;
+
+import com.example.periodtracker.core.SymptomEntry;
+
+import java.util.List;
+
+/** Recycling adapter for the symptom history cards shown by HistoryFragment. */
+public class HistoryAdapter extends ListAdapter<SymptomEntry, HistoryAdapter.EntryViewHolder> {
+
+    private static final DiffUtil.ItemCallback<SymptomEntry> DIFF =
+            new DiffUtil.ItemCallback<SymptomEntry>() {
+                @Override
+                public boolean areItemsTheSame(@NonNull SymptomEntry oldItem,
+                                               @NonNull SymptomEntry newItem) {
+                    // One entry per day
+                    return oldItem.epochDay() == newItem.epochDay();
+                }
+
+                @Override
+                public boolean areContentsTheSame(@NonNull SymptomEntry oldItem,
+                                                  @NonNull SymptomEntry newItem) {
+                    return oldItem.equals(newItem);
+                }
+            };
+
+    public HistoryAdapter() {
+        super(DIFF);
+    }
+
+    @NonNull
+    @Override
+    public EntryViewHolder onCreateViewHolder(@NonNull ViewGroup parent, int viewType) {
+        View view = LayoutInflater.from(parent.getContext())
+                .inflate(R.layout.item_history_entry, parent, false);
+        return new EntryViewHolder(view);
+    }
+
+    @Override
+    public void onBindViewHolder(@NonNull EntryViewHolder holder, int position) {
+        holder.bind(getItem(position));
+    }
+
+    static class EntryViewHolder extends RecyclerView.ViewHolder {
+
+        private final TextView tvDate;
+        private final TextView tvMood;
+        private final TextView tvFlow;
+        private final TextView tvSymptoms;
+        private final TextView tvNotes;
+
+        EntryViewHolder(@NonNull View itemView) {
+            super(itemView);
+            tvDate = itemView.findViewById(R.id.tv_entry_date);
+            tvMood = itemView.findViewById(R.id.tv_entry_mood);
+            tvFlow = itemView.findViewById(R.id.tv_entry_flow);
+            tvSymptoms = itemView.findViewById(R.id.tv_entry_symptoms);
+            tvNotes = itemView.findViewById(R.id.tv_entry_notes);
+        }
+
+        void bind(SymptomEntry entry) {
+            // Date
+            tvDate.setText(entry.dateKey());
+
+            // Mood
+            bindLine(tvMood, entry.mood() != SymptomEntry.MOOD_NOT_SPECIFIED
+                    ? "Mood: " + entry.moodName() : null);
+
+            // Flow
+            bindLine(tvFlow, entry.flow() != SymptomEntry.FLOW_NOT_SPECIFIED
+                    ? "Flow: " + entry.flowName() : null);
+
+            // Symptoms
+            List<String> symptoms = entry.symptomNames();
+            bindLine(tvSymptoms, !symptoms.isEmpty()
+                    ? "Symptoms: " + String.join(", ", symptoms) : null);
+
+            // Notes
+            String notes = entry.notes();
+            bindLine(tvNotes, !notes.isEmpty() ? "Notes: " + notes : null);
+        }
+
+        private static void bindLine(TextView view, String text) {
+            if (text == null) {
+                view.setVisibility(View.GONE);
+            } else {
+                view.setText(text);
+                view.setVisibility(View.VISIBLE);
+            }
+        }
+    }
+}
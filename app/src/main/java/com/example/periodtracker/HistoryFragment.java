@@ -1,194 +1,140 @@
 package com.example.periodtracker;
 
 import android.os.Bundle;
-import android.util.Log;
+import android.text.Editable;
+import android.text.TextWatcher;
 import android.view.LayoutInflater;
 import android.view.View;
 import android.view.ViewGroup;
-import android.widget.LinearLayout;
+import android.widget.EditText;
 import android.widget.TextView;
 import android.widget.Toast;
 
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
-import androidx.cardview.widget.CardView;
 import androidx.fragment.app.Fragment;
+import androidx.lifecycle.ViewModelProvider;
+import androidx.recyclerview.widget.LinearLayoutManager;
+import androidx.recyclerview.widget.RecyclerView;
 
-import com.google.firebase.auth.FirebaseAuth;
-import com.google.firebase.database.DataSnapshot;
-import com.google.firebase.database.DatabaseError;
-import com.google.firebase.database.DatabaseReference;
-import com.google.firebase.database.FirebaseDatabase;
-import com.google.firebase.database.ValueEventListener;
+import com.example.periodtracker.core.SymptomEntry;
 
-import java.util.ArrayList;
-import java.util.Collections;
-import java.util.HashMap;
 import java.util.List;
-import java.util.Map;
 
 public class HistoryFragment extends Fragment {
 
     private static final String TAG = "HistoryFragment";
 
-    private LinearLayout historyContainer;
-    private FirebaseAuth mAuth;
-    private DatabaseReference dbRef;
+    /** Fetch the next page once the user scrolls within this many rows of the end. */
+    private static final int PREFETCH_DISTANCE = 10;
+
+    private RecyclerView historyList;
+    private TextView tvEmpty;
+    private TextView tvInsights;
+    private LinearLayoutManager layoutManager;
+    private final HistoryAdapter adapter = new HistoryAdapter();
+
+    private HistoryViewModel viewModel;
 
     @Nullable
     @Override
     public View onCreateView(@NonNull LayoutInflater inflater, @Nullable ViewGroup container,
                              @Nullable Bundle savedInstanceState) {
+        long createStart = System.nanoTime();
         View view = inflater.inflate(R.layout.fragment_history, container, false);
 
-        mAuth = FirebaseAuth.getInstance();
-        dbRef = FirebaseDatabase.getInstance().getReference();
-
-        // Add a container for dynamically adding history cards
-        historyContainer = view.findViewById(R.id.history_container);
-        if (historyContainer == null) {
-            // If no container in XML, create one
-            historyContainer = new LinearLayout(requireContext());
-            historyContainer.setOrientation(LinearLayout.VERTICAL);
-            ((ViewGroup) view).addView(historyContainer);
-        }
-
-        loadSymptomHistory();
+        tvEmpty = view.findViewById(R.id.tv_history_empty);
+        tvInsights = view.findViewById(R.id.tv_history_insights);
+        EditText etSearch = view.findViewById(R.id.et_history_search);
+        historyList = view.findViewById(R.id.history_list);
+        layoutManager = new LinearLayoutManager(requireContext());
+        historyList.setLayoutManager(layoutManager);
+        historyList.setAdapter(adapter);
+        historyList.addOnScrollListener(new RecyclerView.OnScrollListener() {
+            @Override
+            public void onScrolled(@NonNull RecyclerView recyclerView, int dx, int dy) {
+                if (dy > 0 && viewModel.getSearchResults().getValue() == null
+                        && layoutManager.findLastVisibleItemPosition()
+                        >= adapter.getItemCount() - PREFETCH_DISTANCE) {
+                    viewModel.loadNextPage();
+                }
+            }
+        });
 
-        return view;
-    }
+        // Survives rotation together with the cursor and the pages already loaded
+        viewModel = new ViewModelProvider(this).get(HistoryViewModel.class);
 
-    private void loadSymptomHistory() {
-        String uid = mAuth.getCurrentUser().getUid();
+        etSearch.addTextChangedListener(new TextWatcher() {
+            @Override
+            public void beforeTextChanged(CharSequence s, int start, int count, int after) {
+            }
 
-        dbRef.child("symptoms").child(uid).addListenerForSingleValueEvent(new ValueEventListener() {
             @Override
-            public void onDataChange(@NonNull DataSnapshot snapshot) {
-                if (snapshot.exists()) {
-                    List<Map<String, Object>> historyList = new ArrayList<>();
-
-                    for (DataSnapshot dateSnapshot : snapshot.getChildren()) {
-                        Map<String, Object> entry = new HashMap<>();
-                        entry.put("date", dateSnapshot.child("date").getValue(String.class));
-                        entry.put("mood", dateSnapshot.child("mood").getValue(String.class));
-                        entry.put("flow", dateSnapshot.child("flow").getValue(String.class));
-
-                        List<String> symptoms = new ArrayList<>();
-                        if (dateSnapshot.child("physicalSymptoms").exists()) {
-                            for (DataSnapshot symptom : dateSnapshot.child("physicalSymptoms").getChildren()) {
-                                symptoms.add(symptom.getValue(String.class));
-                            }
-                        }
-                        entry.put("symptoms", symptoms);
-                        entry.put("notes", dateSnapshot.child("notes").getValue(String.class));
-
-                        historyList.add(entry);
-                    }
-
-                    // Sort by date (newest first)
-                    Collections.reverse(historyList);
-
-                    displayHistory(historyList);
-                } else {
-                    showNoDataMessage();
-                }
+            public void onTextChanged(CharSequence s, int start, int before, int count) {
             }
 
             @Override
-            public void onCancelled(@NonNull DatabaseError error) {
-                Log.e(TAG, "Error loading history: " + error.getMessage());
-                Toast.makeText(requireContext(),
-                        "Error loading history",
-                        Toast.LENGTH_SHORT).show();
+            public void afterTextChanged(Editable s) {
+                viewModel.search(s.toString());
             }
         });
-    }
 
-    private void displayHistory(List<Map<String, Object>> historyList) {
-        historyContainer.removeAllViews();
+        loadSymptomHistory();
 
-        if (historyList.isEmpty()) {
-            showNoDataMessage();
-            return;
-        }
+        Metrics.trackFirstRender("history", view, createStart);
 
-        for (Map<String, Object> entry : historyList) {
-            CardView card = createHistoryCard(entry);
-            historyContainer.addView(card);
-        }
+        return view;
     }
 
-    private CardView createHistoryCard(Map<String, Object> entry) {
-        CardView card = new CardView(requireContext());
-        LinearLayout.LayoutParams cardParams = new LinearLayout.LayoutParams(
-                LinearLayout.LayoutParams.MATCH_PARENT,
-                LinearLayout.LayoutParams.WRAP_CONTENT
-        );
-        cardParams.setMargins(0, 0, 0, 24);
-        card.setLayoutParams(cardParams);
-        card.setRadius(20f);
-        card.setCardElevation(6f);
-        card.setContentPadding(32, 32, 32, 32);
-
-        LinearLayout content = new LinearLayout(requireContext());
-        content.setOrientation(LinearLayout.VERTICAL);
-
-        // Date
-        TextView dateText = new TextView(requireContext());
-        dateText.setText(entry.get("date").toString());
-        dateText.setTextSize(18);
-        dateText.setTextColor(getResources().getColor(android.R.color.holo_red_dark, null));
-        dateText.setPadding(0, 0, 0, 16);
-        content.addView(dateText);
-
-        // Mood
-        if (entry.get("mood") != null && !entry.get("mood").equals("Not specified")) {
-            TextView moodText = new TextView(requireContext());
-            moodText.setText("Mood: " + entry.get("mood"));
-            moodText.setTextSize(15);
-            content.addView(moodText);
-        }
+    private void loadSymptomHistory() {
+        viewModel.getEntries().observe(getViewLifecycleOwner(), entries -> showEntries());
+        viewModel.getSearchResults().observe(getViewLifecycleOwner(), results -> showEntries());
 
-        // Flow
-        if (entry.get("flow") != null && !entry.get("flow").equals("Not specified")) {
-            TextView flowText = new TextView(requireContext());
-            flowText.setText("Flow: " + entry.get("flow"));
-            flowText.setTextSize(15);
-            content.addView(flowText);
-        }
+        viewModel.getInsights().observe(getViewLifecycleOwner(), insights -> {
+            tvInsights.setText(insights);
+            tvInsights.setVisibility(insights == null ? View.GONE : View.VISIBLE);
+        });
 
-        // Symptoms
-        @SuppressWarnings("unchecked")
-        List<String> symptoms = (List<String>) entry.get("symptoms");
-        if (symptoms != null && !symptoms.isEmpty()) {
-            TextView symptomsText = new TextView(requireContext());
-            symptomsText.setText("Symptoms: " + String.join(", ", symptoms));
-            symptomsText.setTextSize(15);
-            content.addView(symptomsText);
-        }
+        viewModel.getError().observe(getViewLifecycleOwner(), error -> {
+            if (error == null) return;
+            AppLog.e(TAG, "Error loading history", AppLog.phi(error));
+            Toast.makeText(requireContext(),
+                    "Error loading history",
+                    Toast.LENGTH_SHORT).show();
+        });
+    }
 
-        // Notes
-        if (entry.get("notes") != null && !entry.get("notes").toString().isEmpty()) {
-            TextView notesText = new TextView(requireContext());
-            notesText.setText("Notes: " + entry.get("notes"));
-            notesText.setTextSize(14);
-            notesText.setPadding(0, 8, 0, 0);
-            content.addView(notesText);
+    /** Shows the search results while searching, otherwise the paged history. */
+    private void showEntries() {
+        List<SymptomEntry> results = viewModel.getSearchResults().getValue();
+        if (results != null) {
+            if (results.isEmpty()) {
+                showNoDataMessage("No entries match your search.");
+            } else {
+                showList(results);
+            }
+            return;
         }
 
-        card.addView(content);
-        return card;
+        List<SymptomEntry> entries = viewModel.getEntries().getValue();
+        if (entries == null) return;
+        if (entries.isEmpty() && viewModel.isEndReached()) {
+            showNoDataMessage("No symptom history yet.\nStart logging your symptoms!");
+            return;
+        }
+        showList(entries);
     }
 
-    private void showNoDataMessage() {
-        historyContainer.removeAllViews();
-
-        TextView noDataText = new TextView(requireContext());
-        noDataText.setText("No symptom history yet.\nStart logging your symptoms!");
-        noDataText.setTextSize(16);
-        noDataText.setTextAlignment(View.TEXT_ALIGNMENT_CENTER);
-        noDataText.setPadding(0, 100, 0, 0);
+    private void showList(List<SymptomEntry> entries) {
+        tvEmpty.setVisibility(View.GONE);
+        historyList.setVisibility(View.VISIBLE);
+        adapter.submitList(entries);
+    }
 
-        historyContainer.addView(noDataText);
+    private void showNoDataMessage(String message) {
+        tvEmpty.setText(message);
+        adapter.submitList(null);
+        historyList.setVisibility(View.GONE);
+        tvEmpty.setVisibility(View.VISIBLE);
     }
-}
\ No newline at end of file
+}
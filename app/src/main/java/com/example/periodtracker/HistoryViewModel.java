@@ -0,0 +1,238 @@
+package com.example.periodtracker;
+
+import android.app.Application;
+
+import androidx.annotation.NonNull;
+import androidx.lifecycle.AndroidViewModel;
+import androidx.lifecycle.LiveData;
+import androidx.lifecycle.MutableLiveData;
+import androidx.lifecycle.Observer;
+
+import com.example.periodtracker.core.CycleForecast;
+import com.example.periodtracker.core.HistoryIndex;
+import com.example.periodtracker.core.SymptomAnalytics;
+import com.example.periodtracker.core.SymptomEntry;
+import com.google.firebase.auth.FirebaseAuth;
+
+import java.util.List;
+
+/**
+ * Holds the loaded history pages and the paging cursor for HistoryFragment,
+ * so rotating the screen neither refetches nor loses the scroll depth.
+ *
+ * Pages are read from the local {@link SymptomStore}, which a
+ * {@link SymptomHistorySync} keeps current while this model lives. The loaded
+ * entries sit in a {@link HistoryIndex}; each change the repository reports
+ * is applied to it day by day, so the list only rebinds the affected rows.
+ * Pattern insights come from {@link SymptomAnalytics} over the whole local
+ * history and are refreshed whenever entries or the forecast change.
+ */
+public class HistoryViewModel extends AndroidViewModel {
+
+    /** Entries read per local page. */
+    static final int PAGE_SIZE = 30;
+    /** Most search results shown at once. */
+    static final int SEARCH_LIMIT = 200;
+
+    private final MutableLiveData<List<SymptomEntry>> entries = new MutableLiveData<>();
+    private final MutableLiveData<String> error = new MutableLiveData<>();
+    private final MutableLiveData<String> insights = new MutableLiveData<>();
+    private final MutableLiveData<List<SymptomEntry>> searchResults = new MutableLiveData<>();
+
+    private final String uid;
+    private final SymptomRepository repository;
+    private final UserProfileRepository profiles = UserProfileRepository.getInstance();
+    private final SymptomRepository.EntryListener entryListener =
+            new SymptomRepository.EntryListener() {
+                @Override
+                public void onEntriesChanged(String changedUid, List<SymptomEntry> stored,
+                                             int[] removedDays) {
+                    if (changedUid.equals(uid)) applyChanges(stored, removedDays);
+                }
+
+                @Override
+                public void onHistorySyncFailed(String failedUid, String message) {
+                    if (failedUid.equals(uid)) error.setValue(message);
+                }
+            };
+    private final Observer<CycleForecast> forecastObserver = forecast -> refreshInsights();
+
+    private final HistoryIndex loaded = new HistoryIndex();
+    /** Local cursor: epoch day of the oldest entry read by a page so far. */
+    private int oldestLoadedDay = Integer.MAX_VALUE;
+    private boolean localEnd;
+    private boolean loadingLocal;
+
+    private String searchText = "";
+    /** Bumped per search so a slow result never replaces a newer one. */
+    private int searchGeneration;
+
+    public HistoryViewModel(@NonNull Application application) {
+        super(application);
+        uid = FirebaseAuth.getInstance().getCurrentUser().getUid();
+        repository = SymptomRepository.getInstance(application);
+
+        repository.addEntryListener(entryListener);
+        repository.startHistorySync(uid);
+        profiles.getForecast().observeForever(forecastObserver);
+        loadNextPage();
+    }
+
+    /** Every entry loaded so far, newest first; {@code null} until the first page arrives. */
+    public LiveData<List<SymptomEntry>> getEntries() {
+        return entries;
+    }
+
+    public LiveData<String> getError() {
+        return error;
+    }
+
+    /** Entries matching the current search, newest first; {@code null} while not searching. */
+    public LiveData<List<SymptomEntry>> getSearchResults() {
+        return searchResults;
+    }
+
+    /** Searches notes and tags by word prefix; an empty text ends the search. */
+    public void search(String text) {
+        String trimmed = text.trim();
+        if (trimmed.equals(searchText)) return;
+        searchText = trimmed;
+        runSearch();
+    }
+
+    private void runSearch() {
+        int generation = ++searchGeneration;
+        if (searchText.isEmpty()) {
+            searchResults.setValue(null);
+            return;
+        }
+        repository.search(uid, searchText, SEARCH_LIMIT, rows -> {
+            if (generation == searchGeneration) searchResults.setValue(rows);
+        });
+    }
+
+    /** A few lines about symptom and mood patterns; {@code null} while there are none. */
+    public LiveData<String> getInsights() {
+        return insights;
+    }
+
+    /** True once the local store has no older entries and the sync has caught up with Firebase. */
+    public boolean isEndReached() {
+        return localEnd && repository.isHistorySynced();
+    }
+
+    public void loadNextPage() {
+        if (loadingLocal || localEnd) return;
+
+        loadingLocal = true;
+        repository.loadPage(uid, oldestLoadedDay, PAGE_SIZE, page -> {
+            loadingLocal = false;
+            for (SymptomEntry entry : page) {
+                loaded.put(entry);
+            }
+            if (!page.isEmpty()) {
+                oldestLoadedDay = Math.min(oldestLoadedDay, page.get(page.size() - 1).epochDay());
+            }
+            localEnd = page.size() < PAGE_SIZE;
+            publish();
+        });
+    }
+
+    /**
+     * Patches the loaded entries with the days the store just changed. Days
+     * older than the loaded pages are left for paging to pick up, except at
+     * the local end, where the user is waiting for them.
+     */
+    private void applyChanges(List<SymptomEntry> stored, int[] removedDays) {
+        if (stored.isEmpty() && removedDays.length == 0) {
+            // An empty batch can still mean the sync caught up and the end is reached
+            if (entries.getValue() != null && entries.getValue().isEmpty()) publish();
+            return;
+        }
+
+        int older = 0;
+        for (SymptomEntry entry : stored) {
+            if (entry.epochDay() >= oldestLoadedDay) {
+                loaded.put(entry);
+            } else {
+                older++;
+            }
+        }
+        for (int day : removedDays) {
+            loaded.remove(day);
+        }
+        if (older > 0 && localEnd) {
+            // Read them as pages from the store instead of patching a large backfill in
+            localEnd = false;
+            loadNextPage();
+        }
+        publish();
+        refreshInsights();
+        runSearch();
+    }
+    private void refreshInsights() {
+        CycleForecast forecast = profiles.getForecast().getValue();
+        UserProfile profile = profiles.getProfile().getValue();
+        if (forecast == null || profile == null) return;
+        repository.loadAnalytics(uid, profile.getPeriodStarts(), forecast.cycleLength(),
+                result -> insights.setValue(formatInsights(result)));
+    }
+
+    private static String formatInsights(SymptomAnalytics.Result result) {
+        if (result.entryCount() == 0) return null;
+        StringBuilder text = new StringBuilder();
+
+        int symptom = -1;
+        for (int i = 0; i < SymptomEntry.SYMPTOM_COUNT; i++) {
+            int days = result.cooccurrence(i, i);
+            if (days > 0 && (symptom < 0 || days > result.cooccurrence(symptom, symptom))) {
+                symptom = i;
+            }
+        }
+        if (symptom >= 0) {
+            text.append(SymptomEntry.symptomName(symptom)).append(" is most likely on cycle day ")
+                    .append(result.peakCycleDay(symptom) + 1);
+        }
+
+        int pairA = -1;
+        int pairB = -1;
+        for (int a = 0; a < SymptomEntry.SYMPTOM_COUNT; a++) {
+            for (int b = a + 1; b < SymptomEntry.SYMPTOM_COUNT; b++) {
+                int days = result.cooccurrence(a, b);
+                if (days > 1 && (pairA < 0 || days > result.cooccurrence(pairA, pairB))) {
+                    pairA = a;
+                    pairB = b;
+                }
+            }
+        }
+        if (pairA >= 0) {
+            if (text.length() > 0) text.append('\n');
+            text.append(SymptomEntry.symptomName(pairA)).append(" often comes with ")
+                    .append(SymptomEntry.symptomName(pairB)).append(" (")
+                    .append(result.cooccurrence(pairA, pairB)).append(" days)");
+        }
+
+        int periodMood = result.dominantMood(SymptomAnalytics.PHASE_MENSTRUAL);
+        if (periodMood >= 0) {
+            if (text.length() > 0) text.append('\n');
+            text.append("Usual mood during your period: ").append(SymptomEntry.moodName(periodMood));
+        }
+        int lutealMood = result.dominantMood(SymptomAnalytics.PHASE_LUTEAL);
+        if (lutealMood >= 0) {
+            if (text.length() > 0) text.append('\n');
+            text.append("Usual mood before your period: ").append(SymptomEntry.moodName(lutealMood));
+        }
+        return text.length() == 0 ? null : text.toString();
+    }
+
+    private void publish() {
+        entries.setValue(loaded.snapshot());
+    }
+
+    @Override
+    protected void onCleared() {
+        repository.removeEntryListener(entryListener);
+        repository.stopHistorySync();
+        profiles.getForecast().removeObserver(forecastObserver);
+    }
+}
@@ -6,10 +6,10 @@ import android.widget.Button;
 import android.widget.EditText;
 import android.widget.TextView;
 import android.widget.Toast;
-import androidx.annotation.NonNull;
 import androidx.appcompat.app.AppCompatActivity;
+import androidx.lifecycle.LiveData;
+import androidx.lifecycle.Observer;
 import com.google.firebase.auth.FirebaseAuth;
-import com.google.firebase.database.*;
 
 public class LoginActivity extends AppCompatActivity {
     private FirebaseAuth mAuth;
@@ -24,11 +24,16 @@ public class LoginActivity extends AppCompatActivity {
 
         mAuth = FirebaseAuth.getInstance();
 
-        // If already logged in, go directly to MainActivity
+        // If already logged in with a complete profile on this device, go directly to MainActivity
         if (mAuth.getCurrentUser() != null) {
-            startActivity(new Intent(this, MainActivity.class));
-            finish();
-            return;
+            if (UserProfileRepository.getInstance().hasCompleteCachedProfile()) {
+                StartupTrace.mark("routed_from_cache");
+                startActivity(new Intent(this, MainActivity.class));
+                finish();
+                return;
+            }
+            // Nothing cached yet; ask the server where to go
+            routeByProfile();
         }
 
         etEmail = findViewById(R.id.et_email);
@@ -48,30 +53,7 @@ public class LoginActivity extends AppCompatActivity {
             mAuth.signInWithEmailAndPassword(email, password)
                     .addOnCompleteListener(task -> {
                         if (task.isSuccessful()) {
-                            String uid = mAuth.getCurrentUser().getUid();
-                            DatabaseReference db = FirebaseDatabase.getInstance().getReference();
-                            db.child("users").child(uid).addListenerForSingleValueEvent(new ValueEventListener() {
-                                @Override
-                                public void onDataChange(@NonNull DataSnapshot snapshot) {
-                                    if (snapshot.exists() &&
-                                            snapshot.child("name").exists() &&
-                                            snapshot.child("age").exists() &&
-                                            snapshot.child("cycleLength").exists() &&
-                                            snapshot.child("lastPeriodDate").exists()) {
-                                        // Profile exists, open dashboard
-                                        startActivity(new Intent(LoginActivity.this, MainActivity.class));
-                                    } else {
-                                        // Profile missing, open SetupActivity
-                                        startActivity(new Intent(LoginActivity.this, SetupActivity.class));
-                                    }
-                                    finish();
-                                }
-
-                                @Override
-                                public void onCancelled(@NonNull DatabaseError error) {
-                                    Toast.makeText(LoginActivity.this, "Error: " + error.getMessage(), Toast.LENGTH_SHORT).show();
-                                }
-                            });
+                            routeByProfile();
                         } else {
                             Toast.makeText(this, "Login failed: " + task.getException().getMessage(), Toast.LENGTH_SHORT).show();
                         }
@@ -83,4 +65,33 @@ public class LoginActivity extends AppCompatActivity {
             startActivity(new Intent(LoginActivity.this, RegisterActivity.class));
         });
     }
+
+    private void routeByProfile() {
+        UserProfileRepository repository = UserProfileRepository.getInstance();
+        LiveData<UserProfile> liveProfile = repository.getProfile();
+
+        liveProfile.observe(this, new Observer<UserProfile>() {
+            @Override
+            public void onChanged(UserProfile profile) {
+                if (profile == null) return;
+                liveProfile.removeObserver(this);
+                StartupTrace.mark("routed_from_server");
+
+                if (profile.isComplete()) {
+                    // Profile exists, open dashboard
+                    startActivity(new Intent(LoginActivity.this, MainActivity.class));
+                } else {
+                    // Profile missing, open SetupActivity
+                    startActivity(new Intent(LoginActivity.this, SetupActivity.class));
+                }
+                finish();
+            }
+        });
+
+        repository.getLoadError().observe(this, error -> {
+            if (error != null) {
+                Toast.makeText(LoginActivity.this, "Error: " + error, Toast.LENGTH_SHORT).show();
+            }
+        });
+    }
 }
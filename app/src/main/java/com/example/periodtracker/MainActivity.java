@@ -13,19 +13,27 @@ import com.google.android.material.navigation.NavigationView;
 import android.view.MenuItem;
 import com.example.periodtracker.R;
 import androidx.fragment.app.Fragment;
+import androidx.fragment.app.FragmentManager;
+import androidx.fragment.app.FragmentTransaction;
 import android.content.Intent;
 import android.view.View;
 import android.widget.TextView;
 
 import com.google.firebase.auth.FirebaseAuth;
-import com.google.firebase.database.DataSnapshot;
-import com.google.firebase.database.DatabaseError;
-import com.google.firebase.database.DatabaseReference;
-import com.google.firebase.database.FirebaseDatabase;
-import com.google.firebase.database.ValueEventListener;
 
 public class MainActivity extends AppCompatActivity {
 
+    private static final String STATE_CURRENT_SCREEN = "current_screen";
+
+    private static final String SCREEN_DASHBOARD = "dashboard";
+    private static final String SCREEN_CALENDAR = "calendar";
+    private static final String SCREEN_SYMPTOMS = "symptoms";
+    private static final String SCREEN_HISTORY = "history";
+    private static final String SCREEN_SETTINGS = "settings";
+
+    /** Tag of the fragment on screen; the others stay added but hidden. */
+    private String currentScreen;
+
     private DrawerLayout drawerLayout;
     private NavigationView navView;
     private Toolbar toolbar;
@@ -51,29 +59,38 @@ public class MainActivity extends AppCompatActivity {
         drawerLayout.addDrawerListener(toggle);
         toggle.syncState();
 
-        // Open DashboardFragment by default
+        // Open DashboardFragment by default; after recreation the fragment manager restores the screens
         if (savedInstanceState == null) {
-            getSupportFragmentManager().beginTransaction()
-                    .replace(R.id.fragment_container, new DashboardFragment())
-                    .commit();
+            showScreen(SCREEN_DASHBOARD);
             navView.setCheckedItem(R.id.nav_dashboard);
+        } else {
+            currentScreen = savedInstanceState.getString(STATE_CURRENT_SCREEN, SCREEN_DASHBOARD);
         }
 
+        // Latency histograms are only browsable in debug builds
+        navView.getMenu().findItem(R.id.nav_metrics).setVisible(BuildConfig.DEBUG);
+
         navView.setNavigationItemSelectedListener(item -> {
-            Fragment selectedFragment = null;
+            String selectedScreen = null;
             int itemId = item.getItemId();
 
             if (itemId == R.id.nav_dashboard) {
-                selectedFragment = new DashboardFragment();
+                selectedScreen = SCREEN_DASHBOARD;
             } else if (itemId == R.id.nav_calendar) {
-                selectedFragment = new CalendarFragment();
+                selectedScreen = SCREEN_CALENDAR;
             } else if (itemId == R.id.nav_symptoms) {
-                selectedFragment = new SymptomsFragment();
+                selectedScreen = SCREEN_SYMPTOMS;
             } else if (itemId == R.id.nav_history) {
-                selectedFragment = new HistoryFragment();
+                selectedScreen = SCREEN_HISTORY;
             } else if (itemId == R.id.nav_settings) {
-                selectedFragment = new SettingsFragment();
+                selectedScreen = SCREEN_SETTINGS;
+            } else if (itemId == R.id.nav_metrics) {
+                startActivity(new Intent(MainActivity.this, MetricsActivity.class));
+                drawerLayout.closeDrawer(GravityCompat.START);
+                return false;
             } else if (itemId == R.id.nav_logout) {
+                UserProfileRepository.getInstance().clear();
+                SymptomRepository.getInstance(MainActivity.this).signingOut();
                 FirebaseAuth.getInstance().signOut();
                 startActivity(new Intent(MainActivity.this, LoginActivity.class));
                 finish();
@@ -81,10 +98,8 @@ public class MainActivity extends AppCompatActivity {
                 return true;
             }
 
-            if (selectedFragment != null) {
-                getSupportFragmentManager().beginTransaction()
-                        .replace(R.id.fragment_container, selectedFragment)
-                        .commit();
+            if (selectedScreen != null) {
+                showScreen(selectedScreen);
                 drawerLayout.closeDrawer(GravityCompat.START);
             }
             return true;
@@ -103,11 +118,65 @@ public class MainActivity extends AppCompatActivity {
         });
     }
 
+    @Override
+    protected void onStop() {
+        super.onStop();
+        // Keep the latest percentiles on disk in case the process is killed in the background
+        Metrics.dumpJsonAsync(this);
+    }
+
+    @Override
+    protected void onSaveInstanceState(@NonNull Bundle outState) {
+        super.onSaveInstanceState(outState);
+        outState.putString(STATE_CURRENT_SCREEN, currentScreen);
+    }
+
+    /**
+     * Shows the screen with the given tag, creating it on first use. Screens
+     * are hidden rather than replaced, so switching back to one keeps its
+     * views and loaded data.
+     */
+    private void showScreen(String tag) {
+        if (tag.equals(currentScreen)) return;
+
+        FragmentManager fragmentManager = getSupportFragmentManager();
+        FragmentTransaction transaction = fragmentManager.beginTransaction()
+                .setReorderingAllowed(true);
+
+        Fragment current = currentScreen != null ? fragmentManager.findFragmentByTag(currentScreen) : null;
+        if (current != null) {
+            transaction.hide(current);
+        }
+
+        Fragment target = fragmentManager.findFragmentByTag(tag);
+        if (target == null) {
+            transaction.add(R.id.fragment_container, createScreen(tag), tag);
+        } else {
+            transaction.show(target);
+        }
+
+        transaction.commit();
+        currentScreen = tag;
+    }
+
+    private static Fragment createScreen(String tag) {
+        switch (tag) {
+            case SCREEN_CALENDAR:
+                return new CalendarFragment();
+            case SCREEN_SYMPTOMS:
+                return new SymptomsFragment();
+            case SCREEN_HISTORY:
+                return new HistoryFragment();
+            case SCREEN_SETTINGS:
+                return new SettingsFragment();
+            default:
+                return new DashboardFragment();
+        }
+    }
+
     private void loadUserDataToNavHeader() {
-        String uid = FirebaseAuth.getInstance().getCurrentUser().getUid();
         String email = FirebaseAuth.getInstance().getCurrentUser().getEmail();
 
-        DatabaseReference db = FirebaseDatabase.getInstance().getReference();
         View headerView = navView.getHeaderView(0);
 
         TextView tvNavName = headerView.findViewById(R.id.tv_user_name);
@@ -120,41 +189,43 @@ public class MainActivity extends AppCompatActivity {
             tvNavEmail.setText(email);
         }
 
-        // Load name and age from database
-        db.child("users").child(uid).addListenerForSingleValueEvent(new ValueEventListener() {
-            @Override
-            public void onDataChange(@NonNull DataSnapshot snapshot) {
-                if (snapshot.exists()) {
-                    String name = snapshot.child("name").getValue(String.class);
-                    Integer age = snapshot.child("age").getValue(Integer.class);
-
-                    if (name != null && !name.isEmpty()) {
-                        tvNavName.setText(name);
-                        // Set avatar initial (first letter of name)
-                        tvNavAvatar.setText(String.valueOf(name.charAt(0)).toUpperCase());
-                    } else {
-                        tvNavName.setText("User");
-                        tvNavAvatar.setText("U");
-                    }
-
-                    if (age != null) {
-                        tvNavAge.setText("Age: " + age);
-                    } else {
-                        tvNavAge.setText("Age: N/A");
-                    }
-                } else {
-                    tvNavName.setText("User");
-                    tvNavAvatar.setText("U");
-                    tvNavAge.setText("Age: N/A");
-                }
+        UserProfileRepository repository = UserProfileRepository.getInstance();
+
+        // Load name and age from the shared profile cache
+        repository.getProfile().observe(this, profile -> {
+            if (profile == null) return;
+
+            // Routed here from the cached profile, but the server says setup is unfinished
+            if (!profile.isComplete()) {
+                startActivity(new Intent(MainActivity.this, SetupActivity.class));
+                finish();
+                return;
             }
 
-            @Override
-            public void onCancelled(@NonNull DatabaseError error) {
+            String name = profile.getName();
+            Integer age = profile.getAge();
+
+            if (name != null && !name.isEmpty()) {
+                tvNavName.setText(name);
+                // Set avatar initial (first letter of name)
+                tvNavAvatar.setText(String.valueOf(name.charAt(0)).toUpperCase());
+            } else {
                 tvNavName.setText("User");
                 tvNavAvatar.setText("U");
+            }
+
+            if (age != null) {
+                tvNavAge.setText("Age: " + age);
+            } else {
                 tvNavAge.setText("Age: N/A");
             }
         });
+
+        repository.getLoadError().observe(this, error -> {
+            if (error == null || repository.getProfile().getValue() != null) return;
+            tvNavName.setText("User");
+            tvNavAvatar.setText("U");
+            tvNavAge.setText("Age: N/A");
+        });
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,169 @@
+package com.example.periodtracker;
+
+import android.content.Context;
+import android.util.Log;
+import android.view.View;
+import android.view.ViewTreeObserver;
+
+import com.example.periodtracker.core.LatencyHistogram;
+
+import org.json.JSONException;
+import org.json.JSONObject;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Process-wide latency histograms and event counters, keyed by metric name.
+ *
+ * Recording is lock-free and cheap enough for release builds. The current
+ * values are shown by {@link MetricsActivity} in debug builds and written to
+ * {@code files/metrics.json} whenever the app goes to the background, so
+ * percentiles can be collected from real devices.
+ */
+public final class Metrics {
+
+    private static final String TAG = "Metrics";
+
+    /** First users/{uid} value after attaching the listener. */
+    public static final String FIREBASE_USERS = "firebase.users";
+    /** Attaching the symptoms/{uid} history listener to its having caught up. */
+    public static final String FIREBASE_SYMPTOMS = "firebase.symptoms";
+    /** Snapshot decoding on the dispatcher thread; suffixed with the dispatch label. */
+    public static final String DECODE_PREFIX = "decode.";
+    /** Main-thread delivery of a decoded result; suffixed with the dispatch label. */
+    public static final String DELIVER_PREFIX = "deliver.";
+    /** Feeding the predictor and building the forecast. */
+    public static final String PREDICTION = "prediction";
+    /** onCreateView to first frame drawn; suffixed with the screen name. */
+    public static final String RENDER_PREFIX = "render.";
+    /** Decorator work for one calendar page. */
+    public static final String CALENDAR_DECORATE = "calendar.decorate";
+    /** Bringing the symptom analytics up to date, including a first full build. */
+    public static final String ANALYTICS = "analytics";
+    /** One full-text search of the local history. */
+    public static final String SEARCH = "search";
+
+    /**
+     * Database reads whose first result came while offline or too fast for a
+     * round trip, an estimate of those served from Firebase's local cache;
+     * suffixed with the node name.
+     */
+    public static final String FAST_READ_PREFIX = "reads.fast.";
+    /** Database reads that were not fast; suffixed with the node name. */
+    public static final String SLOW_READ_PREFIX = "reads.slow.";
+
+    private static final String DUMP_FILE = "metrics.json";
+
+    private static final ConcurrentHashMap<String, LatencyHistogram> histograms =
+            new ConcurrentHashMap<>();
+    private static final ConcurrentHashMap<String, AtomicLong> counters = new ConcurrentHashMap<>();
+    private static final ExecutorService dumpExecutor = Executors.newSingleThreadExecutor();
+
+    private Metrics() {
+    }
+
+    public static LatencyHistogram histogram(String name) {
+        LatencyHistogram histogram = histograms.get(name);
+        return histogram != null ? histogram : histograms.computeIfAbsent(name, n -> new LatencyHistogram());
+    }
+
+    /** Records the time since {@code startNanos}, a {@link System#nanoTime()} reading. */
+    public static void recordSince(String name, long startNanos) {
+        histogram(name).recordSince(startNanos);
+    }
+
+    public static void increment(String name) {
+        AtomicLong counter = counters.get(name);
+        if (counter == null) counter = counters.computeIfAbsent(name, n -> new AtomicLong());
+        counter.incrementAndGet();
+    }
+
+    /**
+     * Records {@code RENDER_PREFIX + screen} when {@code view} draws its first
+     * frame; call at the end of onCreateView with the time taken at its start.
+     */
+    public static void trackFirstRender(String screen, View view, long startNanos) {
+        view.getViewTreeObserver().addOnPreDrawListener(new ViewTreeObserver.OnPreDrawListener() {
+            @Override
+            public boolean onPreDraw() {
+                view.getViewTreeObserver().removeOnPreDrawListener(this);
+                recordSince(RENDER_PREFIX + screen, startNanos);
+                return true;
+            }
+        });
+    }
+
+    /** Every histogram by name, sorted. */
+    public static Map<String, LatencyHistogram> all() {
+        return new TreeMap<>(histograms);
+    }
+
+    /** Every counter by name, sorted. */
+    public static Map<String, Long> counters() {
+        Map<String, Long> values = new TreeMap<>();
+        for (Map.Entry<String, AtomicLong> entry : counters.entrySet()) {
+            values.put(entry.getKey(), entry.getValue().get());
+        }
+        return values;
+    }
+
+    public static void reset() {
+        for (LatencyHistogram histogram : histograms.values()) {
+            histogram.reset();
+        }
+        for (AtomicLong counter : counters.values()) {
+            counter.set(0);
+        }
+    }
+
+    /** Count, mean, p50, p90, p99 and max (microseconds) of every histogram, and every counter. */
+    public static JSONObject toJson() throws JSONException {
+        JSONObject root = new JSONObject();
+        root.put("capturedAt", System.currentTimeMillis());
+        JSONObject metrics = new JSONObject();
+        for (Map.Entry<String, LatencyHistogram> entry : all().entrySet()) {
+            LatencyHistogram h = entry.getValue();
+            JSONObject json = new JSONObject();
+            json.put("count", h.count());
+            json.put("meanUs", Math.round(h.meanMicros()));
+            json.put("p50Us", h.percentileMicros(0.50));
+            json.put("p90Us", h.percentileMicros(0.90));
+            json.put("p99Us", h.percentileMicros(0.99));
+            json.put("maxUs", h.maxMicros());
+            metrics.put(entry.getKey(), json);
+        }
+        root.put("metrics", metrics);
+        root.put("counters", new JSONObject(counters()));
+        return root;
+    }
+
+    /** Writes {@link #toJson()} to files/metrics.json and returns the file. */
+    public static File dumpJson(Context context) throws IOException, JSONException {
+        File file = new File(context.getFilesDir(), DUMP_FILE);
+        try (FileOutputStream out = new FileOutputStream(file)) {
+            out.write(toJson().toString(2).getBytes(StandardCharsets.UTF_8));
+        }
+        return file;
+    }
+
+    /** {@link #dumpJson(Context)} on a background thread. */
+    public static void dumpJsonAsync(Context context) {
+        Context appContext = context.getApplicationContext();
+        dumpExecutor.execute(() -> {
+            try {
+                dumpJson(appContext);
+            } catch (IOException | JSONException e) {
+                Log.e(TAG, "Failed to write metrics: " + e.getMessage());
+            }
+        });
+    }
+}
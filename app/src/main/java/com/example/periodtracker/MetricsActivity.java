@@ -0,0 +1,73 @@
+package com.example.periodtracker;
+
+import android.os.Bundle;
+import android.widget.Button;
+import android.widget.TextView;
+import android.widget.Toast;
+
+import androidx.appcompat.app.AppCompatActivity;
+
+import com.example.periodtracker.core.LatencyHistogram;
+
+import java.io.File;
+import java.util.Locale;
+import java.util.Map;
+
+/** Debug screen listing every {@link Metrics} histogram and counter. */
+public class MetricsActivity extends AppCompatActivity {
+
+    private TextView tvMetrics;
+
+    @Override
+    protected void onCreate(Bundle savedInstanceState) {
+        super.onCreate(savedInstanceState);
+        setContentView(R.layout.activity_metrics);
+
+        tvMetrics = findViewById(R.id.tv_metrics);
+        Button btnRefresh = findViewById(R.id.btn_metrics_refresh);
+        Button btnDump = findViewById(R.id.btn_metrics_dump);
+        Button btnReset = findViewById(R.id.btn_metrics_reset);
+
+        btnRefresh.setOnClickListener(v -> showMetrics());
+
+        btnDump.setOnClickListener(v -> {
+            try {
+                File file = Metrics.dumpJson(this);
+                Toast.makeText(this, "Written to " + file.getPath(), Toast.LENGTH_LONG).show();
+            } catch (Exception e) {
+                Toast.makeText(this, "Failed to write: " + e.getMessage(), Toast.LENGTH_SHORT).show();
+            }
+        });
+
+        btnReset.setOnClickListener(v -> {
+            Metrics.reset();
+            showMetrics();
+        });
+
+        showMetrics();
+    }
+
+    private void showMetrics() {
+        StringBuilder sb = new StringBuilder();
+        sb.append(String.format(Locale.US, "%-26s %6s %8s %8s %8s%n", "metric (ms)", "n", "p50", "p90", "p99"));
+        for (Map.Entry<String, LatencyHistogram> entry : Metrics.all().entrySet()) {
+            LatencyHistogram h = entry.getValue();
+            sb.append(String.format(Locale.US, "%-26s %6d %8.1f %8.1f %8.1f%n",
+                    entry.getKey(), h.count(),
+                    h.percentileMicros(0.50) / 1000.0,
+                    h.percentileMicros(0.90) / 1000.0,
+                    h.percentileMicros(0.99) / 1000.0));
+        }
+        Map<String, Long> counters = Metrics.counters();
+        if (!counters.isEmpty()) {
+            sb.append(String.format(Locale.US, "%n%-26s %6s%n", "counter", "n"));
+            for (Map.Entry<String, Long> entry : counters.entrySet()) {
+                sb.append(String.format(Locale.US, "%-26s %6d%n", entry.getKey(), entry.getValue()));
+            }
+        }
+        if (Metrics.all().isEmpty() && counters.isEmpty()) {
+            sb.append("Nothing recorded yet");
+        }
+        tvMetrics.setText(sb.toString());
+    }
+}
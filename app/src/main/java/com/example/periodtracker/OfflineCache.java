@@ -0,0 +1,107 @@
+package com.example.periodtracker;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import com.example.periodtracker.core.EpochDays;
+import com.google.firebase.database.DataSnapshot;
+import com.google.firebase.database.DatabaseError;
+import com.google.firebase.database.DatabaseReference;
+import com.google.firebase.database.FirebaseDatabase;
+import com.google.firebase.database.Query;
+import com.google.firebase.database.ValueEventListener;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Firebase's on-disk copy of the database, and which parts of it stay fresh.
+ *
+ * With persistence on, listeners and reads are answered from disk on a cold
+ * start before the connection is up, and writes made offline survive a
+ * restart. The cache is capped at {@code BuildConfig.DATABASE_CACHE_BYTES},
+ * set by the {@code databaseCacheMb} Gradle property. users/{uid} and the
+ * last {@link #RECENT_DAYS} days of symptoms/{uid} are kept synced, so they
+ * are always current on disk and never pruned. Older history is not: it lives
+ * in {@link SymptomStore}, so once the cache outgrows its budget Firebase's
+ * least-recently-used pruning is free to drop it.
+ *
+ * The synced symptoms window is moved forward whenever an activity starts,
+ * so it follows the date when the app comes back to the foreground.
+ *
+ * Reads are counted into {@link Metrics} as fast when their first result
+ * arrives while offline or within {@link #FAST_READ_MAX_MS}, and as slow
+ * otherwise. Firebase does not say where a result came from, so the share of
+ * fast reads only estimates how often the cache answered.
+ */
+public final class OfflineCache {
+
+    /** Days of symptoms/{uid}, up to today, kept synced. */
+    static final int RECENT_DAYS = 90;
+    /** Slowest first result still counted as fast; below a typical round trip. */
+    private static final long FAST_READ_MAX_MS = 10;
+
+    private static volatile boolean connected;
+
+    // Touched only on the main thread
+    private static String keptUid;
+    private static String keptSince;
+    private static Query keptSymptoms;
+
+    private OfflineCache() {
+    }
+
+    /** Turns on persistence; call from Application.onCreate before any database use. */
+    public static void enable() {
+        FirebaseDatabase database = FirebaseDatabase.getInstance();
+        database.setPersistenceCacheSizeBytes(BuildConfig.DATABASE_CACHE_BYTES);
+        database.setPersistenceEnabled(true);
+
+        database.getReference(".info/connected").addValueEventListener(new ValueEventListener() {
+            @Override
+            public void onDataChange(@NonNull DataSnapshot snapshot) {
+                connected = Boolean.TRUE.equals(snapshot.getValue(Boolean.class));
+            }
+
+            @Override
+            public void onCancelled(@NonNull DatabaseError error) {
+                // .info paths are local and never cancelled
+            }
+        });
+    }
+
+    /**
+     * Keeps the hot nodes of {@code uid} synced and releases the previous
+     * user's; {@code null} after sign-out. Calling it again on a later day
+     * moves the symptoms window forward.
+     */
+    public static void keepSynced(@Nullable String uid) {
+        String since = EpochDays.formatIso(EpochDays.today() - RECENT_DAYS);
+        if (uid != null && uid.equals(keptUid) && since.equals(keptSince)) return;
+
+        DatabaseReference root = FirebaseDatabase.getInstance().getReference();
+        if (keptUid != null) {
+            root.child("users").child(keptUid).keepSynced(false);
+            keptSymptoms.keepSynced(false);
+        }
+        keptUid = uid;
+        keptSince = since;
+        keptSymptoms = null;
+        if (uid == null) return;
+
+        root.child("users").child(uid).keepSynced(true);
+        keptSymptoms = root.child("symptoms").child(uid).orderByKey().startAt(since);
+        keptSymptoms.keepSynced(true);
+    }
+
+    /** Moves the symptoms window of the synced user forward if the day has changed. */
+    static void refreshWindow() {
+        if (keptUid != null) keepSynced(keptUid);
+    }
+
+    /** Counts a read of {@code node} issued at {@code startNanos} whose first result just arrived. */
+    static void recordRead(String node, long startNanos) {
+        boolean fast = !connected || System.nanoTime() - startNanos
+                <= TimeUnit.MILLISECONDS.toNanos(FAST_READ_MAX_MS);
+        Metrics.increment((fast ? Metrics.FAST_READ_PREFIX : Metrics.SLOW_READ_PREFIX) + node);
+    }
+}
@@ -0,0 +1,89 @@
+package com.example.periodtracker;
+
+import android.app.Activity;
+import android.app.Application;
+import android.os.Bundle;
+import android.os.StrictMode;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import com.example.periodtracker.core.TrackerDataSource;
+import com.google.firebase.auth.FirebaseAuth;
+import com.google.firebase.auth.FirebaseUser;
+
+public class PeriodTrackerApp extends Application {
+
+    private static TrackerDataSource dataSource;
+
+    /** Backend for every users/, symptoms/ and summary/ read and write; Firebase unless replaced. */
+    public static synchronized TrackerDataSource getDataSource() {
+        if (dataSource == null) {
+            dataSource = new FirebaseDataSource();
+        }
+        return dataSource;
+    }
+
+    /**
+     * Replaces the backend, e.g. with an InMemoryDataSource to profile screens
+     * under a simulated slow network. Call before any screen loads data.
+     */
+    public static synchronized void setDataSource(TrackerDataSource source) {
+        dataSource = source;
+    }
+
+    @Override
+    public void onCreate() {
+        super.onCreate();
+        StartupTrace.mark("application_created");
+
+        if (BuildConfig.DEBUG) {
+            // Surfaces SnapshotDispatcher.checkMainThread budget overruns in logcat
+            StrictMode.setThreadPolicy(new StrictMode.ThreadPolicy.Builder()
+                    .detectCustomSlowCalls()
+                    .penaltyLog()
+                    .build());
+        }
+
+        // Must precede every other database call, including the data source's
+        OfflineCache.enable();
+        FirebaseAuth.getInstance().addAuthStateListener(auth -> {
+            FirebaseUser user = auth.getCurrentUser();
+            OfflineCache.keepSynced(user != null ? user.getUid() : null);
+            if (user != null) SymptomRepository.getInstance(this).signedIn(user.getUid());
+        });
+        registerActivityLifecycleCallbacks(new ActivityLifecycleCallbacks() {
+            @Override
+            public void onActivityStarted(@NonNull Activity activity) {
+                OfflineCache.refreshWindow();
+            }
+
+            @Override
+            public void onActivityCreated(@NonNull Activity activity, @Nullable Bundle state) {
+            }
+
+            @Override
+            public void onActivityResumed(@NonNull Activity activity) {
+            }
+
+            @Override
+            public void onActivityPaused(@NonNull Activity activity) {
+            }
+
+            @Override
+            public void onActivityStopped(@NonNull Activity activity) {
+            }
+
+            @Override
+            public void onActivitySaveInstanceState(@NonNull Activity activity, @NonNull Bundle state) {
+            }
+
+            @Override
+            public void onActivityDestroyed(@NonNull Activity activity) {
+            }
+        });
+
+        // Lets the first screen route and render from the last known profile
+        UserProfileRepository.init(this);
+    }
+}
@@ -0,0 +1,94 @@
+package com.example.periodtracker;
+
+import android.content.Context;
+import android.content.SharedPreferences;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+/**
+ * Last known users/{uid} node, persisted in SharedPreferences.
+ *
+ * Lets a cold start route to the dashboard and draw the profile before the
+ * first Firebase round trip. Only one user is kept; the cache is wiped on
+ * logout. Writes are asynchronous.
+ */
+public class ProfileCache {
+
+    private static final String PREFS_NAME = "profile_cache";
+
+    private static final String KEY_UID = "uid";
+    private static final String KEY_EXISTS = "exists";
+    private static final String KEY_COMPLETE = "complete";
+    private static final String KEY_NAME = "name";
+    private static final String KEY_AGE = "age";
+    private static final String KEY_CYCLE_LENGTH = "cycleLength";
+    private static final String KEY_LAST_PERIOD_DATE = "lastPeriodDate";
+    private static final String KEY_PERIOD_STARTS = "periodStarts";
+
+    private final SharedPreferences prefs;
+
+    public ProfileCache(Context context) {
+        prefs = context.getApplicationContext().getSharedPreferences(PREFS_NAME, Context.MODE_PRIVATE);
+    }
+
+    /** True if the cached profile of {@code uid} had every field routing needs. */
+    public boolean isComplete(String uid) {
+        return uid.equals(prefs.getString(KEY_UID, null)) && prefs.getBoolean(KEY_COMPLETE, false);
+    }
+
+    /** The cached profile of {@code uid}, or {@code null} if none was saved for that user. */
+    @Nullable
+    public UserProfile load(String uid) {
+        if (!uid.equals(prefs.getString(KEY_UID, null))) return null;
+        if (!prefs.getBoolean(KEY_EXISTS, false)) return UserProfile.MISSING;
+
+        return UserProfile.restore(
+                prefs.getString(KEY_NAME, null),
+                prefs.contains(KEY_AGE) ? prefs.getInt(KEY_AGE, 0) : null,
+                prefs.contains(KEY_CYCLE_LENGTH) ? prefs.getInt(KEY_CYCLE_LENGTH, 0) : null,
+                prefs.getString(KEY_LAST_PERIOD_DATE, null),
+                decodeStarts(prefs.getString(KEY_PERIOD_STARTS, "")));
+    }
+
+    public void save(String uid, @NonNull UserProfile profile) {
+        SharedPreferences.Editor editor = prefs.edit().clear()
+                .putString(KEY_UID, uid)
+                .putBoolean(KEY_EXISTS, profile.exists())
+                .putBoolean(KEY_COMPLETE, profile.isComplete())
+                .putString(KEY_NAME, profile.getName())
+                .putString(KEY_LAST_PERIOD_DATE, profile.getLastPeriodDate())
+                .putString(KEY_PERIOD_STARTS, encodeStarts(profile.getPeriodStarts()));
+        if (profile.getAge() != null) editor.putInt(KEY_AGE, profile.getAge());
+        if (profile.getCycleLength() != null) editor.putInt(KEY_CYCLE_LENGTH, profile.getCycleLength());
+        editor.apply();
+    }
+
+    public void clear() {
+        prefs.edit().clear().apply();
+    }
+
+    private static String encodeStarts(int[] starts) {
+        StringBuilder sb = new StringBuilder(starts.length * 6);
+        for (int i = 0; i < starts.length; i++) {
+            if (i > 0) sb.append(',');
+            sb.append(starts[i]);
+        }
+        return sb.toString();
+    }
+
+    private static int[] decodeStarts(String text) {
+        if (text.isEmpty()) return new int[0];
+        String[] parts = text.split(",");
+        int[] starts = new int[parts.length];
+        try {
+            for (int i = 0; i < parts.length; i++) {
+                starts[i] = Integer.parseInt(parts[i]);
+            }
+        } catch (NumberFormatException e) {
+            // Corrupt entry; the live listener will bring the real starts
+            return new int[0];
+        }
+        return starts;
+    }
+}
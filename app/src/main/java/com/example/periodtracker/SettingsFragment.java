@@ -2,7 +2,6 @@ package com.example.periodtracker;
 
 import android.app.DatePickerDialog;
 import android.os.Bundle;
-import android.util.Log;
 import android.view.LayoutInflater;
 import android.view.View;
 import android.view.ViewGroup;
@@ -14,38 +13,32 @@ import android.widget.Toast;
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
 import androidx.fragment.app.Fragment;
+import androidx.lifecycle.LiveData;
+import androidx.lifecycle.Observer;
+import androidx.lifecycle.ViewModelProvider;
 
 import com.google.firebase.auth.FirebaseAuth;
-import com.google.firebase.database.DataSnapshot;
-import com.google.firebase.database.DatabaseError;
-import com.google.firebase.database.DatabaseReference;
-import com.google.firebase.database.FirebaseDatabase;
-import com.google.firebase.database.ValueEventListener;
 
 import java.util.Calendar;
-import java.util.HashMap;
-import java.util.Map;
 
 public class SettingsFragment extends Fragment {
 
-    private static final String TAG = "SettingsFragment";
-
     private EditText etName, etAge, etCycleLength;
     private TextView tvSelectedDate, tvEmail;
     private Button btnSelectDate, btnSaveSettings;
-    private String selectedDate = null;
 
     private FirebaseAuth mAuth;
-    private DatabaseReference dbRef;
+    private SettingsViewModel viewModel;
 
     @Nullable
     @Override
     public View onCreateView(@NonNull LayoutInflater inflater, @Nullable ViewGroup container,
                              @Nullable Bundle savedInstanceState) {
+        long createStart = System.nanoTime();
         View view = inflater.inflate(R.layout.fragment_settings, container, false);
 
         mAuth = FirebaseAuth.getInstance();
-        dbRef = FirebaseDatabase.getInstance().getReference();
+        viewModel = new ViewModelProvider(this).get(SettingsViewModel.class);
 
         // Initialize views
         initializeViews(view);
@@ -58,6 +51,9 @@ public class SettingsFragment extends Fragment {
 
         // Save button
         btnSaveSettings.setOnClickListener(v -> saveSettings());
+        observeSaveResult();
+
+        Metrics.trackFirstRender("settings", view, createStart);
 
         return view;
     }
@@ -79,32 +75,39 @@ public class SettingsFragment extends Fragment {
     }
 
     private void loadCurrentUserData() {
-        String uid = mAuth.getCurrentUser().getUid();
-        String email = mAuth.getCurrentUser().getEmail();
+        // After a configuration change the views restore what the user typed
+        if (viewModel.isFormFilled()) {
+            if (viewModel.getSelectedDate() != null) {
+                tvSelectedDate.setText(viewModel.getSelectedDate());
+            }
+            return;
+        }
 
-        dbRef.child("users").child(uid).addListenerForSingleValueEvent(new ValueEventListener() {
+        LiveData<UserProfile> liveProfile = viewModel.getProfile();
+
+        // Fill the form once; later updates must not overwrite what the user is typing
+        liveProfile.observe(getViewLifecycleOwner(), new Observer<UserProfile>() {
             @Override
-            public void onDataChange(@NonNull DataSnapshot snapshot) {
-                if (snapshot.exists()) {
-                    String name = snapshot.child("name").getValue(String.class);
-                    Integer age = snapshot.child("age").getValue(Integer.class);
-                    Integer cycleLength = snapshot.child("cycleLength").getValue(Integer.class);
-                    String lastPeriodDate = snapshot.child("lastPeriodDate").getValue(String.class);
+            public void onChanged(UserProfile profile) {
+                if (profile == null) return;
+                liveProfile.removeObserver(this);
+                viewModel.onFormFilled();
+
+                if (profile.exists()) {
+                    String name = profile.getName();
+                    Integer age = profile.getAge();
+                    Integer cycleLength = profile.getCycleLength();
+                    String lastPeriodDate = profile.getLastPeriodDate();
 
                     if (name != null) etName.setText(name);
                     if (age != null) etAge.setText(String.valueOf(age));
                     if (cycleLength != null) etCycleLength.setText(String.valueOf(cycleLength));
                     if (lastPeriodDate != null) {
-                        selectedDate = lastPeriodDate;
+                        viewModel.setSelectedDate(lastPeriodDate);
                         tvSelectedDate.setText(lastPeriodDate);
                     }
                 }
             }
-
-            @Override
-            public void onCancelled(@NonNull DatabaseError error) {
-                Log.e(TAG, "Error loading user data: " + error.getMessage());
-            }
         });
     }
 
@@ -115,7 +118,8 @@ public class SettingsFragment extends Fragment {
         int day = c.get(Calendar.DAY_OF_MONTH);
 
         DatePickerDialog picker = new DatePickerDialog(requireContext(), (view, y, m, d) -> {
-            selectedDate = String.format("%04d-%02d-%02d", y, m + 1, d);
+            String selectedDate = String.format("%04d-%02d-%02d", y, m + 1, d);
+            viewModel.setSelectedDate(selectedDate);
             tvSelectedDate.setText(selectedDate);
         }, year, month, day);
         picker.show();
@@ -125,6 +129,7 @@ public class SettingsFragment extends Fragment {
         String name = etName.getText().toString().trim();
         String ageStr = etAge.getText().toString().trim();
         String cycleStr = etCycleLength.getText().toString().trim();
+        String selectedDate = viewModel.getSelectedDate();
 
         if (name.isEmpty() || ageStr.isEmpty() || cycleStr.isEmpty() || selectedDate == null) {
             Toast.makeText(requireContext(),
@@ -144,24 +149,25 @@ public class SettingsFragment extends Fragment {
             return;
         }
 
-        String uid = mAuth.getCurrentUser().getUid();
-        Map<String, Object> updates = new HashMap<>();
-        updates.put("name", name);
-        updates.put("age", age);
-        updates.put("cycleLength", cycleLength);
-        updates.put("lastPeriodDate", selectedDate);
-
-        dbRef.child("users").child(uid).updateChildren(updates)
-                .addOnSuccessListener(aVoid -> {
-                    Toast.makeText(requireContext(),
-                            "Settings saved successfully!",
-                            Toast.LENGTH_SHORT).show();
-                })
-                .addOnFailureListener(e -> {
-                    Log.e(TAG, "Failed to save settings: " + e.getMessage());
-                    Toast.makeText(requireContext(),
-                            "Failed to save: " + e.getMessage(),
-                            Toast.LENGTH_SHORT).show();
-                });
+        UserProfile updated = UserProfile.of(name, age, cycleLength, selectedDate);
+
+        viewModel.save(updated);
+    }
+
+    private void observeSaveResult() {
+        viewModel.getSaveResult().observe(getViewLifecycleOwner(), result -> {
+            if (result == null) return;
+            viewModel.onSaveResultShown();
+
+            if (result.success) {
+                Toast.makeText(requireContext(),
+                        "Settings saved successfully!",
+                        Toast.LENGTH_SHORT).show();
+            } else {
+                Toast.makeText(requireContext(),
+                        "Failed to save: " + result.message,
+                        Toast.LENGTH_SHORT).show();
+            }
+        });
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,100 @@
+package com.example.periodtracker;
+
+
+import androidx.annotation.Nullable;
+import androidx.lifecycle.LiveData;
+import androidx.lifecycle.MutableLiveData;
+import androidx.lifecycle.ViewModel;
+
+import com.example.periodtracker.core.TrackerDataSource;
+
+/**
+ * Form state and save status for SettingsFragment.
+ *
+ * Keeps the picked date and whether the form has been filled across
+ * configuration changes, and runs at most one save at a time. Save results
+ * are published as LiveData so they reach whichever fragment instance is
+ * attached when the write finishes.
+ */
+public class SettingsViewModel extends ViewModel {
+
+    private static final String TAG = "SettingsViewModel";
+
+    /** Outcome of the last save; {@code message} is the error text on failure. */
+    public static final class SaveResult {
+        public final boolean success;
+        @Nullable public final String message;
+
+        SaveResult(boolean success, @Nullable String message) {
+            this.success = success;
+            this.message = message;
+        }
+    }
+
+    private final UserProfileRepository repository = UserProfileRepository.getInstance();
+    private final MutableLiveData<SaveResult> saveResult = new MutableLiveData<>();
+
+    @Nullable private String selectedDate;
+    private boolean formFilled;
+    private boolean saving;
+    private boolean cleared;
+
+    public LiveData<UserProfile> getProfile() {
+        return repository.getProfile();
+    }
+
+    /** Result of the last finished save until {@link #onSaveResultShown()} is called. */
+    public LiveData<SaveResult> getSaveResult() {
+        return saveResult;
+    }
+
+    public void onSaveResultShown() {
+        saveResult.setValue(null);
+    }
+
+    @Nullable
+    public String getSelectedDate() {
+        return selectedDate;
+    }
+
+    public void setSelectedDate(@Nullable String selectedDate) {
+        this.selectedDate = selectedDate;
+    }
+
+    /** True once the form was filled from the profile; the views keep their own text after that. */
+    public boolean isFormFilled() {
+        return formFilled;
+    }
+
+    public void onFormFilled() {
+        formFilled = true;
+    }
+
+    /** Saves the profile unless a save is still in flight. */
+    public void save(UserProfile updated) {
+        if (saving) return;
+        saving = true;
+
+        repository.updateProfile(updated, new TrackerDataSource.Callback<Void>() {
+            @Override
+            public void onSuccess(Void result) {
+                saving = false;
+                if (cleared) return;
+                saveResult.setValue(new SaveResult(true, null));
+            }
+
+            @Override
+            public void onFailure(Exception error) {
+                saving = false;
+                if (cleared) return;
+                AppLog.e(TAG, "Failed to save settings", AppLog.phi(error.getMessage()));
+                saveResult.setValue(new SaveResult(false, error.getMessage()));
+            }
+        });
+    }
+
+    @Override
+    protected void onCleared() {
+        cleared = true;
+    }
+}
@@ -10,12 +10,9 @@ import android.widget.TextView;
 import android.widget.Toast;
 import androidx.annotation.Nullable;
 import androidx.appcompat.app.AppCompatActivity;
+import com.example.periodtracker.core.TrackerDataSource;
 import com.google.firebase.auth.FirebaseAuth;
-import com.google.firebase.database.DatabaseReference;
-import com.google.firebase.database.FirebaseDatabase;
 import java.util.Calendar;
-import java.util.HashMap;
-import java.util.Map;
 
 public class SetupActivity extends AppCompatActivity {
 
@@ -27,15 +24,12 @@ public class SetupActivity extends AppCompatActivity {
     private String selectedDate = null;
 
     private FirebaseAuth mAuth;
-    private DatabaseReference db;
 
     @Override
     protected void onCreate(@Nullable Bundle savedInstanceState) {
         super.onCreate(savedInstanceState);
         setContentView(R.layout.activity_setup);
 
-        Log.d(TAG, "SetupActivity onCreate");
-
         etName = findViewById(R.id.et_name);
         etAge = findViewById(R.id.et_age);
         etCycleLength = findViewById(R.id.et_cycle_length);
@@ -44,7 +38,6 @@ public class SetupActivity extends AppCompatActivity {
         btnSaveContinue = findViewById(R.id.btn_save_continue);
 
         mAuth = FirebaseAuth.getInstance();
-        db = FirebaseDatabase.getInstance().getReference();
 
         // Check if user is logged in
         if (mAuth.getCurrentUser() == null) {
@@ -55,12 +48,8 @@ public class SetupActivity extends AppCompatActivity {
             return;
         }
 
-        Log.d(TAG, "User UID: " + mAuth.getCurrentUser().getUid());
-        Log.d(TAG, "User Email: " + mAuth.getCurrentUser().getEmail());
-
         // DatePicker for last period
         btnSelectDate.setOnClickListener(view -> {
-            Log.d(TAG, "Date picker button clicked");
             Calendar c = Calendar.getInstance();
             int year = c.get(Calendar.YEAR);
             int month = c.get(Calendar.MONTH);
@@ -69,24 +58,17 @@ public class SetupActivity extends AppCompatActivity {
             DatePickerDialog picker = new DatePickerDialog(this, (datePicker, y, m, d) -> {
                 selectedDate = String.format("%04d-%02d-%02d", y, m + 1, d);
                 tvSelectedDate.setText(selectedDate);
-                Log.d(TAG, "Date selected: " + selectedDate);
+                AppLog.event(TAG, "date_selected", "date", AppLog.phi(selectedDate));
             }, year, month, day);
             picker.show();
         });
 
         btnSaveContinue.setOnClickListener(view -> {
-            Log.d(TAG, "===== SAVE BUTTON CLICKED =====");
-
             String name = etName.getText().toString().trim();
             String ageStr = etAge.getText().toString().trim();
             String cycleStr = etCycleLength.getText().toString().trim();
             String lastPeriodDate = selectedDate;
 
-            Log.d(TAG, "Name: " + name);
-            Log.d(TAG, "Age: " + ageStr);
-            Log.d(TAG, "Cycle: " + cycleStr);
-            Log.d(TAG, "Date: " + lastPeriodDate);
-
             // Validation
             if (name.isEmpty()) {
                 Toast.makeText(this, "Please enter your name", Toast.LENGTH_SHORT).show();
@@ -117,10 +99,9 @@ public class SetupActivity extends AppCompatActivity {
             try {
                 age = Integer.parseInt(ageStr);
                 cycleLength = Integer.parseInt(cycleStr);
-                Log.d(TAG, "Parsed - Age: " + age + ", Cycle: " + cycleLength);
             } catch (Exception e) {
                 Toast.makeText(this, "Enter valid numbers for age and cycle", Toast.LENGTH_SHORT).show();
-                Log.e(TAG, "Parse error: " + e.getMessage());
+                Log.e(TAG, "Age or cycle length is not a number");
                 return;
             }
 
@@ -137,57 +118,44 @@ public class SetupActivity extends AppCompatActivity {
             }
 
             // All validations passed
-            String uid = mAuth.getCurrentUser().getUid();
-            Log.d(TAG, "Starting Firebase write for UID: " + uid);
+            UserProfile profile = UserProfile.of(name, age, cycleLength, lastPeriodDate);
 
-            Map<String, Object> profile = new HashMap<>();
-            profile.put("name", name);
-            profile.put("age", age);
-            profile.put("cycleLength", cycleLength);
-            profile.put("lastPeriodDate", lastPeriodDate);
-
-            Log.d(TAG, "Data to save: " + profile.toString());
+            AppLog.event(TAG, "saving_profile", "name", AppLog.phi(name),
+                    "age", AppLog.phi(age), "cycleLength", AppLog.phi(cycleLength));
 
             // Disable button to prevent double-click
             btnSaveContinue.setEnabled(false);
             btnSaveContinue.setText("Saving...");
 
-            db.child("users").child(uid).setValue(profile)
-                    .addOnSuccessListener(aVoid -> {
-                        Log.d(TAG, "✓✓✓ SUCCESS! Data saved to Firebase");
-                        Toast.makeText(this, "Profile saved successfully!", Toast.LENGTH_SHORT).show();
-
-                        // Small delay to ensure data is written
-                        new android.os.Handler().postDelayed(() -> {
-                            Log.d(TAG, "Opening MainActivity...");
-                            Intent intent = new Intent(this, MainActivity.class);
-                            intent.addFlags(Intent.FLAG_ACTIVITY_CLEAR_TOP | Intent.FLAG_ACTIVITY_NEW_TASK);
-                            startActivity(intent);
-                            finish();
-                        }, 500);
-                    })
-                    .addOnFailureListener(e -> {
-                        Log.e(TAG, "✗✗✗ FIREBASE WRITE FAILED!");
-                        Log.e(TAG, "Error: " + e.getMessage());
-                        Log.e(TAG, "Error class: " + e.getClass().getName());
-                        e.printStackTrace();
-
-                        Toast.makeText(this, "Save failed: " + e.getMessage(), Toast.LENGTH_LONG).show();
-
-                        // Re-enable button
-                        btnSaveContinue.setEnabled(true);
-                        btnSaveContinue.setText("Save & Continue");
-                    })
-                    .addOnCompleteListener(task -> {
-                        Log.d(TAG, "Save operation completed. Success: " + task.isSuccessful());
+            UserProfileRepository.getInstance().setProfile(profile,
+                    new TrackerDataSource.Callback<Void>() {
+                        @Override
+                        public void onSuccess(Void result) {
+                            AppLog.d(TAG, "Profile saved");
+                            Toast.makeText(SetupActivity.this, "Profile saved successfully!",
+                                    Toast.LENGTH_SHORT).show();
+
+                            // Small delay to ensure data is written
+                            new android.os.Handler().postDelayed(() -> {
+                                Intent intent = new Intent(SetupActivity.this, MainActivity.class);
+                                intent.addFlags(Intent.FLAG_ACTIVITY_CLEAR_TOP | Intent.FLAG_ACTIVITY_NEW_TASK);
+                                startActivity(intent);
+                                finish();
+                            }, 500);
+                        }
+
+                        @Override
+                        public void onFailure(Exception e) {
+                            AppLog.e(TAG, "Failed to save profile", AppLog.phi(e.getMessage()));
+
+                            Toast.makeText(SetupActivity.this, "Save failed: " + e.getMessage(),
+                                    Toast.LENGTH_LONG).show();
+
+                            // Re-enable button
+                            btnSaveContinue.setEnabled(true);
+                            btnSaveContinue.setText("Save & Continue");
+                        }
                     });
         });
     }
-
-    @Override
-    protected void onStart() {
-        super.onStart();
-        Log.d(TAG, "onStart - Firebase Database URL: " +
-                FirebaseDatabase.getInstance().getReference().toString());
-    }
 }
\ No newline at end of file
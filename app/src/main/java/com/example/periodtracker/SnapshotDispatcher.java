@@ -0,0 +1,79 @@
+package com.example.periodtracker;
+
+import android.os.Handler;
+import android.os.Looper;
+import android.os.StrictMode;
+import android.os.SystemClock;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * Moves Firebase snapshot work off the main thread.
+ *
+ * Firebase calls listeners on the main thread; they hand the raw snapshot to
+ * {@link #dispatch} so decoding and prediction run on one background thread,
+ * and only the finished model is posted back. Work runs in submission order,
+ * so results are delivered in the order their snapshots arrived. Both halves
+ * are timed into {@link Metrics}.
+ *
+ * Main-thread work that still happens around a snapshot is timed with
+ * {@link #checkMainThread}; anything over {@link #MAIN_THREAD_BUDGET_MS} is
+ * logged and reported to StrictMode as a slow call.
+ */
+public final class SnapshotDispatcher {
+
+    private static final String TAG = "SnapshotDispatcher";
+
+    /** Half a 60 Hz frame. */
+    public static final long MAIN_THREAD_BUDGET_MS = 8;
+
+    private static SnapshotDispatcher instance;
+
+    private final ExecutorService decodeExecutor = Executors.newSingleThreadExecutor();
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+
+    private SnapshotDispatcher() {
+    }
+
+    public static synchronized SnapshotDispatcher getInstance() {
+        if (instance == null) {
+            instance = new SnapshotDispatcher();
+        }
+        return instance;
+    }
+
+    /**
+     * Runs {@code work} on the decode thread and delivers its result to
+     * {@code onResult} on the main thread.
+     *
+     * @param label names the work in logs and slow-call reports
+     */
+    public <T> void dispatch(String label, Supplier<T> work, Consumer<T> onResult) {
+        decodeExecutor.execute(() -> {
+            long decodeStart = System.nanoTime();
+            T result = work.get();
+            Metrics.recordSince(Metrics.DECODE_PREFIX + label, decodeStart);
+            mainHandler.post(() -> {
+                long start = SystemClock.uptimeMillis();
+                long deliverStart = System.nanoTime();
+                onResult.accept(result);
+                Metrics.recordSince(Metrics.DELIVER_PREFIX + label, deliverStart);
+                checkMainThread(label, start);
+            });
+        });
+    }
+
+    /** Flags {@code label} if it has run on the main thread for longer than the budget since {@code startUptimeMs}. */
+    public static void checkMainThread(String label, long startUptimeMs) {
+        if (Looper.myLooper() != Looper.getMainLooper()) return;
+        long elapsed = SystemClock.uptimeMillis() - startUptimeMs;
+        if (elapsed <= MAIN_THREAD_BUDGET_MS) return;
+
+        AppLog.event(TAG, "main_thread_over_budget", "label", label,
+                "ms", elapsed, "budget_ms", MAIN_THREAD_BUDGET_MS);
+        StrictMode.noteSlowCall(label);
+    }
+}
@@ -0,0 +1,36 @@
+package com.example.periodtracker;
+
+import android.os.Process;
+import android.os.SystemClock;
+import android.os.Trace;
+
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Cold-start milestones, logged as milliseconds since the process started.
+ *
+ * Each milestone appears once per process as a zero-length section in
+ * system traces and, in debug builds, is logged under the "StartupTrace"
+ * tag, e.g. {@code adb logcat -s StartupTrace}. DashboardFragment also calls reportFullyDrawn()
+ * once the first prediction is on screen, so the platform's "Fully drawn"
+ * time can be compared before and after a change.
+ */
+public final class StartupTrace {
+
+    private static final String TAG = "StartupTrace";
+
+    private static final Set<String> marked = new HashSet<>();
+
+    private StartupTrace() {
+    }
+
+    /** Logs {@code milestone} the first time it is reached in this process. */
+    public static synchronized void mark(String milestone) {
+        if (!marked.add(milestone)) return;
+        long elapsed = SystemClock.uptimeMillis() - Process.getStartUptimeMillis();
+        Trace.beginSection("startup:" + milestone);
+        Trace.endSection();
+        AppLog.event(TAG, milestone, "at_ms", elapsed);
+    }
+}
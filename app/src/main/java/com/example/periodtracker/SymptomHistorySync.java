@@ -0,0 +1,285 @@
+package com.example.periodtracker;
+
+import android.os.Handler;
+import android.os.Looper;
+
+import androidx.annotation.Nullable;
+
+import com.example.periodtracker.core.EpochDays;
+import com.example.periodtracker.core.SymptomEntry;
+import com.example.periodtracker.core.TrackerDataSource;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.SortedMap;
+
+/**
+ * Keeps the local {@link SymptomStore} in step with symptoms/{uid} through one
+ * child listener, instead of re-reading pages of history.
+ *
+ * Every write to a day sets its {@code updatedAt} child to the server's time,
+ * so the listener starts at the newest {@code updatedAt} already synced,
+ * which the store keeps beside the rows, and history that is already local
+ * never downloads again. A device's first sync reads the history in pages of
+ * {@link #BACKFILL_PAGE} days, newest first, storing each before asking for
+ * the next, and then listens from the newest {@code updatedAt} of the first
+ * page: anything written after that read has a later server time, whichever
+ * page its day falls in. Events that
+ * arrive in one pass of the main loop are coalesced into a batch, decoded on
+ * the {@link SnapshotDispatcher} thread and handed to
+ * {@link SymptomRepository}, which stores them in one transaction and tells
+ * its listeners exactly which days changed. The resume point only advances
+ * once the listener has caught up, so an interrupted first sync starts over.
+ * Since {@code updatedAt} never moves back, a removed child was deleted.
+ * Main thread only.
+ */
+final class SymptomHistorySync implements TrackerDataSource.ChildListener {
+
+    private static final String TAG = "SymptomHistorySync";
+    /** Days per read of a first sync. */
+    private static final int BACKFILL_PAGE = 200;
+    /**
+     * How far before the resume point the listener starts. Events for this
+     * device's own writes carry the client's estimate of the server time
+     * until the server confirms it, so a stored resume point can run slightly
+     * ahead; re-reading a minute of writes is cheap.
+     */
+    private static final long RESUME_OVERLAP_MS = 60_000;
+
+    final String uid;
+    private final SymptomRepository repository;
+    private final TrackerDataSource source;
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+    private final Runnable flush = this::flush;
+
+    private TrackerDataSource.Subscription subscription;
+    private boolean stopped;
+    private boolean caughtUp;
+    private long startedAt;
+    /** Newest updatedAt received so far; kept as the resume point once caught up. */
+    private Long receivedThrough;
+
+    /** Days to store: the node of a child event, or the raw value of a re-read day. */
+    private Map<String, Object> upserts = new HashMap<>();
+    private Set<String> removals = new HashSet<>();
+    private boolean flushPosted;
+
+    SymptomHistorySync(SymptomRepository repository, TrackerDataSource source, String uid) {
+        this.repository = repository;
+        this.source = source;
+        this.uid = uid;
+    }
+
+    /** Starts listening after {@code syncedThrough}, or from the beginning if it is {@code null}. */
+    void start(@Nullable Long syncedThrough) {
+        if (stopped) return;
+        receivedThrough = syncedThrough;
+        startedAt = System.nanoTime();
+        if (syncedThrough == null) {
+            backfill(null);
+        } else {
+            listen();
+        }
+    }
+
+    private void listen() {
+        subscription = source.observeSymptomsSince(uid,
+                receivedThrough - RESUME_OVERLAP_MS, this);
+    }
+
+    /** Stores the page of days with keys up to {@code lastKey}, then the next one or listens. */
+    private void backfill(@Nullable String lastKey) {
+        source.getSymptomsThrough(uid, lastKey, BACKFILL_PAGE,
+                new TrackerDataSource.Callback<TrackerDataSource.Node>() {
+                    @Override
+                    public void onSuccess(TrackerDataSource.Node node) {
+                        if (stopped) return;
+                        SnapshotDispatcher.getInstance().dispatch("symptom-backfill",
+                                () -> decodePage(node, lastKey),
+                                page -> {
+                                    if (stopped) return;
+                                    if (lastKey == null) {
+                                        // Days written before updatedAt existed have none
+                                        Long newest = page.batch.newestUpdatedAt;
+                                        receivedThrough = newest != null ? newest : 0L;
+                                    }
+                                    repository.applySynced(uid, page.batch.entries,
+                                            page.batch.removedDays, null);
+                                    if (page.oldestKey == null) {
+                                        listen();
+                                    } else {
+                                        backfill(page.oldestKey);
+                                    }
+                                });
+                    }
+
+                    @Override
+                    public void onFailure(Exception error) {
+                        SymptomHistorySync.this.onFailure(error);
+                    }
+                });
+    }
+
+    void stop() {
+        stopped = true;
+        if (subscription != null) {
+            subscription.remove();
+            subscription = null;
+        }
+        mainHandler.removeCallbacks(flush);
+    }
+
+    /** True once every day on the server has been delivered to the store. */
+    boolean isCaughtUp() {
+        return caughtUp;
+    }
+
+    @Override
+    public void onChildAdded(String key, TrackerDataSource.Node child) {
+        received(key, child);
+    }
+
+    @Override
+    public void onChildChanged(String key, TrackerDataSource.Node child) {
+        received(key, child);
+    }
+
+    @Override
+    public void onChildRemoved(String key) {
+        upserts.remove(key);
+        removals.add(key);
+        scheduleFlush();
+    }
+
+    @Override
+    public void onCaughtUp() {
+        Metrics.recordSince(Metrics.FIREBASE_SYMPTOMS, startedAt);
+        caughtUp = true;
+        scheduleFlush();
+    }
+
+    @Override
+    public void onFailure(Exception error) {
+        AppLog.e(TAG, "Symptom history listener failed", AppLog.phi(error.getMessage()));
+        repository.historySyncFailed(uid, error.getMessage());
+    }
+
+    private void received(String key, TrackerDataSource.Node child) {
+        removals.remove(key);
+        upserts.put(key, child);
+        scheduleFlush();
+    }
+
+    private void scheduleFlush() {
+        if (flushPosted) return;
+        flushPosted = true;
+        mainHandler.post(flush);
+    }
+
+    private void flush() {
+        flushPosted = false;
+        Map<String, Object> batch = upserts;
+        Set<String> removedKeys = removals;
+        upserts = new HashMap<>();
+        removals = new HashSet<>();
+
+        SnapshotDispatcher.getInstance().dispatch("symptom-sync",
+                () -> decodeBatch(batch, removedKeys),
+                decoded -> {
+                    if (stopped) return;
+                    advanceTo(decoded.newestUpdatedAt);
+                    repository.applySynced(uid, decoded.entries, decoded.removedDays,
+                            caughtUp ? receivedThrough : null);
+                });
+    }
+
+    /** Advances the resume point to {@code updatedAt} if it is newer. */
+    private void advanceTo(@Nullable Long updatedAt) {
+        if (updatedAt != null && (receivedThrough == null || updatedAt > receivedThrough)) {
+            receivedThrough = updatedAt;
+        }
+    }
+
+    /** One batch, decoded. */
+    private static final class DecodedBatch {
+        final List<SymptomEntry> entries;
+        final int[] removedDays;
+        /** The newest updatedAt in the batch, or {@code null} if no day has one. */
+        final Long newestUpdatedAt;
+
+        DecodedBatch(List<SymptomEntry> entries, int[] removedDays, Long newestUpdatedAt) {
+            this.entries = entries;
+            this.removedDays = removedDays;
+            this.newestUpdatedAt = newestUpdatedAt;
+        }
+    }
+
+    /** One page of a first sync, decoded. */
+    private static final class BackfillPage {
+        final DecodedBatch batch;
+        /** The key to read the next page through, or {@code null} after the last page. */
+        final String oldestKey;
+
+        BackfillPage(DecodedBatch batch, String oldestKey) {
+            this.batch = batch;
+            this.oldestKey = oldestKey;
+        }
+    }
+
+    /**
+     * Runs on the dispatcher thread. A page read through {@code lastKey}
+     * repeats that day, which the previous page already stored.
+     */
+    private static BackfillPage decodePage(TrackerDataSource.Node node, @Nullable String lastKey) {
+        SortedMap<String, Object> days = node.children();
+        String oldestKey = days.size() < BACKFILL_PAGE ? null : days.firstKey();
+        if (lastKey != null) days = days.headMap(lastKey);
+        return new BackfillPage(decodeBatch(days, Collections.emptySet()), oldestKey);
+    }
+
+    /** Runs on the dispatcher thread. */
+    private static DecodedBatch decodeBatch(Map<String, Object> batch, Set<String> removedKeys) {
+        List<SymptomEntry> entries = new ArrayList<>(batch.size());
+        Long newest = null;
+        for (Object child : batch.values()) {
+            Object value = child instanceof TrackerDataSource.Node
+                    ? ((TrackerDataSource.Node) child).value() : child;
+            SymptomEntry entry = decode(value);
+            if (entry == null) continue;
+            entries.add(entry);
+            Long updatedAt = updatedAt(value);
+            if (updatedAt != null && (newest == null || updatedAt > newest)) newest = updatedAt;
+        }
+
+        int[] removedDays = new int[removedKeys.size()];
+        int count = 0;
+        for (String key : removedKeys) {
+            int day = EpochDays.parseIsoDate(key);
+            if (day != EpochDays.INVALID) removedDays[count++] = day;
+        }
+        return new DecodedBatch(entries, count == removedDays.length
+                ? removedDays : Arrays.copyOf(removedDays, count), newest);
+    }
+
+    /** The updatedAt of a symptoms/{uid}/{dateKey} value; {@code null} for days written before it. */
+    @Nullable
+    static Long updatedAt(@Nullable Object value) {
+        Object updatedAt = value instanceof Map ? ((Map<?, ?>) value).get("updatedAt") : null;
+        return updatedAt instanceof Number ? ((Number) updatedAt).longValue() : null;
+    }
+
+    /** Decodes one symptoms/{uid}/{dateKey} value; {@code null} if it has no valid date. */
+    @Nullable
+    static SymptomEntry decode(Object value) {
+        if (!(value instanceof Map)) return null;
+        @SuppressWarnings("unchecked")
+        Map<String, Object> map = (Map<String, Object>) value;
+        return SymptomEntry.fromFirebase(map);
+    }
+}
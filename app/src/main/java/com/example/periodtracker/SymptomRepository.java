@@ -0,0 +1,253 @@
+package com.example.periodtracker;
+
+import android.content.Context;
+import android.os.Handler;
+import android.os.Looper;
+
+import androidx.annotation.Nullable;
+
+import com.example.periodtracker.core.SymptomAnalytics;
+import com.example.periodtracker.core.SymptomEntry;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Consumer;
+
+/**
+ * Offline-first access to symptom entries.
+ *
+ * Saves return immediately: the entry is written to {@link SymptomStore} and
+ * queued for {@link SymptomSyncWorker} on a single disk thread, so the UI never
+ * waits on the network. Reads always come from the local store; results are
+ * delivered on the main thread.
+ * While a screen needs it, a {@link SymptomHistorySync} streams changes to
+ * symptoms/{uid} into the store. Every change to the store, local or synced,
+ * is reported to the {@link EntryListener}s as the days it touched, so
+ * screens patch what they show instead of re-reading it.
+ * The {@link SymptomAnalytics} of the signed-in user are built from the store
+ * once, then kept current by every save and sync on the same thread.
+ */
+public class SymptomRepository {
+
+    private static SymptomRepository instance;
+
+    /** Told which days changed in the local store; called on the main thread. */
+    public interface EntryListener {
+        /**
+         * @param stored entries saved or replaced, in no particular order
+         * @param removedDays epoch days deleted
+         */
+        void onEntriesChanged(String uid, List<SymptomEntry> stored, int[] removedDays);
+
+        /** The history listener was refused, e.g. by the database rules. */
+        void onHistorySyncFailed(String uid, String message);
+    }
+
+    private final Context appContext;
+    private final SymptomStore store;
+    private final ExecutorService diskExecutor = Executors.newSingleThreadExecutor();
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+    private final List<EntryListener> entryListeners = new CopyOnWriteArrayList<>();
+
+    // Touched only on the main thread
+    private SymptomHistorySync historySync;
+    private int historySyncUsers;
+
+    // Touched only on the disk thread
+    private SymptomAnalytics analytics;
+    private String analyticsUid;
+
+    private SymptomRepository(Context context) {
+        appContext = context.getApplicationContext();
+        store = SymptomStore.getInstance(appContext);
+    }
+
+    public static synchronized SymptomRepository getInstance(Context context) {
+        if (instance == null) {
+            instance = new SymptomRepository(context);
+        }
+        return instance;
+    }
+
+    public void addEntryListener(EntryListener listener) {
+        entryListeners.add(listener);
+    }
+
+    public void removeEntryListener(EntryListener listener) {
+        entryListeners.remove(listener);
+    }
+
+    /**
+     * Starts streaming symptoms/{uid} into the store, if it is not already;
+     * pair with {@link #stopHistorySync()}. Main thread only.
+     */
+    public void startHistorySync(String uid) {
+        if (historySync != null && !historySync.uid.equals(uid)) {
+            historySync.stop();
+            historySync = null;
+        }
+        historySyncUsers++;
+        if (historySync != null) return;
+
+        SymptomHistorySync sync =
+                new SymptomHistorySync(this, PeriodTrackerApp.getDataSource(), uid);
+        historySync = sync;
+        diskExecutor.execute(() -> {
+            Long syncedThrough = store.getSyncedThrough(uid);
+            mainHandler.post(() -> sync.start(syncedThrough));
+        });
+    }
+
+    /** Stops the history sync once its last user is done. Main thread only. */
+    public void stopHistorySync() {
+        if (historySyncUsers == 0 || --historySyncUsers > 0) return;
+        if (historySync != null) {
+            historySync.stop();
+            historySync = null;
+        }
+    }
+
+    /**
+     * Gives the writes {@code uid} queued, including ones parked after
+     * repeated failures or left behind at sign-out, another push.
+     */
+    public void signedIn(String uid) {
+        diskExecutor.execute(() -> {
+            store.resetAttempts(uid);
+            SymptomSyncWorker.enqueue(appContext);
+        });
+    }
+
+    /**
+     * Called just before the signed-in user signs out. Their queued saves
+     * stay in the outbox, since dropping them would lose days logged
+     * offline; the sync worker skips them until that user signs in again.
+     * Main thread only.
+     */
+    public void signingOut() {
+        historySyncUsers = 0;
+        if (historySync != null) {
+            historySync.stop();
+            historySync = null;
+        }
+    }
+
+    /** True once the running history sync has every day on the server. Main thread only. */
+    public boolean isHistorySynced() {
+        return historySync != null && historySync.isCaughtUp();
+    }
+
+    /** Saves an entry locally and schedules its upload. */
+    public void save(String uid, SymptomEntry entry) {
+        diskExecutor.execute(() -> {
+            store.saveLocal(uid, entry);
+            if (uid.equals(analyticsUid)) analytics.put(entry);
+            notifyEntriesChanged(uid, Collections.singletonList(entry), new int[0]);
+            SymptomSyncWorker.enqueue(appContext);
+        });
+    }
+
+    /** Stores entries fetched from Firebase, then runs {@code done} on the main thread. */
+    public void saveSynced(String uid, List<SymptomEntry> entries, Runnable done) {
+        diskExecutor.execute(() -> {
+            List<SymptomEntry> stored = store.saveSynced(uid, entries);
+            if (uid.equals(analyticsUid)) analytics.putAll(stored);
+            notifyEntriesChanged(uid, stored, new int[0]);
+            mainHandler.post(done);
+        });
+    }
+
+    /** Applies one batch from {@link SymptomHistorySync}; see {@link SymptomStore#applySynced}. */
+    void applySynced(String uid, List<SymptomEntry> upserts, int[] removedDays,
+                     @Nullable Long syncedThrough) {
+        diskExecutor.execute(() -> {
+            SymptomStore.SyncedChanges changes =
+                    store.applySynced(uid, upserts, removedDays, syncedThrough);
+            if (uid.equals(analyticsUid)) {
+                analytics.putAll(changes.stored);
+                for (int day : changes.removedDays) {
+                    analytics.remove(day);
+                }
+            }
+            // Reported even when empty: listeners may be waiting for the sync to catch up
+            notifyEntriesChanged(uid, changes.stored, changes.removedDays);
+        });
+    }
+
+    /** See {@link SymptomStore#queryPage(String, int, int)}. */
+    public void loadPage(String uid, int beforeDay, int limit,
+                         Consumer<List<SymptomEntry>> callback) {
+        diskExecutor.execute(() -> {
+            List<SymptomEntry> page = store.queryPage(uid, beforeDay, limit);
+            mainHandler.post(() -> callback.accept(page));
+        });
+    }
+
+    /** See {@link SymptomStore#querySince(String, int)}. */
+    public void loadSince(String uid, int fromDay, Consumer<List<SymptomEntry>> callback) {
+        diskExecutor.execute(() -> {
+            List<SymptomEntry> rows = store.querySince(uid, fromDay);
+            mainHandler.post(() -> callback.accept(rows));
+        });
+    }
+
+    /** See {@link SymptomStore#search(String, String, int)}. */
+    public void search(String uid, String text, int limit, Consumer<List<SymptomEntry>> callback) {
+        diskExecutor.execute(() -> {
+            long start = System.nanoTime();
+            List<SymptomEntry> rows = store.search(uid, text, limit);
+            Metrics.recordSince(Metrics.SEARCH, start);
+            mainHandler.post(() -> callback.accept(rows));
+        });
+    }
+
+    /**
+     * Symptom patterns over the user's whole local history, placed in the
+     * cycles of {@code periodStarts}. Only the first call per user reads the
+     * history; later ones reuse the counts and recount only if the starts or
+     * the cycle length changed.
+     */
+    public void loadAnalytics(String uid, int[] periodStarts, int cycleLength,
+                              Consumer<SymptomAnalytics.Result> callback) {
+        diskExecutor.execute(() -> {
+            long start = System.nanoTime();
+            if (!uid.equals(analyticsUid)) {
+                analytics = new SymptomAnalytics(cycleLength);
+                analytics.setCycles(periodStarts, cycleLength);
+                analytics.putAll(store.querySince(uid, Integer.MIN_VALUE));
+                analyticsUid = uid;
+            } else {
+                analytics.setCycles(periodStarts, cycleLength);
+            }
+            SymptomAnalytics.Result result = analytics.result();
+            Metrics.recordSince(Metrics.ANALYTICS, start);
+            mainHandler.post(() -> callback.accept(result));
+        });
+    }
+
+    /** Applies an entry SymptomSyncWorker took from the server after a conflict. */
+    void remoteEntryStored(String uid, SymptomEntry entry) {
+        diskExecutor.execute(() -> {
+            if (uid.equals(analyticsUid)) analytics.put(entry);
+            notifyEntriesChanged(uid, Collections.singletonList(entry), new int[0]);
+        });
+    }
+
+    /** Called by {@link SymptomHistorySync} on the main thread. */
+    void historySyncFailed(String uid, String message) {
+        for (EntryListener listener : entryListeners) {
+            listener.onHistorySyncFailed(uid, message);
+        }
+    }
+
+    private void notifyEntriesChanged(String uid, List<SymptomEntry> stored, int[] removedDays) {
+        mainHandler.post(() -> {
+            for (EntryListener listener : entryListeners) {
+                listener.onEntriesChanged(uid, stored, removedDays);
+            }
+        });
+    }
+}
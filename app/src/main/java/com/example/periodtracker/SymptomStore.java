@@ -0,0 +1,371 @@
+package com.example.periodtracker;
+
+import android.content.ContentValues;
+import android.content.Context;
+import android.database.Cursor;
+import android.database.sqlite.SQLiteDatabase;
+import android.database.sqlite.SQLiteOpenHelper;
+
+import androidx.annotation.Nullable;
+
+import com.example.periodtracker.core.EpochDays;
+import com.example.periodtracker.core.FtsQuery;
+import com.example.periodtracker.core.SymptomEntry;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Local SQLite copy of symptoms/{uid}; the source of truth for history reads.
+ *
+ * Rows hold the compact {@link SymptomEntry} fields as integers.
+ * Local saves are recorded in {@code outbox}, one row per (uid, day), so
+ * several saves of the same day collapse into one pending sync. Rows fetched
+ * from Firebase never overwrite a day that still has a pending local save.
+ * Every stored row is also indexed in the FTS4 table {@code entries_fts}, in
+ * the same transaction, so notes and mood, flow and symptom names can be
+ * searched by prefix; {@code search_docs} gives each (uid, day) a stable docid.
+ * {@code sync_state} holds, per user, the newest server-assigned
+ * {@code updatedAt} whose history is fully stored, where
+ * {@link SymptomHistorySync} resumes.
+ * Call from a background thread.
+ */
+public class SymptomStore extends SQLiteOpenHelper {
+
+    private static final String DB_NAME = "symptoms.db";
+    private static final int DB_VERSION = 4;
+
+    private static SymptomStore instance;
+
+    /** A queued local save waiting to be pushed to Firebase. */
+    public static class PendingWrite {
+        public final String uid;
+        public final int epochDay;
+        public final long queuedAt;
+        /** Failed pushes since the day was last saved or its user last signed in. */
+        public final int attempts;
+
+        PendingWrite(String uid, int epochDay, long queuedAt, int attempts) {
+            this.uid = uid;
+            this.epochDay = epochDay;
+            this.queuedAt = queuedAt;
+            this.attempts = attempts;
+        }
+
+        public String dateKey() {
+            return EpochDays.formatIso(epochDay);
+        }
+    }
+
+    /** What one {@link #applySynced} call actually changed. */
+    public static class SyncedChanges {
+        public final List<SymptomEntry> stored;
+        public final int[] removedDays;
+
+        SyncedChanges(List<SymptomEntry> stored, int[] removedDays) {
+            this.stored = stored;
+            this.removedDays = removedDays;
+        }
+    }
+
+    private SymptomStore(Context context) {
+        super(context, DB_NAME, null, DB_VERSION);
+    }
+
+    public static synchronized SymptomStore getInstance(Context context) {
+        if (instance == null) {
+            instance = new SymptomStore(context.getApplicationContext());
+        }
+        return instance;
+    }
+
+    @Override
+    public void onCreate(SQLiteDatabase db) {
+        db.execSQL("CREATE TABLE entries ("
+                + "uid TEXT NOT NULL, "
+                + "epoch_day INTEGER NOT NULL, "
+                + "timestamp INTEGER NOT NULL, "
+                + "mood INTEGER NOT NULL, "
+                + "flow INTEGER NOT NULL, "
+                + "symptoms INTEGER NOT NULL, "
+                + "notes TEXT, "
+                + "PRIMARY KEY (uid, epoch_day))");
+        db.execSQL("CREATE TABLE outbox ("
+                + "uid TEXT NOT NULL, "
+                + "epoch_day INTEGER NOT NULL, "
+                + "queued_at INTEGER NOT NULL, "
+                + "attempts INTEGER NOT NULL DEFAULT 0, "
+                + "PRIMARY KEY (uid, epoch_day))");
+        createSearchIndex(db);
+        createSyncState(db);
+    }
+
+    @Override
+    public void onUpgrade(SQLiteDatabase db, int oldVersion, int newVersion) {
+        if (oldVersion < 2) {
+            createSearchIndex(db);
+            try (Cursor c = db.query("entries",
+                    new String[]{"uid", "epoch_day", "timestamp", "mood", "flow", "symptoms", "notes"},
+                    null, null, null, null, null)) {
+                while (c.moveToNext()) {
+                    index(db, c.getString(0), new SymptomEntry(c.getInt(1), c.getLong(2),
+                            (byte) c.getInt(3), (byte) c.getInt(4), c.getInt(5), c.getString(6)));
+                }
+            }
+        }
+        if (oldVersion < 3) {
+            createSyncState(db);
+        } else if (oldVersion < 4) {
+            // Resume points were device timestamps; the next sync backfills once
+            db.execSQL("DROP TABLE sync_state");
+            createSyncState(db);
+        }
+    }
+
+    private static void createSearchIndex(SQLiteDatabase db) {
+        db.execSQL("CREATE TABLE search_docs ("
+                + "uid TEXT NOT NULL, "
+                + "epoch_day INTEGER NOT NULL, "
+                + "UNIQUE (uid, epoch_day))");
+        db.execSQL("CREATE VIRTUAL TABLE entries_fts USING fts4(body, tokenize=unicode61)");
+    }
+
+    private static void createSyncState(SQLiteDatabase db) {
+        db.execSQL("CREATE TABLE sync_state ("
+                + "uid TEXT PRIMARY KEY, "
+                + "synced_through INTEGER NOT NULL)");
+    }
+
+    /** Stores a local save and queues it for sync in one transaction. */
+    public void saveLocal(String uid, SymptomEntry entry) {
+        SQLiteDatabase db = getWritableDatabase();
+        db.beginTransaction();
+        try {
+            db.insertWithOnConflict("entries", null, toValues(uid, entry),
+                    SQLiteDatabase.CONFLICT_REPLACE);
+            index(db, uid, entry);
+
+            ContentValues outbox = new ContentValues();
+            outbox.put("uid", uid);
+            outbox.put("epoch_day", entry.epochDay());
+            outbox.put("queued_at", System.currentTimeMillis());
+            outbox.put("attempts", 0);
+            db.insertWithOnConflict("outbox", null, outbox, SQLiteDatabase.CONFLICT_REPLACE);
+
+            db.setTransactionSuccessful();
+        } finally {
+            db.endTransaction();
+        }
+    }
+
+    /**
+     * Stores entries fetched from Firebase, skipping days with a pending local save.
+     *
+     * @return the entries that were stored
+     */
+    public List<SymptomEntry> saveSynced(String uid, List<SymptomEntry> entries) {
+        return applySynced(uid, entries, new int[0], null).stored;
+    }
+
+    /**
+     * Stores and deletes the days a history listener reported, in one
+     * transaction, skipping days with a pending local save. A non-null
+     * {@code syncedThrough} is kept as the user's resume point unless an
+     * older one is passed.
+     */
+    public SyncedChanges applySynced(String uid, List<SymptomEntry> upserts, int[] removedDays,
+                                     @Nullable Long syncedThrough) {
+        List<SymptomEntry> stored = new ArrayList<>(upserts.size());
+        int[] removed = new int[removedDays.length];
+        int removedCount = 0;
+        SQLiteDatabase db = getWritableDatabase();
+        db.beginTransaction();
+        try {
+            for (SymptomEntry entry : upserts) {
+                if (hasPendingWrite(db, uid, entry.epochDay())) continue;
+                db.insertWithOnConflict("entries", null, toValues(uid, entry),
+                        SQLiteDatabase.CONFLICT_REPLACE);
+                index(db, uid, entry);
+                stored.add(entry);
+            }
+            for (int day : removedDays) {
+                if (hasPendingWrite(db, uid, day)) continue;
+                String[] key = {uid, String.valueOf(day)};
+                if (db.delete("entries", "uid = ? AND epoch_day = ?", key) == 0) continue;
+                db.execSQL("DELETE FROM entries_fts WHERE docid IN "
+                        + "(SELECT rowid FROM search_docs WHERE uid = ? AND epoch_day = ?)", key);
+                db.delete("search_docs", "uid = ? AND epoch_day = ?", key);
+                removed[removedCount++] = day;
+            }
+            if (syncedThrough != null) {
+                Long current = getSyncedThrough(db, uid);
+                if (current == null || current < syncedThrough) {
+                    ContentValues state = new ContentValues();
+                    state.put("uid", uid);
+                    state.put("synced_through", syncedThrough);
+                    db.insertWithOnConflict("sync_state", null, state,
+                            SQLiteDatabase.CONFLICT_REPLACE);
+                }
+            }
+            db.setTransactionSuccessful();
+        } finally {
+            db.endTransaction();
+        }
+        return new SyncedChanges(stored, Arrays.copyOf(removed, removedCount));
+    }
+
+    /** The resume point {@link #applySynced} last kept for {@code uid}; {@code null} before the first sync. */
+    @Nullable
+    public Long getSyncedThrough(String uid) {
+        return getSyncedThrough(getReadableDatabase(), uid);
+    }
+
+    /** Up to {@code limit} entries before {@code beforeDay}, newest first. */
+    public List<SymptomEntry> queryPage(String uid, int beforeDay, int limit) {
+        return query("uid = ? AND epoch_day < ?",
+                new String[]{uid, String.valueOf(beforeDay)}, String.valueOf(limit));
+    }
+
+    /** Every entry on or after {@code fromDay}, newest first; {@link Integer#MIN_VALUE} for all. */
+    public List<SymptomEntry> querySince(String uid, int fromDay) {
+        return query("uid = ? AND epoch_day >= ?",
+                new String[]{uid, String.valueOf(fromDay)}, null);
+    }
+
+    /**
+     * Up to {@code limit} entries whose notes or tags contain words starting
+     * with each word of {@code text}, newest first.
+     */
+    public List<SymptomEntry> search(String uid, String text, int limit) {
+        String match = FtsQuery.prefixMatch(text);
+        List<SymptomEntry> rows = new ArrayList<>();
+        if (match == null) return rows;
+        try (Cursor c = getReadableDatabase().rawQuery(
+                "SELECT e.epoch_day, e.timestamp, e.mood, e.flow, e.symptoms, e.notes "
+                        + "FROM entries_fts f "
+                        + "JOIN search_docs d ON d.rowid = f.docid "
+                        + "JOIN entries e ON e.uid = d.uid AND e.epoch_day = d.epoch_day "
+                        + "WHERE f.body MATCH ? AND d.uid = ? "
+                        + "ORDER BY e.epoch_day DESC LIMIT ?",
+                new String[]{match, uid, String.valueOf(limit)})) {
+            while (c.moveToNext()) {
+                rows.add(new SymptomEntry(c.getInt(0), c.getLong(1), (byte) c.getInt(2),
+                        (byte) c.getInt(3), c.getInt(4), c.getString(5)));
+            }
+        }
+        return rows;
+    }
+
+    @Nullable
+    public SymptomEntry getEntry(String uid, int epochDay) {
+        List<SymptomEntry> rows = query("uid = ? AND epoch_day = ?",
+                new String[]{uid, String.valueOf(epochDay)}, "1");
+        return rows.isEmpty() ? null : rows.get(0);
+    }
+
+    public List<PendingWrite> getPendingWrites() {
+        List<PendingWrite> pending = new ArrayList<>();
+        try (Cursor c = getReadableDatabase().query("outbox",
+                new String[]{"uid", "epoch_day", "queued_at", "attempts"},
+                null, null, null, null, "queued_at")) {
+            while (c.moveToNext()) {
+                pending.add(new PendingWrite(c.getString(0), c.getInt(1), c.getLong(2),
+                        c.getInt(3)));
+            }
+        }
+        return pending;
+    }
+
+    /** Removes a synced write unless the day was saved again after it was read. */
+    public void completePendingWrite(PendingWrite write) {
+        getWritableDatabase().delete("outbox", "uid = ? AND epoch_day = ? AND queued_at = ?",
+                new String[]{write.uid, String.valueOf(write.epochDay), String.valueOf(write.queuedAt)});
+    }
+
+    public void recordFailedAttempt(PendingWrite write) {
+        getWritableDatabase().execSQL(
+                "UPDATE outbox SET attempts = attempts + 1 WHERE uid = ? AND epoch_day = ?",
+                new Object[]{write.uid, write.epochDay});
+    }
+
+    /** Resets the failed attempts of every write {@code uid} has queued. */
+    public void resetAttempts(String uid) {
+        getWritableDatabase().execSQL("UPDATE outbox SET attempts = 0 WHERE uid = ?",
+                new Object[]{uid});
+    }
+
+    /**
+     * Replaces the local copy with the server's version after a conflict, and
+     * drops the pending write it superseded.
+     */
+    public void resolveWithRemote(PendingWrite write, SymptomEntry remote) {
+        SQLiteDatabase db = getWritableDatabase();
+        db.beginTransaction();
+        try {
+            db.insertWithOnConflict("entries", null, toValues(write.uid, remote),
+                    SQLiteDatabase.CONFLICT_REPLACE);
+            index(db, write.uid, remote);
+            completePendingWrite(write);
+            db.setTransactionSuccessful();
+        } finally {
+            db.endTransaction();
+        }
+    }
+
+    /** Replaces the indexed text of one day; call inside the transaction that stores it. */
+    private static void index(SQLiteDatabase db, String uid, SymptomEntry entry) {
+        String[] key = {uid, String.valueOf(entry.epochDay())};
+        db.execSQL("INSERT OR IGNORE INTO search_docs (uid, epoch_day) VALUES (?, ?)", key);
+        long docid;
+        try (Cursor c = db.rawQuery(
+                "SELECT rowid FROM search_docs WHERE uid = ? AND epoch_day = ?", key)) {
+            c.moveToFirst();
+            docid = c.getLong(0);
+        }
+        db.execSQL("DELETE FROM entries_fts WHERE docid = ?", new Object[]{docid});
+        db.execSQL("INSERT INTO entries_fts (docid, body) VALUES (?, ?)",
+                new Object[]{docid, entry.searchText()});
+    }
+
+    @Nullable
+    private static Long getSyncedThrough(SQLiteDatabase db, String uid) {
+        try (Cursor c = db.query("sync_state", new String[]{"synced_through"},
+                "uid = ?", new String[]{uid}, null, null, null)) {
+            return c.moveToFirst() ? c.getLong(0) : null;
+        }
+    }
+
+    private boolean hasPendingWrite(SQLiteDatabase db, String uid, int epochDay) {
+        try (Cursor c = db.query("outbox", new String[]{"epoch_day"},
+                "uid = ? AND epoch_day = ?", new String[]{uid, String.valueOf(epochDay)},
+                null, null, null, "1")) {
+            return c.moveToFirst();
+        }
+    }
+
+    private List<SymptomEntry> query(String selection, String[] args, @Nullable String limit) {
+        List<SymptomEntry> rows = new ArrayList<>();
+        try (Cursor c = getReadableDatabase().query("entries",
+                new String[]{"epoch_day", "timestamp", "mood", "flow", "symptoms", "notes"},
+                selection, args, null, null, "epoch_day DESC", limit)) {
+            while (c.moveToNext()) {
+                rows.add(new SymptomEntry(c.getInt(0), c.getLong(1), (byte) c.getInt(2),
+                        (byte) c.getInt(3), c.getInt(4), c.getString(5)));
+            }
+        }
+        return rows;
+    }
+
+    private static ContentValues toValues(String uid, SymptomEntry entry) {
+        ContentValues values = new ContentValues();
+        values.put("uid", uid);
+        values.put("epoch_day", entry.epochDay());
+        values.put("timestamp", entry.timestamp());
+        values.put("mood", entry.mood());
+        values.put("flow", entry.flow());
+        values.put("symptoms", entry.symptoms());
+        values.put("notes", entry.notes());
+        return values;
+    }
+}
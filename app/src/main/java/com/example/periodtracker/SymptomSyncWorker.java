@@ -0,0 +1,217 @@
+package com.example.periodtracker;
+
+import android.content.Context;
+
+import androidx.annotation.NonNull;
+import androidx.work.BackoffPolicy;
+import androidx.work.Constraints;
+import androidx.work.ExistingWorkPolicy;
+import androidx.work.NetworkType;
+import androidx.work.OneTimeWorkRequest;
+import androidx.work.WorkManager;
+import androidx.work.Worker;
+import androidx.work.WorkerParameters;
+
+import com.example.periodtracker.core.EpochDays;
+import com.example.periodtracker.core.SymptomEntry;
+import com.example.periodtracker.core.SymptomSummary;
+import com.example.periodtracker.core.TrackerDataSource;
+import com.google.firebase.auth.FirebaseAuth;
+import com.google.firebase.auth.FirebaseUser;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Pushes the {@link SymptomStore} outbox to symptoms/{uid}.
+ *
+ * The outbox holds at most one write per day, however often it was saved.
+ * All queued days of a user are sent together: one read fetches the server's
+ * copies, then one multi-path updateChildren writes only the fields that
+ * differ from them, so a notes edit uploads just the notes and a week logged
+ * offline is a single atomic write. Each written day also gets an
+ * {@code updatedAt} of the server's time, which {@link SymptomHistorySync}
+ * resumes from. A day whose server copy has a later
+ * {@code timestamp}, e.g. from another device, is not written; the server's
+ * copy replaces the local one instead. If the batch fails every day in it
+ * stays queued and the work is retried with exponential backoff.
+ * The same update applies the summary/{uid} counter changes of every written
+ * day as server-side increments; see {@link SymptomSummary}. Those deltas
+ * are only right against the server copy they were computed from, so each
+ * day also carries that copy's {@code updatedAt} as {@code baseUpdatedAt},
+ * and database.rules.json rejects the update if another device wrote the day
+ * in between; the retry re-reads and recomputes. Only the
+ * signed-in user's writes are pushed, and a write that failed
+ * {@link #MAX_ATTEMPTS} times is parked; both wait for that user's next
+ * sign-in, so they never hold up the rest.
+ */
+public class SymptomSyncWorker extends Worker {
+
+    private static final String TAG = "SymptomSyncWorker";
+    private static final String UNIQUE_WORK_NAME = "symptom-sync";
+    private static final long WRITE_TIMEOUT_SECONDS = 30;
+    /** Failed pushes after which a write is parked until its user signs in again. */
+    private static final int MAX_ATTEMPTS = 5;
+
+    public SymptomSyncWorker(@NonNull Context context, @NonNull WorkerParameters params) {
+        super(context, params);
+    }
+
+    /** Schedules a sync once the device is online; a save made mid-sync gets a follow-up run. */
+    public static void enqueue(Context context) {
+        Constraints constraints = new Constraints.Builder()
+                .setRequiredNetworkType(NetworkType.CONNECTED)
+                .build();
+        OneTimeWorkRequest request = new OneTimeWorkRequest.Builder(SymptomSyncWorker.class)
+                .setConstraints(constraints)
+                .setBackoffCriteria(BackoffPolicy.EXPONENTIAL, 30, TimeUnit.SECONDS)
+                .build();
+        WorkManager.getInstance(context)
+                .enqueueUniqueWork(UNIQUE_WORK_NAME, ExistingWorkPolicy.APPEND_OR_REPLACE, request);
+    }
+
+    @NonNull
+    @Override
+    public Result doWork() {
+        SymptomStore store = SymptomStore.getInstance(getApplicationContext());
+        FirebaseUser user = FirebaseAuth.getInstance().getCurrentUser();
+        String signedIn = user != null ? user.getUid() : null;
+
+        List<SymptomStore.PendingWrite> writes = new ArrayList<>();
+        int skipped = 0;
+        for (SymptomStore.PendingWrite write : store.getPendingWrites()) {
+            // Other users' writes would be rejected; they wait for that user's
+            // next sign-in, as do parked ones
+            if (write.uid.equals(signedIn) && write.attempts < MAX_ATTEMPTS) {
+                writes.add(write);
+            } else {
+                skipped++;
+            }
+        }
+        if (skipped > 0) AppLog.event(TAG, "skipped", "writes", skipped);
+        if (writes.isEmpty()) return Result.success();
+
+        try {
+            push(store, signedIn, writes);
+            return Result.success();
+        } catch (Exception e) {
+            AppLog.e(TAG, "Failed to sync symptom entries", AppLog.phi(e.getMessage()));
+            for (SymptomStore.PendingWrite write : writes) {
+                store.recordFailedAttempt(write);
+            }
+            return Result.retry();
+        }
+    }
+
+    /**
+     * Writes one user's queued days, and the summary/{uid} counters they
+     * change, in a single multi-path update.
+     */
+    private void push(SymptomStore store, String uid, List<SymptomStore.PendingWrite> writes)
+            throws Exception {
+        TrackerDataSource source = PeriodTrackerApp.getDataSource();
+        ensureSummary(source, uid);
+
+        // Outbox rows are ordered by queue time; the read needs the day range
+        int firstDay = Integer.MAX_VALUE;
+        int lastDay = Integer.MIN_VALUE;
+        for (SymptomStore.PendingWrite write : writes) {
+            firstDay = Math.min(firstDay, write.epochDay);
+            lastDay = Math.max(lastDay, write.epochDay);
+        }
+        String firstKey = EpochDays.formatIso(firstDay);
+        String lastKey = EpochDays.formatIso(lastDay);
+        SortedMap<String, Object> remote = TrackerDataSource.<TrackerDataSource.Node>await(
+                callback -> source.getSymptomRange(uid, firstKey, lastKey, callback),
+                WRITE_TIMEOUT_SECONDS, TimeUnit.SECONDS).children();
+
+        Map<String, Object> updates = new HashMap<>();
+        Map<String, Long> summaryDeltas = new HashMap<>();
+        List<SymptomStore.PendingWrite> batched = new ArrayList<>();
+        for (SymptomStore.PendingWrite write : writes) {
+            SymptomEntry local = store.getEntry(uid, write.epochDay);
+            if (local == null) {
+                store.completePendingWrite(write);
+                continue;
+            }
+
+            String dateKey = write.dateKey();
+            Object serverValue = remote.get(dateKey);
+            SymptomEntry server = SymptomHistorySync.decode(serverValue);
+            if (server != null && server.timestamp() > local.timestamp()) {
+                AppLog.event(TAG, "server_newer", "day", AppLog.phi(dateKey));
+                store.resolveWithRemote(write, server);
+                SymptomRepository.getInstance(getApplicationContext()).remoteEntryStored(uid, server);
+                continue;
+            }
+
+            Map<String, Object> changed = local.changedFields(server);
+            for (Map.Entry<String, Object> field : changed.entrySet()) {
+                updates.put("symptoms/" + uid + "/" + dateKey + "/" + field.getKey(),
+                        field.getValue());
+            }
+            if (changed.isEmpty()) {
+                store.completePendingWrite(write);
+            } else {
+                // Orders the day for history listeners by server time, not this device's clock
+                updates.put("symptoms/" + uid + "/" + dateKey + "/updatedAt",
+                        source.serverTimestamp());
+                // The rules reject the whole update if the day changed since this read
+                Long base = SymptomHistorySync.updatedAt(serverValue);
+                updates.put("symptoms/" + uid + "/" + dateKey + "/baseUpdatedAt",
+                        base != null ? base : 0L);
+                SymptomSummary.addChanges(summaryDeltas, server, local);
+                batched.add(write);
+            }
+        }
+        if (updates.isEmpty()) return;
+
+        for (Map.Entry<String, Long> delta : summaryDeltas.entrySet()) {
+            updates.put("summary/" + uid + "/" + delta.getKey(),
+                    source.increment(delta.getValue()));
+        }
+        AppLog.event(TAG, "pushing", "days", batched.size(), "fields", updates.size());
+        TrackerDataSource.<Void>await(callback -> source.update(updates, callback),
+                WRITE_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+        for (SymptomStore.PendingWrite write : batched) {
+            store.completePendingWrite(write);
+        }
+    }
+
+    /**
+     * Builds summary/{uid} from the full history the first time a user syncs,
+     * so the increments that follow start from the right totals. Accounts that
+     * already have a summary only pay for one tiny read.
+     */
+    private void ensureSummary(TrackerDataSource source, String uid) throws Exception {
+        TrackerDataSource.Node summary = TrackerDataSource.await(
+                callback -> source.getSummary(uid, callback),
+                WRITE_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+        if (summary.children().containsKey("entries")) return;
+
+        TrackerDataSource.Node history = TrackerDataSource.await(
+                callback -> source.getSymptoms(uid, callback),
+                WRITE_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+        SortedMap<String, Object> days = history.children();
+        List<SymptomEntry> entries = new ArrayList<>(days.size());
+        for (Object day : days.values()) {
+            SymptomEntry entry = SymptomHistorySync.decode(day);
+            if (entry != null) entries.add(entry);
+        }
+        TrackerDataSource.Node profile = TrackerDataSource.await(
+                callback -> source.getUser(uid, callback),
+                WRITE_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+        Map<String, Object> initial = SymptomSummary.of(entries,
+                UserProfile.fromNode(profile).getPeriodStarts()).toFirebase();
+
+        // Another device may have created it meanwhile; its counters win. The
+        // period starts SetupActivity wrote there are part of initial as well
+        TrackerDataSource.<Boolean>await(
+                callback -> source.initialize("summary/" + uid, "entries", initial, callback),
+                WRITE_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+    }
+}
@@ -1,7 +1,6 @@
 package com.example.periodtracker;
 
 import android.os.Bundle;
-import android.util.Log;
 import android.view.LayoutInflater;
 import android.view.View;
 import android.view.ViewGroup;
@@ -15,16 +14,9 @@ import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
 import androidx.fragment.app.Fragment;
 
+import com.example.periodtracker.core.EpochDays;
+import com.example.periodtracker.core.SymptomEntry;
 import com.google.firebase.auth.FirebaseAuth;
-import com.google.firebase.database.DatabaseReference;
-import com.google.firebase.database.FirebaseDatabase;
-
-import java.text.SimpleDateFormat;
-import java.util.ArrayList;
-import java.util.Date;
-import java.util.HashMap;
-import java.util.Locale;
-import java.util.Map;
 
 public class SymptomsFragment extends Fragment {
 
@@ -36,17 +28,16 @@ public class SymptomsFragment extends Fragment {
     private Button btnSaveSymptoms;
 
     private FirebaseAuth mAuth;
-    private DatabaseReference dbRef;
 
     @Nullable
     @Override
     public View onCreateView(@NonNull LayoutInflater inflater, @Nullable ViewGroup container,
                              @Nullable Bundle savedInstanceState) {
+        long createStart = System.nanoTime();
         View view = inflater.inflate(R.layout.fragment_symptoms, container, false);
 
         // Initialize Firebase
         mAuth = FirebaseAuth.getInstance();
-        dbRef = FirebaseDatabase.getInstance().getReference();
 
         // Initialize views
         rgMoods = view.findViewById(R.id.rg_moods);
@@ -64,6 +55,8 @@ public class SymptomsFragment extends Fragment {
 
         btnSaveSymptoms.setOnClickListener(v -> saveSymptoms());
 
+        Metrics.trackFirstRender("symptoms", view, createStart);
+
         return view;
     }
 
@@ -71,77 +64,60 @@ public class SymptomsFragment extends Fragment {
         String uid = mAuth.getCurrentUser().getUid();
 
         // Get selected mood
-        String mood = getMoodFromRadioGroup();
+        byte mood = getMoodFromRadioGroup();
 
         // Get selected flow
-        String flow = getFlowFromRadioGroup();
+        byte flow = getFlowFromRadioGroup();
 
         // Get physical symptoms
-        ArrayList<String> physicalSymptoms = getPhysicalSymptoms();
+        int physicalSymptoms = getPhysicalSymptoms();
 
         // Get notes
         String notes = etNotes.getText().toString().trim();
 
-        // Create timestamp for this entry
-        String timestamp = new SimpleDateFormat("yyyy-MM-dd HH:mm:ss", Locale.getDefault())
-                .format(new Date());
-        String dateKey = new SimpleDateFormat("yyyy-MM-dd", Locale.getDefault())
-                .format(new Date());
-
-        // Create symptom entry
-        Map<String, Object> symptomEntry = new HashMap<>();
-        symptomEntry.put("date", dateKey);
-        symptomEntry.put("timestamp", timestamp);
-        symptomEntry.put("mood", mood);
-        symptomEntry.put("flow", flow);
-        symptomEntry.put("physicalSymptoms", physicalSymptoms);
-        symptomEntry.put("notes", notes);
-
-        Log.d(TAG, "Saving symptoms: " + symptomEntry.toString());
-
-        // Save to Firebase under symptoms node
-        dbRef.child("symptoms").child(uid).child(dateKey)
-                .setValue(symptomEntry)
-                .addOnSuccessListener(aVoid -> {
-                    Toast.makeText(requireContext(),
-                            "Symptoms saved successfully!",
-                            Toast.LENGTH_SHORT).show();
-                    clearForm();
-                })
-                .addOnFailureListener(e -> {
-                    Log.e(TAG, "Failed to save symptoms: " + e.getMessage());
-                    Toast.makeText(requireContext(),
-                            "Failed to save: " + e.getMessage(),
-                            Toast.LENGTH_SHORT).show();
-                });
+        // Create symptom entry for today, stamped with the local time
+        SymptomEntry symptomEntry = new SymptomEntry(EpochDays.today(), EpochDays.localEpochSecond(),
+                mood, flow, physicalSymptoms, notes);
+
+        AppLog.event(TAG, "symptoms_saved", "day", AppLog.phi(symptomEntry.dateKey()),
+                "symptomCount", Integer.bitCount(physicalSymptoms),
+                "entry", AppLog.phi(symptomEntry));
+
+        // Save locally; SymptomSyncWorker uploads it to symptoms/{uid}/{dateKey}
+        SymptomRepository.getInstance(requireContext()).save(uid, symptomEntry);
+
+        Toast.makeText(requireContext(),
+                "Symptoms saved successfully!",
+                Toast.LENGTH_SHORT).show();
+        clearForm();
     }
 
-    private String getMoodFromRadioGroup() {
+    private byte getMoodFromRadioGroup() {
         int selectedId = rgMoods.getCheckedRadioButtonId();
-        if (selectedId == R.id.rb_happy) return "Happy";
-        if (selectedId == R.id.rb_sad) return "Sad";
-        if (selectedId == R.id.rb_anxious) return "Anxious";
-        if (selectedId == R.id.rb_tired) return "Tired";
-        if (selectedId == R.id.rb_irritable) return "Irritable";
-        return "Not specified";
+        if (selectedId == R.id.rb_happy) return SymptomEntry.MOOD_HAPPY;
+        if (selectedId == R.id.rb_sad) return SymptomEntry.MOOD_SAD;
+        if (selectedId == R.id.rb_anxious) return SymptomEntry.MOOD_ANXIOUS;
+        if (selectedId == R.id.rb_tired) return SymptomEntry.MOOD_TIRED;
+        if (selectedId == R.id.rb_irritable) return SymptomEntry.MOOD_IRRITABLE;
+        return SymptomEntry.MOOD_NOT_SPECIFIED;
     }
 
-    private String getFlowFromRadioGroup() {
+    private byte getFlowFromRadioGroup() {
         int selectedId = rgFlow.getCheckedRadioButtonId();
-        if (selectedId == R.id.rb_light) return "Light";
-        if (selectedId == R.id.rb_moderate) return "Moderate";
-        if (selectedId == R.id.rb_heavy) return "Heavy";
-        return "Not specified";
+        if (selectedId == R.id.rb_light) return SymptomEntry.FLOW_LIGHT;
+        if (selectedId == R.id.rb_moderate) return SymptomEntry.FLOW_MODERATE;
+        if (selectedId == R.id.rb_heavy) return SymptomEntry.FLOW_HEAVY;
+        return SymptomEntry.FLOW_NOT_SPECIFIED;
     }
 
-    private ArrayList<String> getPhysicalSymptoms() {
-        ArrayList<String> symptoms = new ArrayList<>();
-        if (cbCramps.isChecked()) symptoms.add("Cramps");
-        if (cbHeadache.isChecked()) symptoms.add("Headache");
-        if (cbBloating.isChecked()) symptoms.add("Bloating");
-        if (cbAcne.isChecked()) symptoms.add("Acne");
-        if (cbBackpain.isChecked()) symptoms.add("Back Pain");
-        if (cbBreastTenderness.isChecked()) symptoms.add("Breast Tenderness");
+    private int getPhysicalSymptoms() {
+        int symptoms = 0;
+        if (cbCramps.isChecked()) symptoms |= SymptomEntry.SYMPTOM_CRAMPS;
+        if (cbHeadache.isChecked()) symptoms |= SymptomEntry.SYMPTOM_HEADACHE;
+        if (cbBloating.isChecked()) symptoms |= SymptomEntry.SYMPTOM_BLOATING;
+        if (cbAcne.isChecked()) symptoms |= SymptomEntry.SYMPTOM_ACNE;
+        if (cbBackpain.isChecked()) symptoms |= SymptomEntry.SYMPTOM_BACK_PAIN;
+        if (cbBreastTenderness.isChecked()) symptoms |= SymptomEntry.SYMPTOM_BREAST_TENDERNESS;
         return symptoms;
     }
 
@@ -0,0 +1,197 @@
+package com.example.periodtracker;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import com.example.periodtracker.core.EpochDays;
+import com.example.periodtracker.core.PeriodStarts;
+import com.example.periodtracker.core.TrackerDataSource;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/** Immutable, decoded copy of the users/{uid} node. */
+public final class UserProfile {
+
+    /** Emitted when users/{uid} does not exist yet. */
+    public static final UserProfile MISSING = new UserProfile(false, null, null, null, null, new int[0]);
+
+    private final boolean exists;
+    @Nullable private final String name;
+    @Nullable private final Integer age;
+    @Nullable private final Integer cycleLength;
+    @Nullable private final String lastPeriodDate;
+    /** Every logged period start as sorted, distinct epoch days. */
+    private final int[] periodStarts;
+
+    private UserProfile(boolean exists, @Nullable String name, @Nullable Integer age,
+                        @Nullable Integer cycleLength, @Nullable String lastPeriodDate,
+                        int[] periodStarts) {
+        this.exists = exists;
+        this.name = name;
+        this.age = age;
+        this.cycleLength = cycleLength;
+        this.lastPeriodDate = lastPeriodDate;
+        this.periodStarts = periodStarts;
+    }
+
+    public static UserProfile of(String name, int age, int cycleLength, String lastPeriodDate) {
+        return new UserProfile(true, name, age, cycleLength, lastPeriodDate,
+                withStart(new int[0], lastPeriodDate));
+    }
+
+    /** Rebuilds a profile saved by {@link ProfileCache}; {@code periodStarts} must be sorted. */
+    static UserProfile restore(@Nullable String name, @Nullable Integer age,
+                               @Nullable Integer cycleLength, @Nullable String lastPeriodDate,
+                               int[] periodStarts) {
+        return new UserProfile(true, name, age, cycleLength, lastPeriodDate, periodStarts);
+    }
+
+    @NonNull
+    static UserProfile fromNode(@NonNull TrackerDataSource.Node node) {
+        if (!(node.value() instanceof Map)) return MISSING;
+        Map<?, ?> map = (Map<?, ?>) node.value();
+
+        String lastPeriodDate = asString(map.get("lastPeriodDate"));
+
+        // Firebase returns the keys unordered; they are yyyy-MM-dd, so sort after parsing
+        int[] starts = new int[0];
+        int count = 0;
+        Object startsValue = map.get("periodStarts");
+        if (startsValue instanceof Map) {
+            Map<?, ?> startsMap = (Map<?, ?>) startsValue;
+            starts = new int[startsMap.size()];
+            for (Object key : startsMap.keySet()) {
+                int day = EpochDays.parseIsoDate(key.toString());
+                if (day != EpochDays.INVALID) starts[count++] = day;
+            }
+        }
+        starts = Arrays.copyOf(starts, count);
+        Arrays.sort(starts);
+
+        return new UserProfile(true,
+                asString(map.get("name")),
+                asInteger(map.get("age")),
+                asInteger(map.get("cycleLength")),
+                lastPeriodDate,
+                withStart(starts, lastPeriodDate));
+    }
+
+    /**
+     * Returns a copy that also carries the period starts already logged in
+     * {@code previous}, minus its latest start if this profile's
+     * lastPeriodDate corrects it; see {@link PeriodStarts#corrects}.
+     */
+    @NonNull
+    UserProfile mergePeriodStarts(@Nullable UserProfile previous) {
+        if (previous == null || previous.periodStarts.length == 0) return this;
+        int[] merged = previous.periodStarts;
+        for (int start : periodStarts) {
+            merged = PeriodStarts.with(merged, start);
+        }
+        int corrected = correctedStart(previous);
+        if (corrected != EpochDays.INVALID) {
+            merged = PeriodStarts.without(merged, corrected);
+        }
+        return new UserProfile(exists, name, age, cycleLength, lastPeriodDate, merged);
+    }
+
+    /** The previous lastPeriodDate this profile's one corrects, or {@link EpochDays#INVALID}. */
+    private int correctedStart(@Nullable UserProfile previous) {
+        if (previous == null) return EpochDays.INVALID;
+        int before = EpochDays.parseIsoDate(previous.lastPeriodDate);
+        int after = EpochDays.parseIsoDate(lastPeriodDate);
+        if (before == EpochDays.INVALID || after == EpochDays.INVALID) return EpochDays.INVALID;
+        return PeriodStarts.corrects(before, after) ? before : EpochDays.INVALID;
+    }
+
+    /** The full shape written to users/{uid} by SetupActivity. */
+    @NonNull
+    Map<String, Object> toMap() {
+        Map<String, Object> map = fieldMap();
+        Map<String, Object> starts = new HashMap<>();
+        for (int start : periodStarts) {
+            starts.put(EpochDays.formatIso(start), true);
+        }
+        map.put("periodStarts", starts);
+        return map;
+    }
+
+    /**
+     * Multi-path update used by SettingsFragment. Period starts are added one
+     * path at a time so earlier ones are kept; a lastPeriodDate that corrects
+     * the one in {@code previous} deletes that start in the same update.
+     */
+    @NonNull
+    Map<String, Object> toUpdateMap(@Nullable UserProfile previous) {
+        Map<String, Object> map = fieldMap();
+        if (lastPeriodDate != null) {
+            map.put("periodStarts/" + lastPeriodDate, true);
+        }
+        int corrected = correctedStart(previous);
+        if (corrected != EpochDays.INVALID) {
+            map.put("periodStarts/" + EpochDays.formatIso(corrected), null);
+        }
+        return map;
+    }
+
+    private Map<String, Object> fieldMap() {
+        Map<String, Object> map = new HashMap<>();
+        map.put("name", name);
+        map.put("age", age);
+        map.put("cycleLength", cycleLength);
+        map.put("lastPeriodDate", lastPeriodDate);
+        return map;
+    }
+
+    @Nullable
+    private static String asString(Object value) {
+        return value instanceof String ? (String) value : null;
+    }
+
+    @Nullable
+    private static Integer asInteger(Object value) {
+        return value instanceof Number ? ((Number) value).intValue() : null;
+    }
+
+    private static int[] withStart(int[] starts, @Nullable String date) {
+        int day = EpochDays.parseIsoDate(date);
+        return day == EpochDays.INVALID ? starts : PeriodStarts.with(starts, day);
+    }
+
+    public boolean exists() {
+        return exists;
+    }
+
+    /** True when every field the app needs for routing and predictions is present. */
+    public boolean isComplete() {
+        return exists && name != null && age != null && cycleLength != null && lastPeriodDate != null;
+    }
+
+    @Nullable
+    public String getName() {
+        return name;
+    }
+
+    @Nullable
+    public Integer getAge() {
+        return age;
+    }
+
+    @Nullable
+    public Integer getCycleLength() {
+        return cycleLength;
+    }
+
+    @Nullable
+    public String getLastPeriodDate() {
+        return lastPeriodDate;
+    }
+
+    /** Logged period starts as sorted epoch days. Do not modify the returned array. */
+    @NonNull
+    public int[] getPeriodStarts() {
+        return periodStarts;
+    }
+}
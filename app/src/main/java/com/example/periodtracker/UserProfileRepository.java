@@ -0,0 +1,334 @@
+package com.example.periodtracker;
+
+import android.content.Context;
+import android.os.Handler;
+import android.os.Looper;
+import android.os.SystemClock;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.core.util.Pair;
+import androidx.lifecycle.LiveData;
+import androidx.lifecycle.MutableLiveData;
+
+import com.example.periodtracker.core.CycleForecast;
+import com.example.periodtracker.core.CyclePredictor;
+import com.example.periodtracker.core.SymptomSummary;
+import com.example.periodtracker.core.TrackerDataSource;
+import com.google.firebase.auth.FirebaseAuth;
+import com.google.firebase.auth.FirebaseUser;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * Process-wide owner of the users/{uid} node.
+ *
+ * Keeps one live listener per signed-in user and republishes the decoded
+ * {@link UserProfile} to every screen, so opening another screen never costs
+ * another round trip. Writes go through here and update the cache immediately.
+ * It also keeps a {@link CyclePredictor} fed with the logged period starts and
+ * publishes its {@link CycleForecast}.
+ * The last loaded profile is persisted in a {@link ProfileCache} and published
+ * straight away on the next cold start, before the listener revalidates it.
+ * Snapshots are decoded and predictions computed on the
+ * {@link SnapshotDispatcher} thread; profile and forecast are then published
+ * together on the main thread.
+ * All methods must be called on the main thread.
+ */
+public class UserProfileRepository {
+
+    private static final String TAG = "UserProfileRepository";
+
+    /** Number of upcoming cycles included in the published forecast. */
+    public static final int FORECAST_CYCLES = 12;
+
+    private static UserProfileRepository instance;
+
+    private final MutableLiveData<UserProfile> profile = new MutableLiveData<>();
+    private final MutableLiveData<CycleForecast> forecast = new MutableLiveData<>();
+    private final MutableLiveData<String> loadError = new MutableLiveData<>();
+    private final SnapshotDispatcher dispatcher = SnapshotDispatcher.getInstance();
+
+    @Nullable private ProfileCache cache;
+
+    private String uid;
+    private TrackerDataSource.Subscription subscription;
+    /** When the listener was attached, until its first value is recorded; 0 after that. */
+    private long listenStartNanos;
+
+    /** Bumped whenever the signed-in user changes, so results for a previous user are dropped. */
+    private int generation;
+    /** Profiles handed to the dispatcher and not yet published. */
+    private int publishesInFlight;
+    /** Work waiting for {@link #publishesInFlight} to reach zero. */
+    private List<Runnable> afterPublishes = new ArrayList<>();
+
+    // Touched only on the dispatcher thread
+    private CyclePredictor predictor;
+    /** How many entries of the profile's periodStarts the predictor has consumed. */
+    private int consumedStarts;
+    /** Generation the predictor was built for. */
+    private int predictorGeneration;
+
+    private UserProfileRepository() {
+    }
+
+    public static synchronized UserProfileRepository getInstance() {
+        if (instance == null) {
+            instance = new UserProfileRepository();
+        }
+        return instance;
+    }
+
+    /** Enables the persisted profile; called once from {@link PeriodTrackerApp}. */
+    public static synchronized void init(Context context) {
+        getInstance().cache = new ProfileCache(context);
+    }
+
+    /** True if the signed-in user's last known profile was complete, without any network call. */
+    public boolean hasCompleteCachedProfile() {
+        FirebaseUser user = FirebaseAuth.getInstance().getCurrentUser();
+        return user != null && cache != null && cache.isComplete(user.getUid());
+    }
+
+    /** Latest profile of the signed-in user; {@code null} until the first load finishes. */
+    public LiveData<UserProfile> getProfile() {
+        attach();
+        return profile;
+    }
+
+    /** Forecast for the signed-in user; {@code null} while the profile is incomplete. */
+    public LiveData<CycleForecast> getForecast() {
+        attach();
+        return forecast;
+    }
+
+    /** Message of the last failed load, cleared again on the next successful one. */
+    public LiveData<String> getLoadError() {
+        attach();
+        return loadError;
+    }
+
+    /**
+     * Replaces the whole profile, as SetupActivity does on first run. The
+     * latest period starts are copied to summary/{uid} in the same update.
+     * Fails the callback if no user is signed in.
+     */
+    public void setProfile(@NonNull UserProfile newProfile,
+                           @NonNull TrackerDataSource.Callback<Void> callback) {
+        if (!attach()) {
+            fail(callback, "No user is signed in");
+            return;
+        }
+        publish(newProfile);
+        if (cache != null) cache.save(uid, newProfile);
+        Map<String, Object> updates = new HashMap<>();
+        updates.put("users/" + uid, newProfile.toMap());
+        updates.put("summary/" + uid + "/periodStarts",
+                SymptomSummary.startKeys(newProfile.getPeriodStarts()));
+        PeriodTrackerApp.getDataSource().update(updates, callback);
+    }
+
+    /**
+     * Merges the profile fields into users/{uid}, as SettingsFragment does,
+     * and refreshes the period starts in summary/{uid} in the same update.
+     * The merge needs the current profile, so it waits for any profile still
+     * being published, and fails the callback if none has loaded yet, as
+     * merging with nothing would overwrite the stored period starts. Also
+     * fails it if no user is signed in.
+     */
+    public void updateProfile(@NonNull UserProfile newProfile,
+                              @NonNull TrackerDataSource.Callback<Void> callback) {
+        if (!attach()) {
+            fail(callback, "No user is signed in");
+            return;
+        }
+        if (publishesInFlight > 0) {
+            int updateGeneration = generation;
+            afterPublishes.add(() -> {
+                if (updateGeneration != generation) {
+                    fail(callback, "The signed-in user changed");
+                } else {
+                    mergeProfile(newProfile, callback);
+                }
+            });
+            return;
+        }
+        mergeProfile(newProfile, callback);
+    }
+
+    private void mergeProfile(UserProfile newProfile, TrackerDataSource.Callback<Void> callback) {
+        UserProfile previous = profile.getValue();
+        if (previous == null) {
+            fail(callback, "Profile has not loaded yet");
+            return;
+        }
+        UserProfile merged = newProfile.mergePeriodStarts(previous);
+        publish(merged);
+        if (cache != null) cache.save(uid, merged);
+        Map<String, Object> updates = new HashMap<>();
+        for (Map.Entry<String, Object> field : newProfile.toUpdateMap(previous).entrySet()) {
+            updates.put("users/" + uid + "/" + field.getKey(), field.getValue());
+        }
+        updates.put("summary/" + uid + "/periodStarts",
+                SymptomSummary.startKeys(merged.getPeriodStarts()));
+        PeriodTrackerApp.getDataSource().update(updates, callback);
+    }
+
+    /** Drops the listener and cached profile, e.g. on logout. */
+    public void clear() {
+        detach();
+        if (cache != null) cache.clear();
+        profile.setValue(null);
+        forecast.setValue(null);
+        loadError.setValue(null);
+    }
+
+    /** Listens to the signed-in user's profile; false if nobody is signed in. */
+    private boolean attach() {
+        FirebaseUser user = FirebaseAuth.getInstance().getCurrentUser();
+        if (user == null) {
+            clear();
+            return false;
+        }
+        if (user.getUid().equals(uid) && subscription != null) return true;
+
+        detach();
+        profile.setValue(null);
+        forecast.setValue(null);
+        uid = user.getUid();
+
+        // Show the last known complete profile until the listener confirms or corrects it
+        UserProfile cached = cache != null ? cache.load(uid) : null;
+        if (cached != null && cached.isComplete()) {
+            StartupTrace.mark("profile_from_cache");
+            publish(cached);
+        }
+
+        TrackerDataSource.Callback<TrackerDataSource.Node> listener =
+                new TrackerDataSource.Callback<TrackerDataSource.Node>() {
+            @Override
+            public void onSuccess(TrackerDataSource.Node node) {
+                long start = SystemClock.uptimeMillis();
+                if (listenStartNanos != 0) {
+                    Metrics.recordSince(Metrics.FIREBASE_USERS, listenStartNanos);
+                    listenStartNanos = 0;
+                }
+                loadError.setValue(null);
+                StartupTrace.mark("profile_from_server");
+                String loadedUid = uid;
+                publish(() -> UserProfile.fromNode(node),
+                        loaded -> {
+                            if (cache != null) cache.save(loadedUid, loaded);
+                        });
+                SnapshotDispatcher.checkMainThread("users/{uid} listener", start);
+            }
+
+            @Override
+            public void onFailure(Exception error) {
+                AppLog.e(TAG, "Error loading profile", AppLog.phi(error.getMessage()));
+                loadError.setValue(error.getMessage());
+            }
+        };
+        listenStartNanos = System.nanoTime();
+        subscription = PeriodTrackerApp.getDataSource().observeUser(uid, listener);
+        return true;
+    }
+
+    /**
+     * Fails a write that cannot be made, e.g. while nobody is signed in,
+     * which would otherwise go to users/null. Posted, as data source
+     * callbacks never run on the caller's stack.
+     */
+    private static void fail(TrackerDataSource.Callback<Void> callback, String message) {
+        new Handler(Looper.getMainLooper()).post(() ->
+                callback.onFailure(new IllegalStateException(message)));
+    }
+
+    private void detach() {
+        if (subscription != null) {
+            subscription.remove();
+        }
+        uid = null;
+        subscription = null;
+        generation++;
+    }
+
+    private void publish(UserProfile newProfile) {
+        publish(() -> newProfile, null);
+    }
+
+    /**
+     * Decodes a profile and updates the predictor on the dispatcher thread,
+     * then publishes both on the main thread, unless the user changed meanwhile.
+     * Work queued in {@link #afterPublishes} runs once nothing is in flight.
+     */
+    private void publish(Supplier<UserProfile> decode, @Nullable Consumer<UserProfile> onPublished) {
+        int publishGeneration = generation;
+        publishesInFlight++;
+        dispatcher.dispatch("users", () -> {
+            UserProfile decoded = decode.get();
+            return new Pair<>(decoded, updatePredictor(decoded, publishGeneration));
+        }, result -> {
+            publishesInFlight--;
+            if (publishGeneration == generation) {
+                profile.setValue(result.first);
+                forecast.setValue(result.second);
+                if (onPublished != null) onPublished.accept(result.first);
+            }
+            if (publishesInFlight == 0 && !afterPublishes.isEmpty()) {
+                List<Runnable> ready = afterPublishes;
+                afterPublishes = new ArrayList<>();
+                for (Runnable work : ready) {
+                    work.run();
+                }
+            }
+        });
+    }
+
+    /**
+     * Feeds only the period starts the predictor has not seen yet, so a newly
+     * logged period is O(1). The history is replayed only if it changed
+     * anywhere other than at the end, e.g. a start was deleted.
+     */
+    private CycleForecast updatePredictor(UserProfile newProfile, int forGeneration) {
+        if (predictorGeneration != forGeneration) {
+            predictor = null;
+            consumedStarts = 0;
+            predictorGeneration = forGeneration;
+        }
+        if (!newProfile.isComplete()) return null;
+
+        int[] starts = newProfile.getPeriodStarts();
+        if (starts.length == 0) return null;
+
+        long start = System.nanoTime();
+
+        if (predictor == null) {
+            predictor = new CyclePredictor(newProfile.getCycleLength());
+            consumedStarts = 0;
+        } else {
+            predictor.setPriorCycleLength(newProfile.getCycleLength());
+        }
+
+        boolean appendOnly = consumedStarts <= starts.length
+                && (consumedStarts == 0 || starts[consumedStarts - 1] == predictor.statistics().lastStart());
+        if (!appendOnly) {
+            predictor.clear();
+            consumedStarts = 0;
+        }
+        for (int i = consumedStarts; i < starts.length; i++) {
+            predictor.addPeriodStart(starts[i]);
+        }
+        consumedStarts = starts.length;
+
+        CycleForecast result = predictor.forecast(FORECAST_CYCLES);
+        Metrics.recordSince(Metrics.PREDICTION, start);
+        return result;
+    }
+}
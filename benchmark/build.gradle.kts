@@ -0,0 +1,48 @@
+plugins {
+    alias(libs.plugins.android.test)
+    alias(libs.plugins.baselineprofile)
+}
+
+android {
+    namespace = "com.example.periodtracker.benchmark"
+    compileSdk = 36
+
+    defaultConfig {
+        // Baseline profiles can only be collected on API 28+ without root
+        minSdk = 28
+        targetSdk = 36
+
+        testInstrumentationRunner = "androidx.test.runner.AndroidJUnitRunner"
+    }
+
+    compileOptions {
+        sourceCompatibility = JavaVersion.VERSION_11
+        targetCompatibility = JavaVersion.VERSION_11
+    }
+
+    targetProjectPath = ":app"
+
+    testOptions.managedDevices.localDevices {
+        create("pixel6Api34") {
+            device = "Pixel 6"
+            apiLevel = 34
+            systemImageSource = "aosp"
+        }
+    }
+}
+
+// Profiles are generated on the managed emulator so every build gets the same one.
+// Benchmarks run on any connected device or emulator:
+//   ./gradlew :benchmark:connectedBenchmarkReleaseAndroidTest \
+//       -Pandroid.testInstrumentationRunnerArguments.email=... \
+//       -Pandroid.testInstrumentationRunnerArguments.password=...
+baselineProfile {
+    managedDevices += "pixel6Api34"
+    useConnectedDevices = false
+}
+
+dependencies {
+    implementation(libs.ext.junit)
+    implementation(libs.uiautomator)
+    implementation(libs.benchmark.macro.junit4)
+}
@@ -0,0 +1,40 @@
+package com.example.periodtracker.benchmark;
+
+import androidx.benchmark.macro.junit4.BaselineProfileRule;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import kotlin.Unit;
+
+/**
+ * Records the baseline profile for app/src/release/generated, which is not
+ * committed yet; see app/build.gradle.kts. Covers startup and the two
+ * heaviest screens; run {@code ./gradlew :app:generateReleaseBaselineProfile}
+ * after changing them and commit the result.
+ */
+@RunWith(AndroidJUnit4.class)
+public class BaselineProfileGenerator {
+
+    @Rule
+    public BaselineProfileRule rule = new BaselineProfileRule();
+
+    @Test
+    public void generate() {
+        rule.collect(Journeys.PACKAGE,
+                15, 3, null,
+                true, false,
+                rule -> true,
+                scope -> {
+                    Journeys.startToDashboard(scope);
+                    Journeys.seedHistory(scope, 365);
+                    Journeys.openHistory(scope);
+                    Journeys.scrollHistory(scope);
+                    Journeys.openCalendar(scope);
+                    Journeys.pageCalendar(scope);
+                    return Unit.INSTANCE;
+                });
+    }
+}
@@ -0,0 +1,49 @@
+package com.example.periodtracker.benchmark;
+
+import androidx.benchmark.macro.BaselineProfileMode;
+import androidx.benchmark.macro.CompilationMode;
+import androidx.benchmark.macro.FrameTimingMetric;
+import androidx.benchmark.macro.StartupMode;
+import androidx.benchmark.macro.junit4.MacrobenchmarkRule;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.Collections;
+
+import kotlin.Unit;
+
+/** Frame timing while paging the calendar, which decorates each month it shows. */
+@RunWith(AndroidJUnit4.class)
+public class CalendarPagingBenchmark {
+
+    @Rule
+    public MacrobenchmarkRule rule = new MacrobenchmarkRule();
+
+    @Test
+    public void pagingNoCompilation() {
+        paging(new CompilationMode.None());
+    }
+
+    @Test
+    public void pagingBaselineProfile() {
+        paging(new CompilationMode.Partial(BaselineProfileMode.Require));
+    }
+
+    private void paging(CompilationMode mode) {
+        rule.measureRepeated(Journeys.PACKAGE,
+                Collections.singletonList(new FrameTimingMetric()),
+                mode, StartupMode.WARM, 5,
+                scope -> {
+                    Journeys.startToDashboard(scope);
+                    Journeys.openCalendar(scope);
+                    return Unit.INSTANCE;
+                },
+                scope -> {
+                    Journeys.pageCalendar(scope);
+                    return Unit.INSTANCE;
+                });
+    }
+}
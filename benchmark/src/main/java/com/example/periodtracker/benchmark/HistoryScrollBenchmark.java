@@ -0,0 +1,52 @@
+package com.example.periodtracker.benchmark;
+
+import androidx.benchmark.macro.BaselineProfileMode;
+import androidx.benchmark.macro.CompilationMode;
+import androidx.benchmark.macro.FrameTimingMetric;
+import androidx.benchmark.macro.StartupMode;
+import androidx.benchmark.macro.junit4.MacrobenchmarkRule;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.Collections;
+
+import kotlin.Unit;
+
+/** Frame timing while flinging through about eight years of history. */
+@RunWith(AndroidJUnit4.class)
+public class HistoryScrollBenchmark {
+
+    private static final int SEEDED_DAYS = 3000;
+
+    @Rule
+    public MacrobenchmarkRule rule = new MacrobenchmarkRule();
+
+    @Test
+    public void scrollNoCompilation() {
+        scroll(new CompilationMode.None());
+    }
+
+    @Test
+    public void scrollBaselineProfile() {
+        scroll(new CompilationMode.Partial(BaselineProfileMode.Require));
+    }
+
+    private void scroll(CompilationMode mode) {
+        rule.measureRepeated(Journeys.PACKAGE,
+                Collections.singletonList(new FrameTimingMetric()),
+                mode, StartupMode.WARM, 5,
+                scope -> {
+                    Journeys.startToDashboard(scope);
+                    Journeys.seedHistory(scope, SEEDED_DAYS);
+                    Journeys.openHistory(scope);
+                    return Unit.INSTANCE;
+                },
+                scope -> {
+                    Journeys.scrollHistory(scope);
+                    return Unit.INSTANCE;
+                });
+    }
+}
@@ -0,0 +1,107 @@
+package com.example.periodtracker.benchmark;
+
+import android.os.Bundle;
+
+import androidx.benchmark.macro.MacrobenchmarkScope;
+import androidx.test.platform.app.InstrumentationRegistry;
+import androidx.test.uiautomator.By;
+import androidx.test.uiautomator.Direction;
+import androidx.test.uiautomator.UiDevice;
+import androidx.test.uiautomator.UiObject2;
+import androidx.test.uiautomator.Until;
+
+import java.io.IOException;
+
+/**
+ * User journeys shared by the benchmarks and the baseline profile generator.
+ *
+ * The app needs a signed-in account with a completed profile; pass it as the
+ * {@code email} and {@code password} instrumentation arguments. Firebase Auth
+ * keeps the session, so only the first launch on a device goes through login.
+ */
+final class Journeys {
+
+    static final String PACKAGE = "com.example.periodtracker";
+
+    private static final long TIMEOUT_MS = 10_000;
+
+    private Journeys() {
+    }
+
+    /** Cold-starts the app and waits until the dashboard shows the next period. */
+    static void startToDashboard(MacrobenchmarkScope scope) {
+        scope.pressHome();
+        scope.startActivityAndWait();
+        UiDevice device = scope.getDevice();
+        if (device.wait(Until.hasObject(By.res(PACKAGE, "et_email")), 2_000)) {
+            logIn(device);
+        }
+        device.wait(Until.hasObject(By.res(PACKAGE, "tv_next_period_in")), TIMEOUT_MS);
+    }
+
+    /** Writes {@code days} synthetic history entries through the benchmark-only receiver. */
+    static void seedHistory(MacrobenchmarkScope scope, int days) {
+        try {
+            scope.getDevice().executeShellCommand("am broadcast -n " + PACKAGE
+                    + "/.SeedHistoryReceiver --ei days " + days);
+        } catch (IOException e) {
+            throw new IllegalStateException("Could not seed history", e);
+        }
+    }
+
+    static void openHistory(MacrobenchmarkScope scope) {
+        openDrawerItem(scope.getDevice(), "History");
+        scope.getDevice().wait(Until.hasObject(By.res(PACKAGE, "history_list")), TIMEOUT_MS);
+    }
+
+    static void openCalendar(MacrobenchmarkScope scope) {
+        openDrawerItem(scope.getDevice(), "Calendar");
+        scope.getDevice().wait(Until.hasObject(By.res(PACKAGE, "calendarView")), TIMEOUT_MS);
+    }
+
+    /** Flings the history list down a few pages and back to the top. */
+    static void scrollHistory(MacrobenchmarkScope scope) {
+        UiDevice device = scope.getDevice();
+        UiObject2 list = device.findObject(By.res(PACKAGE, "history_list"));
+        list.setGestureMargin(device.getDisplayWidth() / 5);
+        for (int i = 0; i < 5; i++) {
+            list.fling(Direction.DOWN);
+            device.waitForIdle();
+        }
+        list.fling(Direction.UP);
+        device.waitForIdle();
+    }
+
+    /** Swipes the calendar back six months and forward again. */
+    static void pageCalendar(MacrobenchmarkScope scope) {
+        UiDevice device = scope.getDevice();
+        UiObject2 calendar = device.findObject(By.res(PACKAGE, "calendarView"));
+        calendar.setGestureMargin(device.getDisplayWidth() / 5);
+        for (int i = 0; i < 6; i++) {
+            calendar.swipe(Direction.RIGHT, 0.8f);
+            device.waitForIdle();
+        }
+        for (int i = 0; i < 6; i++) {
+            calendar.swipe(Direction.LEFT, 0.8f);
+            device.waitForIdle();
+        }
+    }
+
+    private static void openDrawerItem(UiDevice device, String title) {
+        device.findObject(By.desc("Open navigation drawer")).click();
+        device.wait(Until.findObject(By.text(title)), TIMEOUT_MS).click();
+    }
+
+    private static void logIn(UiDevice device) {
+        Bundle args = InstrumentationRegistry.getArguments();
+        String email = args.getString("email");
+        String password = args.getString("password");
+        if (email == null || password == null) {
+            throw new IllegalStateException(
+                    "Not signed in; pass the email and password instrumentation arguments");
+        }
+        device.findObject(By.res(PACKAGE, "et_email")).setText(email);
+        device.findObject(By.res(PACKAGE, "et_password")).setText(password);
+        device.findObject(By.res(PACKAGE, "btn_login")).click();
+    }
+}
@@ -0,0 +1,54 @@
+package com.example.periodtracker.benchmark;
+
+import androidx.benchmark.macro.BaselineProfileMode;
+import androidx.benchmark.macro.CompilationMode;
+import androidx.benchmark.macro.ExperimentalMetricApi;
+import androidx.benchmark.macro.StartupMode;
+import androidx.benchmark.macro.StartupTimingMetric;
+import androidx.benchmark.macro.TraceSectionMetric;
+import androidx.benchmark.macro.junit4.MacrobenchmarkRule;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.Arrays;
+
+import kotlin.Unit;
+
+/**
+ * Cold start to a drawn dashboard, without AOT compilation and with the
+ * baseline profile, so the two results show what the profile is worth.
+ * "startup:dashboard_drawn" is the StartupTrace mark DashboardFragment sets
+ * once the prediction is on screen.
+ */
+@RunWith(AndroidJUnit4.class)
+@ExperimentalMetricApi
+public class StartupBenchmark {
+
+    @Rule
+    public MacrobenchmarkRule rule = new MacrobenchmarkRule();
+
+    @Test
+    public void startupNoCompilation() {
+        startup(new CompilationMode.None());
+    }
+
+    @Test
+    public void startupBaselineProfile() {
+        startup(new CompilationMode.Partial(BaselineProfileMode.Require));
+    }
+
+    private void startup(CompilationMode mode) {
+        rule.measureRepeated(Journeys.PACKAGE,
+                Arrays.asList(new StartupTimingMetric(),
+                        new TraceSectionMetric("startup:dashboard_drawn")),
+                mode, StartupMode.COLD, 10,
+                scope -> Unit.INSTANCE,
+                scope -> {
+                    Journeys.startToDashboard(scope);
+                    return Unit.INSTANCE;
+                });
+    }
+}
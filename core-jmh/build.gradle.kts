@@ -0,0 +1,23 @@
+plugins {
+    java
+    alias(libs.plugins.jmh)
+}
+
+java {
+    sourceCompatibility = JavaVersion.VERSION_11
+    targetCompatibility = JavaVersion.VERSION_11
+}
+
+dependencies {
+    jmhImplementation(project(":core"))
+}
+
+// Run with: ./gradlew :core-jmh:jmh
+jmh {
+    warmupIterations.set(3)
+    iterations.set(5)
+    fork.set(1)
+    benchmarkMode.set(listOf("avgt"))
+    timeUnit.set("ns")
+    profilers.set(listOf("gc"))
+}
@@ -0,0 +1,81 @@
+package com.example.periodtracker.core.jmh;
+
+import com.example.periodtracker.core.CyclePredictionEngine;
+import com.example.periodtracker.core.EpochDays;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.text.ParseException;
+import java.text.SimpleDateFormat;
+import java.util.Calendar;
+import java.util.Date;
+import java.util.Locale;
+
+/**
+ * Compares the epoch-day engine with the Calendar-based prediction code that
+ * DashboardFragment and CalendarFragment used to run on every load.
+ */
+@State(Scope.Thread)
+public class CyclePredictionBenchmark {
+
+    @Param({"2024-01-15", "2025-12-30"})
+    public String lastPeriodDate;
+
+    @Param({"28", "35"})
+    public int cycleLength;
+
+    /** Previous DashboardFragment + CalendarFragment path, minus the UI calls. */
+    @Benchmark
+    public void legacyCalendar(Blackhole bh) throws ParseException {
+        SimpleDateFormat sdf = new SimpleDateFormat("yyyy-MM-dd", Locale.getDefault());
+        Date lastPeriod = sdf.parse(lastPeriodDate);
+
+        Calendar calendar = Calendar.getInstance();
+        calendar.setTime(lastPeriod);
+
+        Calendar nextPeriodCal = (Calendar) calendar.clone();
+        nextPeriodCal.add(Calendar.DAY_OF_MONTH, cycleLength);
+        for (int i = 0; i < CyclePredictionEngine.PERIOD_LENGTH; i++) {
+            bh.consume(nextPeriodCal.get(Calendar.DAY_OF_MONTH));
+            nextPeriodCal.add(Calendar.DAY_OF_MONTH, 1);
+        }
+
+        Calendar fertileCal = (Calendar) calendar.clone();
+        fertileCal.add(Calendar.DAY_OF_MONTH, cycleLength - 14 - 5);
+        for (int i = 0; i < 6; i++) {
+            bh.consume(fertileCal.get(Calendar.DAY_OF_MONTH));
+            fertileCal.add(Calendar.DAY_OF_MONTH, 1);
+        }
+
+        Calendar ovulationCal = (Calendar) calendar.clone();
+        ovulationCal.add(Calendar.DAY_OF_MONTH, cycleLength - 14);
+        bh.consume(ovulationCal.get(Calendar.DAY_OF_MONTH));
+
+        long diffInMillis = nextPeriodCal.getTimeInMillis() - System.currentTimeMillis();
+        bh.consume(diffInMillis / (1000 * 60 * 60 * 24));
+    }
+
+    @Benchmark
+    public void epochDayEngine(Blackhole bh) {
+        int lastPeriod = EpochDays.parseIsoDate(lastPeriodDate);
+
+        long nextPeriod = CyclePredictionEngine.nextPeriod(lastPeriod, cycleLength);
+        for (int day = CyclePredictionEngine.rangeStart(nextPeriod);
+             day <= CyclePredictionEngine.rangeEnd(nextPeriod); day++) {
+            bh.consume(EpochDays.dayOfMonth(day));
+        }
+
+        long fertile = CyclePredictionEngine.fertileWindow(lastPeriod, cycleLength);
+        for (int day = CyclePredictionEngine.rangeStart(fertile);
+             day <= CyclePredictionEngine.rangeEnd(fertile); day++) {
+            bh.consume(EpochDays.dayOfMonth(day));
+        }
+
+        bh.consume(EpochDays.dayOfMonth(CyclePredictionEngine.ovulationDay(lastPeriod, cycleLength)));
+        bh.consume(CyclePredictionEngine.daysUntilNextPeriod(lastPeriod, cycleLength, EpochDays.today()));
+    }
+}
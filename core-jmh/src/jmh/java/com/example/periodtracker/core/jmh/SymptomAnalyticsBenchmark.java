@@ -0,0 +1,76 @@
+package com.example.periodtracker.core.jmh;
+
+import com.example.periodtracker.core.EpochDays;
+import com.example.periodtracker.core.SymptomAnalytics;
+import com.example.periodtracker.core.SymptomEntry;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Ten years of daily entries: a full build, a recount after the period starts
+ * change, and the incremental cost of saving one more day.
+ */
+@State(Scope.Thread)
+public class SymptomAnalyticsBenchmark {
+
+    private static final int DAYS = 3650;
+
+    private final List<SymptomEntry> history = new ArrayList<>();
+    private int[] starts;
+    private int[] shiftedStarts;
+    private SymptomAnalytics built;
+    private boolean shifted;
+    private int nextMood;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        int first = EpochDays.of(2015, 1, 1);
+        for (int day = 0; day < DAYS; day++) {
+            history.add(new SymptomEntry(first + day, (long) (first + day) * 86_400,
+                    (byte) random.nextInt(SymptomEntry.MOOD_COUNT),
+                    (byte) random.nextInt(SymptomEntry.FLOW_COUNT),
+                    random.nextInt(1 << SymptomEntry.SYMPTOM_COUNT), ""));
+        }
+        starts = new int[DAYS / 28];
+        shiftedStarts = new int[starts.length];
+        for (int i = 0; i < starts.length; i++) {
+            starts[i] = first + i * 28 + random.nextInt(3);
+            shiftedStarts[i] = starts[i] + 1;
+        }
+        built = new SymptomAnalytics(28);
+        built.setCycles(starts, 28);
+        built.putAll(history);
+    }
+
+    @Benchmark
+    public SymptomAnalytics.Result fullBuild() {
+        SymptomAnalytics analytics = new SymptomAnalytics(28);
+        analytics.setCycles(starts, 28);
+        analytics.putAll(history);
+        return analytics.result();
+    }
+
+    @Benchmark
+    public SymptomAnalytics.Result recountAfterNewStarts() {
+        shifted = !shifted;
+        built.setCycles(shifted ? shiftedStarts : starts, 28);
+        return built.result();
+    }
+
+    @Benchmark
+    public SymptomAnalytics.Result saveOneDay() {
+        SymptomEntry last = history.get(DAYS - 1);
+        nextMood = (nextMood + 1) % SymptomEntry.MOOD_COUNT;
+        built.put(new SymptomEntry(last.epochDay(), last.timestamp(), (byte) nextMood,
+                last.flow(), last.symptoms(), ""));
+        return built.result();
+    }
+}
@@ -0,0 +1,87 @@
+package com.example.periodtracker.core;
+
+import java.util.Arrays;
+
+/**
+ * Projects period, fertile and ovulation days onto any calendar month.
+ *
+ * Months up to the latest logged start come from the logged history: every
+ * logged start is a period, and the fertile window and ovulation day are
+ * counted back from the start that ended each cycle. Later months repeat the
+ * predicted cycle length from the latest start. Only the cycles that can touch
+ * the requested month are visited, so the cost of a month does not depend on
+ * how far it is from today. Instances are immutable and thread-safe.
+ */
+public final class CycleCalendar {
+
+    /** Days before a period start that still belong to the cycle it ends. */
+    private static final int REACH_BEFORE_START =
+            CyclePredictionEngine.LUTEAL_PHASE + CyclePredictionEngine.FERTILE_DAYS_BEFORE_OVULATION;
+
+    private final int[] starts;
+    private final int cycleLength;
+
+    /**
+     * @param loggedStarts logged period starts in ascending order; must not be empty
+     * @param cycleLength  predicted length of the cycles after the latest start
+     */
+    public CycleCalendar(int[] loggedStarts, int cycleLength) {
+        if (loggedStarts.length == 0) {
+            throw new IllegalArgumentException("No period start recorded");
+        }
+        if (cycleLength <= 0) {
+            throw new IllegalArgumentException("cycleLength must be positive: " + cycleLength);
+        }
+        this.starts = loggedStarts.clone();
+        this.cycleLength = cycleLength;
+    }
+
+    public int lastStart() {
+        return starts[starts.length - 1];
+    }
+
+    public int cycleLength() {
+        return cycleLength;
+    }
+
+    /** Day states of one month; {@code month} is 1-12. */
+    public DayStateTable month(int year, int month) {
+        int first = EpochDays.of(year, month, 1);
+        int last = first + EpochDays.lengthOfMonth(year, month) - 1;
+        // A cycle touches the month if its ending start lies in this window
+        int minStart = first - CyclePredictionEngine.PERIOD_LENGTH + 1;
+        int maxStart = last + REACH_BEFORE_START;
+
+        DayStateTable.Builder builder = new DayStateTable.Builder(first, last);
+
+        int i = Arrays.binarySearch(starts, minStart);
+        if (i < 0) i = -i - 1;
+        for (; i < starts.length && starts[i] <= maxStart; i++) {
+            builder.mark(CyclePredictionEngine.period(starts[i]), DayStateTable.PERIOD);
+            int length = i > 0 ? starts[i] - starts[i - 1] : 0;
+            // Skip the fertile window of gaps that are not a real cycle, e.g. a missed log
+            if (length >= CycleStatistics.MIN_CYCLE_LENGTH && length <= CycleStatistics.MAX_CYCLE_LENGTH) {
+                markCycleEnd(builder, starts[i]);
+            }
+        }
+
+        int lastStart = lastStart();
+        // First predicted start (k >= 1) on or after minStart
+        int k = Math.max(1, -Math.floorDiv(lastStart - minStart, cycleLength));
+        for (int start = lastStart + k * cycleLength; start <= maxStart; start += cycleLength) {
+            builder.mark(CyclePredictionEngine.period(start), DayStateTable.PERIOD);
+            markCycleEnd(builder, start);
+        }
+
+        return builder.build();
+    }
+
+    /** Marks the fertile window and ovulation day of the cycle ending at {@code nextStart}. */
+    private static void markCycleEnd(DayStateTable.Builder builder, int nextStart) {
+        int ovulation = nextStart - CyclePredictionEngine.LUTEAL_PHASE;
+        builder.mark(CyclePredictionEngine.range(
+                ovulation - CyclePredictionEngine.FERTILE_DAYS_BEFORE_OVULATION, ovulation),
+                DayStateTable.FERTILE);
+        builder.mark(CyclePredictionEngine.range(ovulation, ovulation), DayStateTable.OVULATION);
+    }
+}
@@ -0,0 +1,84 @@
+package com.example.periodtracker.core;
+
+/**
+ * Immutable projection of the next few cycles produced by {@link CyclePredictor}.
+ *
+ * Cycle {@code i} ends the day before {@link #predictedStart(int)}; cycle 0 is the
+ * one that began on {@link #lastStart()}. Each predicted start comes with a
+ * confidence band of plus or minus {@link #bandDays(int)} days.
+ */
+public final class CycleForecast {
+
+    private final int lastStart;
+    private final int cycleLength;
+    private final double stdDev;
+    private final int[] starts;
+    private final int[] bands;
+
+    CycleForecast(int lastStart, int cycleLength, double stdDev, int[] starts, int[] bands) {
+        this.lastStart = lastStart;
+        this.cycleLength = cycleLength;
+        this.stdDev = stdDev;
+        this.starts = starts;
+        this.bands = bands;
+    }
+
+    /** Latest logged period start. */
+    public int lastStart() {
+        return lastStart;
+    }
+
+    /** Predicted cycle length in days. */
+    public int cycleLength() {
+        return cycleLength;
+    }
+
+    /** Spread of the observed cycle lengths, in days. */
+    public double stdDev() {
+        return stdDev;
+    }
+
+    /** Number of predicted cycles. */
+    public int size() {
+        return starts.length;
+    }
+
+    public int predictedStart(int i) {
+        return starts[i];
+    }
+
+    /** Half-width of the confidence band around {@link #predictedStart(int)}. */
+    public int bandDays(int i) {
+        return bands[i];
+    }
+
+    public int earliestStart(int i) {
+        return starts[i] - bands[i];
+    }
+
+    public int latestStart(int i) {
+        return starts[i] + bands[i];
+    }
+
+    /** First day of cycle {@code i}. */
+    public int cycleStart(int i) {
+        return i == 0 ? lastStart : starts[i - 1];
+    }
+
+    /** Predicted ovulation day of cycle {@code i}. */
+    public int ovulationDay(int i) {
+        return starts[i] - CyclePredictionEngine.LUTEAL_PHASE;
+    }
+
+    /** Predicted fertile window of cycle {@code i}, packed as in {@link CyclePredictionEngine}. */
+    public long fertileWindow(int i) {
+        int ovulation = ovulationDay(i);
+        return CyclePredictionEngine.range(
+                ovulation - CyclePredictionEngine.FERTILE_DAYS_BEFORE_OVULATION, ovulation);
+    }
+
+    /** Predicted period days of the period that ends cycle {@code i}. */
+    public long period(int i) {
+        return CyclePredictionEngine.period(starts[i]);
+    }
+}
@@ -0,0 +1,65 @@
+package com.example.periodtracker.core;
+
+/**
+ * Cycle predictions over epoch days.
+ *
+ * Ranges are returned packed into a single {@code long} (see {@link #range(int, int)})
+ * so predictions can be computed without allocating. Use {@link #rangeStart(long)} and
+ * {@link #rangeEnd(long)} to unpack them; both ends are inclusive.
+ */
+public final class CyclePredictionEngine {
+
+    /** Number of days marked as period days from each period start. */
+    public static final int PERIOD_LENGTH = 5;
+
+    /** Ovulation is assumed to fall this many days before the next period. */
+    public static final int LUTEAL_PHASE = 14;
+
+    /** The fertile window opens this many days before ovulation. */
+    public static final int FERTILE_DAYS_BEFORE_OVULATION = 5;
+
+    private CyclePredictionEngine() {
+    }
+
+    public static long range(int start, int endInclusive) {
+        return ((long) start << 32) | (endInclusive & 0xFFFFFFFFL);
+    }
+
+    public static int rangeStart(long range) {
+        return (int) (range >> 32);
+    }
+
+    public static int rangeEnd(long range) {
+        return (int) range;
+    }
+
+    public static boolean rangeContains(long range, int epochDay) {
+        return epochDay >= rangeStart(range) && epochDay <= rangeEnd(range);
+    }
+
+    /** Period days of the cycle starting on {@code cycleStart}. */
+    public static long period(int cycleStart) {
+        return range(cycleStart, cycleStart + PERIOD_LENGTH - 1);
+    }
+
+    /** Period days of the cycle after the one starting on {@code cycleStart}. */
+    public static long nextPeriod(int cycleStart, int cycleLength) {
+        return period(cycleStart + cycleLength);
+    }
+
+    /** Predicted ovulation day of the cycle starting on {@code cycleStart}. */
+    public static int ovulationDay(int cycleStart, int cycleLength) {
+        return cycleStart + cycleLength - LUTEAL_PHASE;
+    }
+
+    /** Fertile window of the cycle starting on {@code cycleStart}, ending on ovulation day. */
+    public static long fertileWindow(int cycleStart, int cycleLength) {
+        int ovulation = ovulationDay(cycleStart, cycleLength);
+        return range(ovulation - FERTILE_DAYS_BEFORE_OVULATION, ovulation);
+    }
+
+    /** Days from {@code today} until the next period; negative when it is late. */
+    public static int daysUntilNextPeriod(int cycleStart, int cycleLength, int today) {
+        return cycleStart + cycleLength - today;
+    }
+}
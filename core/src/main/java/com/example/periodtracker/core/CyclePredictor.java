@@ -0,0 +1,90 @@
+package com.example.periodtracker.core;
+
+/**
+ * History-aware cycle predictor.
+ *
+ * Feeds every logged period start into {@link CycleStatistics} and projects the
+ * next cycles from the weighted average length. Until one cycle has been
+ * observed it falls back to the cycle length the user entered in their
+ * profile, and until two have been it assumes {@link #DEFAULT_STD_DEV}, since
+ * a single cycle has no measurable spread.
+ */
+public final class CyclePredictor {
+
+    /** Weight of the newest cycle in the moving average. */
+    public static final double DEFAULT_ALPHA = 0.3;
+
+    /** Assumed spread while there is not enough history to measure it. */
+    public static final double DEFAULT_STD_DEV = 2.0;
+
+    /** z-score of the reported confidence band (80%). */
+    private static final double BAND_Z = 1.2816;
+
+    private final CycleStatistics statistics = new CycleStatistics(DEFAULT_ALPHA);
+    private int priorCycleLength;
+
+    public CyclePredictor(int priorCycleLength) {
+        this.priorCycleLength = priorCycleLength;
+    }
+
+    /** Updates the length used before enough history exists, e.g. after a settings change. */
+    public void setPriorCycleLength(int priorCycleLength) {
+        this.priorCycleLength = priorCycleLength;
+    }
+
+    /**
+     * Records a logged period start in O(1). Starts must arrive in order.
+     *
+     * @return true if the start was new
+     */
+    public boolean addPeriodStart(int epochDay) {
+        return statistics.addPeriodStart(epochDay);
+    }
+
+    public void clear() {
+        statistics.clear();
+    }
+
+    public CycleStatistics statistics() {
+        return statistics;
+    }
+
+    /** Predicted cycle length in whole days. */
+    public int predictedCycleLength() {
+        if (statistics.cycleCount() == 0) return priorCycleLength;
+        return (int) Math.round(statistics.weightedMean());
+    }
+
+    public double stdDev() {
+        return statistics.cycleCount() < 2 ? DEFAULT_STD_DEV : statistics.stdDev();
+    }
+
+    /** Predicted start of the {@code k}-th period after the latest one (k starting at 0). */
+    public int predictedStart(int k) {
+        return statistics.lastStart() + (k + 1) * predictedCycleLength();
+    }
+
+    /** Half-width of the confidence band around {@link #predictedStart(int)}; widens with k. */
+    public int bandDays(int k) {
+        return (int) Math.ceil(BAND_Z * stdDev() * Math.sqrt(k + 1));
+    }
+
+    /**
+     * Projects the next {@code cycles} period starts.
+     *
+     * @throws IllegalStateException if no period start has been recorded
+     */
+    public CycleForecast forecast(int cycles) {
+        if (statistics.startCount() == 0) {
+            throw new IllegalStateException("No period start recorded");
+        }
+        int[] starts = new int[cycles];
+        int[] bands = new int[cycles];
+        for (int k = 0; k < cycles; k++) {
+            starts[k] = predictedStart(k);
+            bands[k] = bandDays(k);
+        }
+        return new CycleForecast(statistics.lastStart(), predictedCycleLength(), stdDev(),
+                starts, bands);
+    }
+}
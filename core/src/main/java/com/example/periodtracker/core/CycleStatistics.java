@@ -0,0 +1,105 @@
+package com.example.periodtracker.core;
+
+/**
+ * Running statistics over the cycle lengths between consecutive period starts.
+ *
+ * Mean and variance use Welford's algorithm and the weighted average is an
+ * exponential moving average, so logging a new start is O(1) and never rescans
+ * the history.
+ */
+public final class CycleStatistics {
+
+    /** Shorter gaps are treated as logging noise rather than a cycle. */
+    public static final int MIN_CYCLE_LENGTH = 15;
+
+    /** Longer gaps usually mean a missed log, so they are not counted as a cycle. */
+    public static final int MAX_CYCLE_LENGTH = 60;
+
+    private final double alpha;
+
+    private int lastStart = EpochDays.INVALID;
+    private int startCount;
+    private int cycleCount;
+    private double mean;
+    private double m2;
+    private double ewma;
+
+    /**
+     * @param alpha weight of the newest cycle in the exponential average, in (0, 1]
+     */
+    public CycleStatistics(double alpha) {
+        if (alpha <= 0 || alpha > 1) {
+            throw new IllegalArgumentException("alpha must be in (0, 1]: " + alpha);
+        }
+        this.alpha = alpha;
+    }
+
+    /**
+     * Records a new period start. Starts must arrive in chronological order;
+     * one on or before the latest recorded start is ignored.
+     *
+     * @return true if the start was recorded
+     */
+    public boolean addPeriodStart(int epochDay) {
+        if (lastStart != EpochDays.INVALID && epochDay <= lastStart) return false;
+
+        if (lastStart != EpochDays.INVALID) {
+            int length = epochDay - lastStart;
+            if (length >= MIN_CYCLE_LENGTH && length <= MAX_CYCLE_LENGTH) {
+                addCycleLength(length);
+            }
+        }
+        lastStart = epochDay;
+        startCount++;
+        return true;
+    }
+
+    private void addCycleLength(int length) {
+        cycleCount++;
+        double delta = length - mean;
+        mean += delta / cycleCount;
+        m2 += delta * (length - mean);
+        ewma = cycleCount == 1 ? length : alpha * length + (1 - alpha) * ewma;
+    }
+
+    public void clear() {
+        lastStart = EpochDays.INVALID;
+        startCount = 0;
+        cycleCount = 0;
+        mean = 0;
+        m2 = 0;
+        ewma = 0;
+    }
+
+    /** Latest recorded period start, or {@link EpochDays#INVALID} if none. */
+    public int lastStart() {
+        return lastStart;
+    }
+
+    /** Number of period starts recorded. */
+    public int startCount() {
+        return startCount;
+    }
+
+    /** Number of cycle lengths that contributed to the statistics. */
+    public int cycleCount() {
+        return cycleCount;
+    }
+
+    public double mean() {
+        return mean;
+    }
+
+    /** Sample variance; zero until two cycles have been seen. */
+    public double variance() {
+        return cycleCount > 1 ? m2 / (cycleCount - 1) : 0;
+    }
+
+    public double stdDev() {
+        return Math.sqrt(variance());
+    }
+
+    public double weightedMean() {
+        return ewma;
+    }
+}
@@ -0,0 +1,94 @@
+package com.example.periodtracker.core;
+
+/**
+ * Cycle state of every day in a span of months, one byte per day.
+ *
+ * Months are indexed by {@code year * 12 + month - 1}, so a calendar cell is
+ * classified with two array loads straight from its year, month and day, with
+ * no date objects and no hashing. Each byte is a mask of {@link #PERIOD},
+ * {@link #FERTILE} and {@link #OVULATION}; a day can carry more than one.
+ */
+public final class DayStateTable {
+
+    public static final int PERIOD = 1;
+    public static final int FERTILE = 1 << 1;
+    public static final int OVULATION = 1 << 2;
+
+    /** Table with no marked days. */
+    public static final DayStateTable EMPTY = new DayStateTable(0, new byte[0][]);
+
+    private final int firstMonth;
+    private final byte[][] months;
+
+    private DayStateTable(int firstMonth, byte[][] months) {
+        this.firstMonth = firstMonth;
+        this.months = months;
+    }
+
+    /** Index of a month in the table's key space; {@code month} is 1-12. */
+    public static int monthIndex(int year, int month) {
+        return year * 12 + month - 1;
+    }
+
+    /** State mask for a date; {@code month} is 1-12. Days outside the table are 0. */
+    public int get(int year, int month, int dayOfMonth) {
+        int i = monthIndex(year, month) - firstMonth;
+        if (i < 0 || i >= months.length) return 0;
+        return months[i][dayOfMonth - 1];
+    }
+
+    /** True if the table holds {@code month} of {@code year}, marked or not. */
+    public boolean covers(int year, int month) {
+        int i = monthIndex(year, month) - firstMonth;
+        return i >= 0 && i < months.length;
+    }
+
+    public int get(int epochDay) {
+        return get(EpochDays.year(epochDay), EpochDays.month(epochDay),
+                EpochDays.dayOfMonth(epochDay));
+    }
+
+    /** Number of days carrying {@code state}. */
+    public int count(int state) {
+        int count = 0;
+        for (byte[] month : months) {
+            for (byte day : month) {
+                if ((day & state) != 0) count++;
+            }
+        }
+        return count;
+    }
+
+    /** Collects marks for the months spanning {@code firstDay..lastDay}. */
+    public static final class Builder {
+
+        private final int firstMonth;
+        private final byte[][] months;
+
+        public Builder(int firstDay, int lastDay) {
+            firstMonth = monthIndex(EpochDays.year(firstDay), EpochDays.month(firstDay));
+            int lastMonth = monthIndex(EpochDays.year(lastDay), EpochDays.month(lastDay));
+            months = new byte[Math.max(0, lastMonth - firstMonth + 1)][];
+            for (int i = 0; i < months.length; i++) {
+                int month = firstMonth + i;
+                months[i] = new byte[EpochDays.lengthOfMonth(Math.floorDiv(month, 12),
+                        Math.floorMod(month, 12) + 1)];
+            }
+        }
+
+        /** Adds {@code state} to every day of the packed range that falls inside the table. */
+        public Builder mark(long range, int state) {
+            int end = CyclePredictionEngine.rangeEnd(range);
+            for (int day = CyclePredictionEngine.rangeStart(range); day <= end; day++) {
+                int i = monthIndex(EpochDays.year(day), EpochDays.month(day)) - firstMonth;
+                if (i < 0 || i >= months.length) continue;
+                months[i][EpochDays.dayOfMonth(day) - 1] |= (byte) state;
+            }
+            return this;
+        }
+
+        public DayStateTable build() {
+            return new DayStateTable(firstMonth, months);
+        }
+    }
+}
@@ -0,0 +1,149 @@
+package com.example.periodtracker.core;
+
+import java.util.TimeZone;
+
+/**
+ * Calendar arithmetic on plain {@code int} epoch days (days since 1970-01-01).
+ *
+ * Nothing here allocates, so it is safe to call from binding and
+ * decoration code that runs for every visible day.
+ */
+public final class EpochDays {
+
+    /** Returned by {@link #parseIsoDate(CharSequence)} for malformed input. */
+    public static final int INVALID = Integer.MIN_VALUE;
+
+    private static final long MILLIS_PER_DAY = 86_400_000L;
+
+    private EpochDays() {
+    }
+
+    /** Epoch day for a proleptic Gregorian date; {@code month} is 1-12. */
+    public static int of(int year, int month, int dayOfMonth) {
+        // Howard Hinnant's days_from_civil
+        int y = month <= 2 ? year - 1 : year;
+        int era = Math.floorDiv(y, 400);
+        int yoe = y - era * 400;
+        int mp = (month + 9) % 12;
+        int doy = (153 * mp + 2) / 5 + dayOfMonth - 1;
+        int doe = yoe * 365 + yoe / 4 - yoe / 100 + doy;
+        return era * 146097 + doe - 719468;
+    }
+
+    /**
+     * Parses the {@code yyyy-MM-dd} keys and dates the app writes to Firebase.
+     *
+     * @return the epoch day, or {@link #INVALID} if the text is not a valid date
+     */
+    public static int parseIsoDate(CharSequence text) {
+        if (text == null || text.length() != 10
+                || text.charAt(4) != '-' || text.charAt(7) != '-') {
+            return INVALID;
+        }
+        int year = digits(text, 0, 4);
+        int month = digits(text, 5, 7);
+        int day = digits(text, 8, 10);
+        if (year < 0 || month < 1 || month > 12 || day < 1 || day > lengthOfMonth(year, month)) {
+            return INVALID;
+        }
+        return of(year, month, day);
+    }
+
+    /** Formats an epoch day as {@code yyyy-MM-dd}. */
+    public static String formatIso(int epochDay) {
+        int year = year(epochDay);
+        int month = month(epochDay);
+        int day = dayOfMonth(epochDay);
+        char[] out = new char[10];
+        out[0] = (char) ('0' + year / 1000 % 10);
+        out[1] = (char) ('0' + year / 100 % 10);
+        out[2] = (char) ('0' + year / 10 % 10);
+        out[3] = (char) ('0' + year % 10);
+        out[4] = '-';
+        out[5] = (char) ('0' + month / 10);
+        out[6] = (char) ('0' + month % 10);
+        out[7] = '-';
+        out[8] = (char) ('0' + day / 10);
+        out[9] = (char) ('0' + day % 10);
+        return new String(out);
+    }
+
+    public static int year(int epochDay) {
+        int z = epochDay + 719468;
+        int era = Math.floorDiv(z, 146097);
+        int doe = z - era * 146097;
+        int yoe = (doe - doe / 1460 + doe / 36524 - doe / 146096) / 365;
+        int doy = doe - (365 * yoe + yoe / 4 - yoe / 100);
+        int mp = (5 * doy + 2) / 153;
+        return yoe + era * 400 + (mp >= 10 ? 1 : 0);
+    }
+
+    /** Month of year, 1-12. */
+    public static int month(int epochDay) {
+        int doy = dayOfEra(epochDay);
+        int mp = (5 * doy + 2) / 153;
+        return mp < 10 ? mp + 3 : mp - 9;
+    }
+
+    public static int dayOfMonth(int epochDay) {
+        int doy = dayOfEra(epochDay);
+        int mp = (5 * doy + 2) / 153;
+        return doy - (153 * mp + 2) / 5 + 1;
+    }
+
+    public static int lengthOfMonth(int year, int month) {
+        switch (month) {
+            case 2:
+                boolean leap = (year % 4 == 0 && year % 100 != 0) || year % 400 == 0;
+                return leap ? 29 : 28;
+            case 4:
+            case 6:
+            case 9:
+            case 11:
+                return 30;
+            default:
+                return 31;
+        }
+    }
+
+    /** Today's epoch day in the given time zone. */
+    public static int today(TimeZone zone) {
+        long now = System.currentTimeMillis();
+        return (int) Math.floorDiv(now + zone.getOffset(now), MILLIS_PER_DAY);
+    }
+
+    /** Today's epoch day in the device's default time zone. */
+    public static int today() {
+        return today(TimeZone.getDefault());
+    }
+
+    /** Current local wall-clock time as seconds since 1970-01-01T00:00 in the given zone. */
+    public static long localEpochSecond(TimeZone zone) {
+        long now = System.currentTimeMillis();
+        return Math.floorDiv(now + zone.getOffset(now), 1000L);
+    }
+
+    /** Current local wall-clock time as seconds since 1970-01-01T00:00 in the default zone. */
+    public static long localEpochSecond() {
+        return localEpochSecond(TimeZone.getDefault());
+    }
+
+    /** Day of the March-based year, 0-365, shared by the month/day decoders. */
+    private static int dayOfEra(int epochDay) {
+        int z = epochDay + 719468;
+        int era = Math.floorDiv(z, 146097);
+        int doe = z - era * 146097;
+        int yoe = (doe - doe / 1460 + doe / 36524 - doe / 146096) / 365;
+        return doe - (365 * yoe + yoe / 4 - yoe / 100);
+    }
+
+    private static int digits(CharSequence text, int from, int to) {
+        int value = 0;
+        for (int i = from; i < to; i++) {
+            char c = text.charAt(i);
+            if (c < '0' || c > '9') return -1;
+            value = value * 10 + (c - '0');
+        }
+        return value;
+    }
+}
@@ -0,0 +1,39 @@
+package com.example.periodtracker.core;
+
+import java.util.Locale;
+
+/**
+ * Turns what the user typed into an SQLite FTS4 MATCH expression.
+ *
+ * Every word becomes a prefix term and all of them must match, so "cra hea"
+ * finds entries with cramps and a headache. Anything other than letters and
+ * digits separates words, which also keeps FTS operators and quotes out of
+ * the expression; words are lowercased so AND, OR and NOT stay plain words.
+ */
+public final class FtsQuery {
+
+    private FtsQuery() {
+    }
+
+    /** The MATCH expression for {@code input}, or {@code null} if it has no words. */
+    public static String prefixMatch(String input) {
+        if (input == null) return null;
+        StringBuilder match = new StringBuilder();
+        int i = 0;
+        int n = input.length();
+        while (i < n) {
+            while (i < n && !Character.isLetterOrDigit(input.codePointAt(i))) {
+                i += Character.charCount(input.codePointAt(i));
+            }
+            int start = i;
+            while (i < n && Character.isLetterOrDigit(input.codePointAt(i))) {
+                i += Character.charCount(input.codePointAt(i));
+            }
+            if (i > start) {
+                if (match.length() > 0) match.append(' ');
+                match.append(input.substring(start, i).toLowerCase(Locale.ROOT)).append('*');
+            }
+        }
+        return match.length() == 0 ? null : match.toString();
+    }
+}
@@ -0,0 +1,94 @@
+package com.example.periodtracker.core;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.RandomAccess;
+
+/**
+ * The history entries loaded so far, one per day, newest first.
+ *
+ * Kept as parallel arrays sorted by epoch day, so adding, replacing or
+ * removing one day is a binary search plus at most one array shift, and a
+ * synced change touches only its own row instead of reloading the list.
+ * Not thread-safe.
+ */
+public final class HistoryIndex {
+
+    /** Ascending; slot i holds the entry for days[i]. */
+    private int[] days = new int[16];
+    private SymptomEntry[] entries = new SymptomEntry[16];
+    private int size;
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Adds the entry, or replaces the one for the same day.
+     *
+     * @return false if an equal entry was already there
+     */
+    public boolean put(SymptomEntry entry) {
+        int day = entry.epochDay();
+        int i = Arrays.binarySearch(days, 0, size, day);
+        if (i >= 0) {
+            if (entries[i].equals(entry)) return false;
+            entries[i] = entry;
+            return true;
+        }
+        i = -i - 1;
+        if (size == days.length) {
+            days = Arrays.copyOf(days, size * 2);
+            entries = Arrays.copyOf(entries, size * 2);
+        }
+        System.arraycopy(days, i, days, i + 1, size - i);
+        System.arraycopy(entries, i, entries, i + 1, size - i);
+        days[i] = day;
+        entries[i] = entry;
+        size++;
+        return true;
+    }
+
+    /** @return false if the day was not loaded */
+    public boolean remove(int epochDay) {
+        int i = Arrays.binarySearch(days, 0, size, epochDay);
+        if (i < 0) return false;
+        System.arraycopy(days, i + 1, days, i, size - i - 1);
+        System.arraycopy(entries, i + 1, entries, i, size - i - 1);
+        entries[--size] = null;
+        return true;
+    }
+
+    /** Epoch day of the oldest loaded entry, or {@link Integer#MAX_VALUE} if empty. */
+    public int oldestDay() {
+        return size == 0 ? Integer.MAX_VALUE : days[0];
+    }
+
+    /** An immutable newest-first copy, e.g. for a ListAdapter to diff against the last one. */
+    public List<SymptomEntry> snapshot() {
+        SymptomEntry[] copy = new SymptomEntry[size];
+        for (int i = 0; i < size; i++) {
+            copy[i] = entries[size - 1 - i];
+        }
+        return new Snapshot(copy);
+    }
+
+    private static final class Snapshot extends AbstractList<SymptomEntry> implements RandomAccess {
+        private final SymptomEntry[] entries;
+
+        Snapshot(SymptomEntry[] entries) {
+            this.entries = entries;
+        }
+
+        @Override
+        public SymptomEntry get(int index) {
+            return entries[index];
+        }
+
+        @Override
+        public int size() {
+            return entries.length;
+        }
+    }
+}
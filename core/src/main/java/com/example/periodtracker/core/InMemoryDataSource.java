@@ -0,0 +1,494 @@
+package com.example.periodtracker.core;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Queue;
+import java.util.Random;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * {@link TrackerDataSource} over an in-memory tree, for JVM tests and
+ * benchmarks.
+ *
+ * Every call completes after the configured latency plus a uniformly
+ * distributed jitter, and one-shot reads and writes fail with an
+ * {@link IOException} at the configured rate. Delays and failures are drawn
+ * from a seeded {@link Random} in call order, so a single-threaded caller
+ * sees the same sequence on every run. Reads see the tree as it is when
+ * they complete. Observers get every change in order, like Firebase
+ * listeners, and never fail.
+ *
+ * Work runs on one scheduler thread; callbacks run on the executor given to
+ * the constructor, or on that thread. Call {@link #shutdown()} when done.
+ */
+public final class InMemoryDataSource implements TrackerDataSource {
+
+    /** Marks an {@link #increment(long)} value inside an update. */
+    private static final class Increment {
+        final long delta;
+
+        Increment(long delta) {
+            this.delta = delta;
+        }
+    }
+
+    private static final Object SERVER_TIMESTAMP = new Object();
+
+    private final Object lock = new Object();
+    private final NavigableMap<String, Object> root = new TreeMap<>();
+    private final List<Watch> watches = new CopyOnWriteArrayList<>();
+    private final ScheduledExecutorService scheduler =
+            Executors.newSingleThreadScheduledExecutor(r -> {
+                Thread thread = new Thread(r, "in-memory-db");
+                thread.setDaemon(true);
+                return thread;
+            });
+    private final Executor callbackExecutor;
+    private final AtomicLong calls = new AtomicLong();
+
+    // Guarded by lock
+    private final Random random;
+    private long latencyMillis;
+    private long jitterMillis;
+    private double failureRate;
+
+    /** Callbacks run on the scheduler thread. */
+    public InMemoryDataSource(long seed) {
+        this(seed, null);
+    }
+
+    /** Callbacks run on {@code callbackExecutor}, e.g. the Android main thread. */
+    public InMemoryDataSource(long seed, Executor callbackExecutor) {
+        this.random = new Random(seed);
+        this.callbackExecutor = callbackExecutor != null ? callbackExecutor : Runnable::run;
+    }
+
+    /** Every call takes {@code latencyMillis} plus up to {@code jitterMillis} more. */
+    public void setLatency(long latencyMillis, long jitterMillis) {
+        if (latencyMillis < 0 || jitterMillis < 0) {
+            throw new IllegalArgumentException("Latency must not be negative");
+        }
+        synchronized (lock) {
+            this.latencyMillis = latencyMillis;
+            this.jitterMillis = jitterMillis;
+        }
+    }
+
+    /** Share of one-shot reads and writes, 0-1, that fail. */
+    public void setFailureRate(double failureRate) {
+        if (failureRate < 0 || failureRate > 1) {
+            throw new IllegalArgumentException("failureRate must be in [0, 1]: " + failureRate);
+        }
+        synchronized (lock) {
+            this.failureRate = failureRate;
+        }
+    }
+
+    /** Reads, writes and observer deliveries made so far. */
+    public long callCount() {
+        return calls.get();
+    }
+
+    /** Writes {@code value} at {@code path} immediately, without latency or failures. */
+    public void seed(String path, Object value) {
+        synchronized (lock) {
+            set(path, value);
+        }
+    }
+
+    public void shutdown() {
+        scheduler.shutdownNow();
+    }
+
+    @Override
+    public Subscription observeUser(String uid, Callback<Node> callback) {
+        return observe("users/" + uid, callback);
+    }
+
+    @Override
+    public Subscription observeSummary(String uid, Callback<Node> callback) {
+        return observe("summary/" + uid, callback);
+    }
+
+    @Override
+    public void getUser(String uid, Callback<Node> callback) {
+        read("users/" + uid, callback);
+    }
+
+    @Override
+    public void getSummary(String uid, Callback<Node> callback) {
+        read("summary/" + uid, callback);
+    }
+
+    @Override
+    public void getSymptoms(String uid, Callback<Node> callback) {
+        read("symptoms/" + uid, callback);
+    }
+
+    @Override
+    public void getSymptomRange(String uid, String firstKey, String lastKey,
+                                Callback<Node> callback) {
+        run(callback, () -> {
+            SortedMap<String, Object> days = childrenAt("symptoms/" + uid);
+            if (firstKey.compareTo(lastKey) > 0) return new MapNode(null);
+            return new MapNode(copy(days.subMap(firstKey, lastKey + '\0')));
+        });
+    }
+
+    @Override
+    public void getSymptomsThrough(String uid, String lastKey, int limit,
+                                   Callback<Node> callback) {
+        run(callback, () -> {
+            SortedMap<String, Object> days = childrenAt("symptoms/" + uid);
+            if (lastKey != null) days = days.headMap(lastKey + '\0');
+            List<String> keys = new ArrayList<>(days.keySet());
+            TreeMap<String, Object> page = new TreeMap<>();
+            for (String key : keys.subList(Math.max(0, keys.size() - limit), keys.size())) {
+                page.put(key, days.get(key));
+            }
+            return new MapNode(copy(page));
+        });
+    }
+
+    @Override
+    public void update(Map<String, Object> updates, Callback<Void> callback) {
+        run(callback, () -> {
+            for (Map.Entry<String, Object> update : updates.entrySet()) {
+                Object value = update.getValue();
+                if (value instanceof Increment) {
+                    Object current = get(update.getKey());
+                    long base = current instanceof Number ? ((Number) current).longValue() : 0;
+                    value = base + ((Increment) value).delta;
+                } else if (value == SERVER_TIMESTAMP) {
+                    value = System.currentTimeMillis();
+                }
+                set(update.getKey(), value);
+            }
+            notifyWatches(updates.keySet());
+            return null;
+        });
+    }
+
+    @Override
+    public Object increment(long delta) {
+        return new Increment(delta);
+    }
+
+    @Override
+    public Object serverTimestamp() {
+        return SERVER_TIMESTAMP;
+    }
+
+    @Override
+    public void initialize(String path, String markerKey, Map<String, Object> value,
+                           Callback<Boolean> callback) {
+        run(callback, () -> {
+            if (get(path + '/' + markerKey) != null) return false;
+            set(path, value);
+            notifyWatches(Collections.singleton(path));
+            return true;
+        });
+    }
+
+    private void read(String path, Callback<Node> callback) {
+        run(callback, () -> new MapNode(copy(get(path))));
+    }
+
+    private interface Operation<T> {
+        /** Runs under {@link #lock}. */
+        T apply();
+    }
+
+    /** Completes {@code operation} after the drawn delay, or fails it if so drawn. */
+    private <T> void run(Callback<T> callback, Operation<T> operation) {
+        long delay;
+        boolean fail;
+        synchronized (lock) {
+            delay = nextDelay();
+            fail = failureRate > 0 && random.nextDouble() < failureRate;
+        }
+        calls.incrementAndGet();
+        scheduler.schedule(() -> {
+            if (fail) {
+                callbackExecutor.execute(() ->
+                        callback.onFailure(new IOException("Injected failure")));
+                return;
+            }
+            T result;
+            try {
+                synchronized (lock) {
+                    result = operation.apply();
+                }
+            } catch (RuntimeException e) {
+                callbackExecutor.execute(() -> callback.onFailure(e));
+                return;
+            }
+            callbackExecutor.execute(() -> callback.onSuccess(result));
+        }, delay, TimeUnit.MILLISECONDS);
+    }
+
+    private Subscription observe(String path, Callback<Node> callback) {
+        return register(new ValueWatch(path, callback));
+    }
+
+    @Override
+    public Subscription observeSymptomsSince(String uid, Long sinceUpdatedAt,
+                                             ChildListener listener) {
+        return register(new ChildWatch("symptoms/" + uid, sinceUpdatedAt, listener));
+    }
+
+    private Subscription register(Watch watch) {
+        watches.add(watch);
+        synchronized (lock) {
+            watch.start();
+        }
+        return () -> {
+            watch.removed = true;
+            watches.remove(watch);
+        };
+    }
+
+    /** Refreshes every watch on a path at, above or below one of {@code paths}. */
+    private void notifyWatches(Iterable<String> paths) {
+        for (Watch watch : watches) {
+            for (String path : paths) {
+                if (overlaps(watch.path, path)) {
+                    watch.refresh();
+                    break;
+                }
+            }
+        }
+    }
+
+    private static boolean overlaps(String a, String b) {
+        return a.equals(b) || a.startsWith(b + '/') || b.startsWith(a + '/');
+    }
+
+    /**
+     * One observer. Deliveries are queued and run strictly in order, whatever
+     * their jitter, like Firebase listener events.
+     */
+    private abstract class Watch {
+        final String path;
+        volatile boolean removed;
+        private final Queue<Runnable> queue = new ConcurrentLinkedQueue<>();
+        /** Guarded by lock. */
+        private long lastDeliveryAt;
+
+        Watch(String path) {
+            this.path = path;
+        }
+
+        /** Delivers the current state; called with {@link #lock} held. */
+        abstract void start();
+
+        /** Delivers what changed at {@link #path}; called with {@link #lock} held. */
+        abstract void refresh();
+
+        /** Call with {@link #lock} held. */
+        void schedule(Runnable delivery) {
+            long now = System.nanoTime();
+            long at = Math.max(lastDeliveryAt, now + TimeUnit.MILLISECONDS.toNanos(nextDelay()));
+            lastDeliveryAt = at;
+            calls.incrementAndGet();
+            queue.add(delivery);
+            scheduler.schedule(() -> {
+                Runnable next = queue.poll();
+                callbackExecutor.execute(() -> {
+                    if (!removed) next.run();
+                });
+            }, at - now, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    private final class ValueWatch extends Watch {
+        private final Callback<Node> callback;
+
+        ValueWatch(String path, Callback<Node> callback) {
+            super(path);
+            this.callback = callback;
+        }
+
+        @Override
+        void start() {
+            refresh();
+        }
+
+        @Override
+        void refresh() {
+            Node node = new MapNode(copy(get(path)));
+            schedule(() -> callback.onSuccess(node));
+        }
+    }
+
+    /** Child events of the days whose updatedAt is at or after {@link #since}. */
+    private final class ChildWatch extends Watch {
+        private final Long since;
+        private final ChildListener listener;
+        /** Copies of the children last delivered; the tree is updated in place. */
+        private SortedMap<String, Object> delivered = new TreeMap<>();
+
+        ChildWatch(String path, Long since, ChildListener listener) {
+            super(path);
+            this.since = since;
+            this.listener = listener;
+        }
+
+        @Override
+        void start() {
+            refresh();
+            schedule(listener::onCaughtUp);
+        }
+
+        @Override
+        void refresh() {
+            SortedMap<String, Object> current = new TreeMap<>();
+            for (Map.Entry<String, Object> child : childrenAt(path).entrySet()) {
+                Object updatedAt = child.getValue() instanceof Map
+                        ? ((Map<?, ?>) child.getValue()).get("updatedAt") : null;
+                if (since == null
+                        || (updatedAt instanceof Number && ((Number) updatedAt).longValue() >= since)) {
+                    current.put(child.getKey(), copy(child.getValue()));
+                }
+            }
+
+            List<Runnable> events = new ArrayList<>();
+            for (String key : delivered.keySet()) {
+                if (!current.containsKey(key)) events.add(() -> listener.onChildRemoved(key));
+            }
+            for (Map.Entry<String, Object> child : current.entrySet()) {
+                String key = child.getKey();
+                Object previous = delivered.get(key);
+                if (previous != null && previous.equals(child.getValue())) continue;
+                Node node = new MapNode(copy(child.getValue()));
+                events.add(previous == null
+                        ? () -> listener.onChildAdded(key, node)
+                        : () -> listener.onChildChanged(key, node));
+            }
+            delivered = current;
+            if (!events.isEmpty()) {
+                schedule(() -> {
+                    for (Runnable event : events) {
+                        event.run();
+                    }
+                });
+            }
+        }
+    }
+
+    /** Call with {@link #lock} held. */
+    private long nextDelay() {
+        return latencyMillis + (jitterMillis == 0 ? 0 : (long) (random.nextDouble() * jitterMillis));
+    }
+
+    private Object get(String path) {
+        Object node = root;
+        for (String key : path.split("/")) {
+            if (!(node instanceof Map)) return null;
+            node = ((Map<?, ?>) node).get(key);
+        }
+        return node;
+    }
+
+    @SuppressWarnings("unchecked")
+    private SortedMap<String, Object> childrenAt(String path) {
+        Object value = get(path);
+        return value instanceof Map ? (SortedMap<String, Object>) value : new TreeMap<>();
+    }
+
+    /** Replaces the value at {@code path}; {@code null} removes it and any parents left empty. */
+    @SuppressWarnings("unchecked")
+    private void set(String path, Object value) {
+        String[] keys = path.split("/");
+        Object stored = copy(value);
+        List<NavigableMap<String, Object>> parents = new ArrayList<>(keys.length);
+        NavigableMap<String, Object> node = root;
+        for (int i = 0; i < keys.length - 1; i++) {
+            if (keys[i].isEmpty()) throw new IllegalArgumentException("Bad path " + path);
+            parents.add(node);
+            Object child = node.get(keys[i]);
+            if (!(child instanceof NavigableMap)) {
+                if (stored == null) return;
+                child = new TreeMap<String, Object>();
+                node.put(keys[i], child);
+            }
+            node = (NavigableMap<String, Object>) child;
+        }
+        String leaf = keys[keys.length - 1];
+        if (leaf.isEmpty()) throw new IllegalArgumentException("Bad path " + path);
+        if (stored != null) {
+            node.put(leaf, stored);
+            return;
+        }
+        node.remove(leaf);
+        for (int i = keys.length - 2; i >= 0 && node.isEmpty(); i--) {
+            node = parents.get(i);
+            node.remove(keys[i]);
+        }
+    }
+
+    /**
+     * Deep copy in the shapes Firebase returns: maps become sorted maps,
+     * whole numbers become longs and empty maps disappear.
+     */
+    private static Object copy(Object value) {
+        if (value instanceof Map) {
+            TreeMap<String, Object> map = new TreeMap<>();
+            for (Map.Entry<?, ?> entry : ((Map<?, ?>) value).entrySet()) {
+                Object child = copy(entry.getValue());
+                if (child != null) map.put(entry.getKey().toString(), child);
+            }
+            return map.isEmpty() ? null : map;
+        }
+        if (value instanceof List) {
+            List<Object> list = new ArrayList<>();
+            for (Object item : (List<?>) value) {
+                list.add(copy(item));
+            }
+            return list.isEmpty() ? null : list;
+        }
+        if (value instanceof Integer || value instanceof Short || value instanceof Byte) {
+            return ((Number) value).longValue();
+        }
+        return value;
+    }
+
+    /** A read result; the value is already a private copy. */
+    private static final class MapNode implements Node {
+        private final Object value;
+
+        MapNode(Object value) {
+            this.value = value instanceof Map && ((Map<?, ?>) value).isEmpty() ? null : value;
+        }
+
+        @Override
+        public boolean exists() {
+            return value != null;
+        }
+
+        @Override
+        public Object value() {
+            return value;
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public SortedMap<String, Object> children() {
+            return value instanceof Map
+                    ? Collections.unmodifiableSortedMap((SortedMap<String, Object>) value)
+                    : Collections.emptySortedMap();
+        }
+    }
+}
@@ -0,0 +1,72 @@
+package com.example.periodtracker.core;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Bounded LRU of the months projected by a {@link CycleCalendar}.
+ *
+ * A month is computed the first time it is asked for, either by the calendar
+ * while drawing or ahead of time by {@link #prefetch(int, int)} on a
+ * background thread. The month read last is kept in a field, so classifying
+ * the days of the month on screen skips the map entirely.
+ */
+public final class MonthStateCache {
+
+    private final CycleCalendar calendar;
+    private final int maxMonths;
+    private final LinkedHashMap<Integer, DayStateTable> months;
+
+    /** Month returned by the previous lookup. */
+    private volatile DayStateTable lastMonth = DayStateTable.EMPTY;
+
+    public MonthStateCache(CycleCalendar calendar, int maxMonths) {
+        this.calendar = calendar;
+        this.maxMonths = maxMonths;
+        this.months = new LinkedHashMap<Integer, DayStateTable>(maxMonths + 1, 1f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Integer, DayStateTable> eldest) {
+                return size() > MonthStateCache.this.maxMonths;
+            }
+        };
+    }
+
+    public CycleCalendar calendar() {
+        return calendar;
+    }
+
+    /** State mask of one day; {@code month} is 1-12. */
+    public int get(int year, int month, int dayOfMonth) {
+        DayStateTable table = lastMonth;
+        if (!table.covers(year, month)) {
+            table = month(year, month);
+            lastMonth = table;
+        }
+        return table.get(year, month, dayOfMonth);
+    }
+
+    /** The month's table, projecting it now if it is not cached. */
+    public DayStateTable month(int year, int month) {
+        Integer key = DayStateTable.monthIndex(year, month);
+        synchronized (months) {
+            DayStateTable cached = months.get(key);
+            if (cached != null) return cached;
+        }
+        DayStateTable table = calendar.month(year, month);
+        synchronized (months) {
+            months.put(key, table);
+        }
+        return table;
+    }
+
+    /** Projects a month into the cache ahead of time; meant for a background thread. */
+    public void prefetch(int year, int month) {
+        month(year, month);
+    }
+
+    public int size() {
+        synchronized (months) {
+            return months.size();
+        }
+    }
+}
@@ -0,0 +1,44 @@
+package com.example.periodtracker.core;
+
+import java.util.Arrays;
+
+/**
+ * Edits of a sorted, duplicate-free array of period starts as epoch days.
+ * Arrays are never modified; a changed copy is returned.
+ */
+public final class PeriodStarts {
+
+    private PeriodStarts() {
+    }
+
+    /** {@code starts} with {@code day} inserted in order, or {@code starts} itself if present. */
+    public static int[] with(int[] starts, int day) {
+        int index = Arrays.binarySearch(starts, day);
+        if (index >= 0) return starts;
+        int insertAt = -index - 1;
+        int[] result = new int[starts.length + 1];
+        System.arraycopy(starts, 0, result, 0, insertAt);
+        result[insertAt] = day;
+        System.arraycopy(starts, insertAt, result, insertAt + 1, starts.length - insertAt);
+        return result;
+    }
+
+    /** {@code starts} without {@code day}, or {@code starts} itself if absent. */
+    public static int[] without(int[] starts, int day) {
+        int index = Arrays.binarySearch(starts, day);
+        if (index < 0) return starts;
+        int[] result = new int[starts.length - 1];
+        System.arraycopy(starts, 0, result, 0, index);
+        System.arraycopy(starts, index + 1, result, index, result.length - index);
+        return result;
+    }
+
+    /**
+     * True if changing the latest start from {@code previous} to {@code latest}
+     * corrects it rather than logging a new period: the new date is earlier,
+     * or too soon after it to be a cycle of its own.
+     */
+    public static boolean corrects(int previous, int latest) {
+        return previous != latest && latest - previous < CycleStatistics.MIN_CYCLE_LENGTH;
+    }
+}
@@ -0,0 +1,323 @@
+package com.example.periodtracker.core;
+
+import java.util.Arrays;
+
+/**
+ * Symptom and mood patterns across the logged history, relative to the cycle.
+ *
+ * Every logged day is placed in its cycle, from the logged period starts and,
+ * outside them, the predicted cycle length. Gaps between starts are read as
+ * {@link CycleStatistics} reads them: a start less than
+ * {@link CycleStatistics#MIN_CYCLE_LENGTH} days after the previous one is
+ * ignored, and a gap over {@link CycleStatistics#MAX_CYCLE_LENGTH} days is
+ * taken as missed logs and filled with predicted cycles. Each day is then
+ * counted into flat int arrays:
+ * symptom frequency per cycle day, mood per cycle phase, and the number of
+ * days each of the 64 possible symptom combinations was logged, from which
+ * the co-occurrence matrix is derived. Entries are kept one packed int per
+ * day, so {@link #put(SymptomEntry)} adjusts the counters for a single day
+ * and only a change of the period starts recounts everything, which for ten
+ * years of entries is a pass over 3,650 ints.
+ *
+ * Not thread-safe; {@link #result()} returns an immutable copy that is cached
+ * until the next change.
+ */
+public final class SymptomAnalytics {
+
+    public static final int PHASE_MENSTRUAL = 0;
+    public static final int PHASE_FOLLICULAR = 1;
+    public static final int PHASE_OVULATORY = 2;
+    public static final int PHASE_LUTEAL = 3;
+    public static final int PHASE_COUNT = 4;
+
+    /** Cycle days counted separately; days beyond it share the last slot. */
+    public static final int MAX_CYCLE_DAYS = 60;
+
+    private static final int SYMPTOMS = SymptomEntry.SYMPTOM_COUNT;
+    private static final int COMBINATIONS = 1 << SYMPTOMS;
+
+    // Packed day: presence bit, mood, flow and the symptom mask
+    private static final int PRESENT = 1 << 16;
+    private static final int MOOD_SHIFT = 8;
+    private static final int FLOW_SHIFT = 6;
+    private static final int SYMPTOM_MASK = COMBINATIONS - 1;
+
+    private int firstDay;
+    private int[] days = new int[0];
+    private int entryCount;
+
+    /** The starts as passed to {@link #setCycles}. */
+    private int[] loggedStarts = new int[0];
+    /** The logged starts less the ones too close to their predecessor. */
+    private int[] starts = new int[0];
+    private int cycleLength;
+
+    private final int[] entriesByCycleDay = new int[MAX_CYCLE_DAYS];
+    private final int[] symptomsByCycleDay = new int[MAX_CYCLE_DAYS * SYMPTOMS];
+    private final int[] entriesByPhase = new int[PHASE_COUNT];
+    private final int[] moodsByPhase = new int[PHASE_COUNT * SymptomEntry.MOOD_COUNT];
+    private final int[] combinationCounts = new int[COMBINATIONS];
+
+    private Result result;
+
+    /**
+     * @param cycleLength predicted cycle length, used for days outside the
+     *                    logged cycles; see {@link #setCycles(int[], int)}
+     */
+    public SymptomAnalytics(int cycleLength) {
+        if (cycleLength <= 0) {
+            throw new IllegalArgumentException("cycleLength must be positive: " + cycleLength);
+        }
+        this.cycleLength = cycleLength;
+    }
+
+    /**
+     * Updates the cycles entries are placed in. Recounts every entry if the
+     * starts or the length changed; a no-op otherwise.
+     *
+     * @param sortedStarts logged period starts in ascending order
+     */
+    public void setCycles(int[] sortedStarts, int cycleLength) {
+        if (cycleLength <= 0) {
+            throw new IllegalArgumentException("cycleLength must be positive: " + cycleLength);
+        }
+        if (cycleLength == this.cycleLength && Arrays.equals(sortedStarts, loggedStarts)) return;
+        this.loggedStarts = sortedStarts.clone();
+        this.starts = cycleStarts(sortedStarts);
+        this.cycleLength = cycleLength;
+        recount();
+    }
+
+    /** Adds an entry, or replaces the one logged for the same day. */
+    public void put(SymptomEntry entry) {
+        int day = entry.epochDay();
+        int packed = PRESENT
+                | entry.mood() << MOOD_SHIFT
+                | entry.flow() << FLOW_SHIFT
+                | entry.symptoms();
+        int i = slot(day);
+        int previous = days[i];
+        if (previous == packed) return;
+        if (previous != 0) {
+            count(day, previous, -1);
+        } else {
+            entryCount++;
+        }
+        days[i] = packed;
+        count(day, packed, 1);
+        result = null;
+    }
+
+    public void putAll(Iterable<SymptomEntry> entries) {
+        for (SymptomEntry entry : entries) {
+            put(entry);
+        }
+    }
+
+    public void remove(int epochDay) {
+        int i = epochDay - firstDay;
+        if (i < 0 || i >= days.length || days[i] == 0) return;
+        count(epochDay, days[i], -1);
+        days[i] = 0;
+        entryCount--;
+        result = null;
+    }
+
+    public Result result() {
+        if (result == null) {
+            int[] cooccurrence = new int[SYMPTOMS * SYMPTOMS];
+            for (int mask = 1; mask < COMBINATIONS; mask++) {
+                int n = combinationCounts[mask];
+                if (n == 0) continue;
+                for (int a = mask; a != 0; a &= a - 1) {
+                    int row = Integer.numberOfTrailingZeros(a) * SYMPTOMS;
+                    for (int b = mask; b != 0; b &= b - 1) {
+                        cooccurrence[row + Integer.numberOfTrailingZeros(b)] += n;
+                    }
+                }
+            }
+            result = new Result(entryCount, entriesByCycleDay.clone(),
+                    symptomsByCycleDay.clone(), entriesByPhase.clone(),
+                    moodsByPhase.clone(), cooccurrence);
+        }
+        return result;
+    }
+
+    /**
+     * Position of a day in its cycle as {@code cycleDay << 2 | phase}, with
+     * cycle day 0 being the period start, or -1 if no start is known.
+     */
+    int position(int day) {
+        if (starts.length == 0) return -1;
+        int i = Arrays.binarySearch(starts, day);
+        if (i < 0) i = -i - 2;
+
+        int start;
+        int length;
+        if (i < 0) {
+            // Before the first logged start: project earlier cycles backwards
+            int cyclesBack = (starts[0] - day + cycleLength - 1) / cycleLength;
+            start = starts[0] - cyclesBack * cycleLength;
+            length = cycleLength;
+        } else if (i == starts.length - 1
+                || starts[i + 1] - starts[i] > CycleStatistics.MAX_CYCLE_LENGTH) {
+            // After the last start, or across missed logs: project cycles forwards
+            start = starts[i] + (day - starts[i]) / cycleLength * cycleLength;
+            length = cycleLength;
+        } else {
+            start = starts[i];
+            length = starts[i + 1] - start;
+        }
+
+        int cycleDay = day - start;
+        int ovulation = length - CyclePredictionEngine.LUTEAL_PHASE;
+        int phase;
+        if (cycleDay < CyclePredictionEngine.PERIOD_LENGTH) {
+            phase = PHASE_MENSTRUAL;
+        } else if (Math.abs(cycleDay - ovulation) <= 1) {
+            phase = PHASE_OVULATORY;
+        } else if (cycleDay < ovulation) {
+            phase = PHASE_FOLLICULAR;
+        } else {
+            phase = PHASE_LUTEAL;
+        }
+        return cycleDay << 2 | phase;
+    }
+
+    private static int[] cycleStarts(int[] sortedStarts) {
+        int[] kept = new int[sortedStarts.length];
+        int n = 0;
+        for (int start : sortedStarts) {
+            if (n > 0 && start - kept[n - 1] < CycleStatistics.MIN_CYCLE_LENGTH) continue;
+            kept[n++] = start;
+        }
+        return Arrays.copyOf(kept, n);
+    }
+
+    private void count(int day, int packed, int delta) {
+        int mask = packed & SYMPTOM_MASK;
+        combinationCounts[mask] += delta;
+
+        int position = position(day);
+        if (position < 0) return;
+        int cycleDay = Math.min(position >> 2, MAX_CYCLE_DAYS - 1);
+        int phase = position & 3;
+
+        entriesByCycleDay[cycleDay] += delta;
+        for (int m = mask; m != 0; m &= m - 1) {
+            symptomsByCycleDay[cycleDay * SYMPTOMS + Integer.numberOfTrailingZeros(m)] += delta;
+        }
+        entriesByPhase[phase] += delta;
+        moodsByPhase[phase * SymptomEntry.MOOD_COUNT + (packed >> MOOD_SHIFT & 0xFF)] += delta;
+    }
+
+    private void recount() {
+        Arrays.fill(entriesByCycleDay, 0);
+        Arrays.fill(symptomsByCycleDay, 0);
+        Arrays.fill(entriesByPhase, 0);
+        Arrays.fill(moodsByPhase, 0);
+        Arrays.fill(combinationCounts, 0);
+        for (int i = 0; i < days.length; i++) {
+            if (days[i] != 0) count(firstDay + i, days[i], 1);
+        }
+        result = null;
+    }
+
+    /** Index of {@code day} in {@link #days}, growing the array to cover it. */
+    private int slot(int day) {
+        if (days.length == 0) {
+            firstDay = day - 365;
+            days = new int[2 * 365];
+        } else if (day < firstDay) {
+            int grow = Math.max(firstDay - day, days.length);
+            int[] grown = new int[days.length + grow];
+            System.arraycopy(days, 0, grown, grow, days.length);
+            days = grown;
+            firstDay -= grow;
+        } else if (day - firstDay >= days.length) {
+            days = Arrays.copyOf(days, Math.max(day - firstDay + 1, days.length * 2));
+        }
+        return day - firstDay;
+    }
+
+    /** Immutable counts at one point in time. */
+    public static final class Result {
+
+        private final int entryCount;
+        private final int[] entriesByCycleDay;
+        private final int[] symptomsByCycleDay;
+        private final int[] entriesByPhase;
+        private final int[] moodsByPhase;
+        private final int[] cooccurrence;
+
+        Result(int entryCount, int[] entriesByCycleDay, int[] symptomsByCycleDay,
+               int[] entriesByPhase, int[] moodsByPhase, int[] cooccurrence) {
+            this.entryCount = entryCount;
+            this.entriesByCycleDay = entriesByCycleDay;
+            this.symptomsByCycleDay = symptomsByCycleDay;
+            this.entriesByPhase = entriesByPhase;
+            this.moodsByPhase = moodsByPhase;
+            this.cooccurrence = cooccurrence;
+        }
+
+        public int entryCount() {
+            return entryCount;
+        }
+
+        /** Logged days that fell on {@code cycleDay} (0 = period start). */
+        public int entriesOnCycleDay(int cycleDay) {
+            return entriesByCycleDay[cycleDay];
+        }
+
+        /** Logged days on {@code cycleDay} with the symptom at bit {@code symptom}. */
+        public int symptomOnCycleDay(int cycleDay, int symptom) {
+            return symptomsByCycleDay[cycleDay * SYMPTOMS + symptom];
+        }
+
+        /** Share of the days logged on {@code cycleDay} with the symptom; 0 if none were. */
+        public double symptomFrequency(int cycleDay, int symptom) {
+            int days = entriesByCycleDay[cycleDay];
+            return days == 0 ? 0 : (double) symptomOnCycleDay(cycleDay, symptom) / days;
+        }
+
+        /** Cycle day on which the symptom is most frequent, or -1 if it was never logged. */
+        public int peakCycleDay(int symptom) {
+            int best = -1;
+            double bestFrequency = 0;
+            for (int day = 0; day < MAX_CYCLE_DAYS; day++) {
+                double frequency = symptomFrequency(day, symptom);
+                if (frequency > bestFrequency) {
+                    best = day;
+                    bestFrequency = frequency;
+                }
+            }
+            return best;
+        }
+
+        /**
+         * Days logged with both symptoms; {@code a == b} gives the days logged
+         * with that symptom.
+         */
+        public int cooccurrence(int a, int b) {
+            return cooccurrence[a * SYMPTOMS + b];
+        }
+
+        public int entriesInPhase(int phase) {
+            return entriesByPhase[phase];
+        }
+
+        public int moodInPhase(int phase, int mood) {
+            return moodsByPhase[phase * SymptomEntry.MOOD_COUNT + mood];
+        }
+
+        /** Mood logged most often in {@code phase}, ignoring "not specified"; -1 if none. */
+        public int dominantMood(int phase) {
+            int best = -1;
+            for (int mood = SymptomEntry.MOOD_NOT_SPECIFIED + 1; mood < SymptomEntry.MOOD_COUNT; mood++) {
+                int n = moodInPhase(phase, mood);
+                if (n > 0 && (best < 0 || n > moodInPhase(phase, best))) best = mood;
+            }
+            return best;
+        }
+    }
+}
@@ -0,0 +1,292 @@
+package com.example.periodtracker.core;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * One day of logged symptoms, as stored under symptoms/{uid}/{yyyy-MM-dd}.
+ *
+ * The date is an epoch day, mood and flow are small codes and the six physical
+ * symptoms are a bitmask, so an entry costs a few dozen bytes instead of a
+ * HashMap of repeated strings. {@link #fromFirebase(Map)} and
+ * {@link #toFirebase()} convert to and from the shape SymptomsFragment writes.
+ */
+public final class SymptomEntry {
+
+    public static final byte MOOD_NOT_SPECIFIED = 0;
+    public static final byte MOOD_HAPPY = 1;
+    public static final byte MOOD_SAD = 2;
+    public static final byte MOOD_ANXIOUS = 3;
+    public static final byte MOOD_TIRED = 4;
+    public static final byte MOOD_IRRITABLE = 5;
+    public static final int MOOD_COUNT = 6;
+
+    public static final byte FLOW_NOT_SPECIFIED = 0;
+    public static final byte FLOW_LIGHT = 1;
+    public static final byte FLOW_MODERATE = 2;
+    public static final byte FLOW_HEAVY = 3;
+    public static final int FLOW_COUNT = 4;
+
+    public static final int SYMPTOM_CRAMPS = 1;
+    public static final int SYMPTOM_HEADACHE = 1 << 1;
+    public static final int SYMPTOM_BLOATING = 1 << 2;
+    public static final int SYMPTOM_ACNE = 1 << 3;
+    public static final int SYMPTOM_BACK_PAIN = 1 << 4;
+    public static final int SYMPTOM_BREAST_TENDERNESS = 1 << 5;
+    public static final int SYMPTOM_COUNT = 6;
+
+    /** Name written to Firebase for each mood code. */
+    private static final String[] MOOD_NAMES =
+            {"Not specified", "Happy", "Sad", "Anxious", "Tired", "Irritable"};
+    /** Name written to Firebase for each flow code. */
+    private static final String[] FLOW_NAMES =
+            {"Not specified", "Light", "Moderate", "Heavy"};
+    /** Name written to Firebase for each symptom bit, lowest bit first. */
+    private static final String[] SYMPTOM_NAMES =
+            {"Cramps", "Headache", "Bloating", "Acne", "Back Pain", "Breast Tenderness"};
+
+    private static final int SECONDS_PER_DAY = 86_400;
+
+    private final int epochDay;
+    private final long timestamp;
+    private final byte mood;
+    private final byte flow;
+    private final byte symptoms;
+    private final String notes;
+
+    /**
+     * @param timestamp local wall-clock time of the save as seconds since
+     *                  1970-01-01T00:00 (see {@link EpochDays#localEpochSecond()})
+     */
+    public SymptomEntry(int epochDay, long timestamp, byte mood, byte flow, int symptoms,
+                        String notes) {
+        this.epochDay = epochDay;
+        this.timestamp = timestamp;
+        this.mood = mood;
+        this.flow = flow;
+        this.symptoms = (byte) symptoms;
+        this.notes = notes == null ? "" : notes;
+    }
+
+    public int epochDay() {
+        return epochDay;
+    }
+
+    /** The yyyy-MM-dd key this entry is stored under. */
+    public String dateKey() {
+        return EpochDays.formatIso(epochDay);
+    }
+
+    public long timestamp() {
+        return timestamp;
+    }
+
+    public byte mood() {
+        return mood;
+    }
+
+    public byte flow() {
+        return flow;
+    }
+
+    /** Bitmask of SYMPTOM_* flags. */
+    public int symptoms() {
+        return symptoms & 0xFF;
+    }
+
+    public boolean hasSymptom(int symptom) {
+        return (symptoms & symptom) != 0;
+    }
+
+    public String notes() {
+        return notes;
+    }
+
+    public String moodName() {
+        return MOOD_NAMES[mood];
+    }
+
+    public String flowName() {
+        return FLOW_NAMES[flow];
+    }
+
+    /** Display names of the logged symptoms, in checkbox order. */
+    public List<String> symptomNames() {
+        List<String> names = new ArrayList<>(Integer.bitCount(symptoms()));
+        for (int i = 0; i < SYMPTOM_COUNT; i++) {
+            if ((symptoms & (1 << i)) != 0) names.add(SYMPTOM_NAMES[i]);
+        }
+        return names;
+    }
+
+    public static String moodName(int mood) {
+        return MOOD_NAMES[mood];
+    }
+
+    public static String flowName(int flow) {
+        return FLOW_NAMES[flow];
+    }
+
+    /** Display name of the symptom at bit {@code index}. */
+    public static String symptomName(int index) {
+        return SYMPTOM_NAMES[index];
+    }
+
+    /**
+     * Notes plus the names of the logged mood, flow and symptoms, as indexed
+     * for search. Unspecified mood and flow are left out.
+     */
+    public String searchText() {
+        StringBuilder text = new StringBuilder(notes);
+        if (mood != MOOD_NOT_SPECIFIED) text.append(' ').append(moodName());
+        if (flow != FLOW_NOT_SPECIFIED) text.append(' ').append(flowName()).append(" flow");
+        for (String name : symptomNames()) {
+            text.append(' ').append(name);
+        }
+        return text.toString();
+    }
+
+    /** The timestamp formatted as yyyy-MM-dd HH:mm:ss, as written to Firebase. */
+    public String timestampString() {
+        int day = (int) Math.floorDiv(timestamp, SECONDS_PER_DAY);
+        int secondOfDay = Math.floorMod(timestamp, SECONDS_PER_DAY);
+        int hour = secondOfDay / 3600;
+        int minute = secondOfDay / 60 % 60;
+        int second = secondOfDay % 60;
+        return EpochDays.formatIso(day) + ' '
+                + (char) ('0' + hour / 10) + (char) ('0' + hour % 10) + ':'
+                + (char) ('0' + minute / 10) + (char) ('0' + minute % 10) + ':'
+                + (char) ('0' + second / 10) + (char) ('0' + second % 10);
+    }
+
+    /** The map written to symptoms/{uid}/{dateKey}. */
+    public Map<String, Object> toFirebase() {
+        Map<String, Object> map = new HashMap<>();
+        map.put("date", dateKey());
+        map.put("timestamp", timestampString());
+        map.put("mood", moodName());
+        map.put("flow", flowName());
+        map.put("physicalSymptoms", symptomNames());
+        map.put("notes", notes);
+        return map;
+    }
+
+    /**
+     * The {@link #toFirebase()} fields that differ from {@code base}, the copy
+     * of the same day already on the server; every field if there is none.
+     * Empty if nothing changed.
+     */
+    public Map<String, Object> changedFields(SymptomEntry base) {
+        if (base == null) return toFirebase();
+        Map<String, Object> map = new HashMap<>();
+        if (timestamp != base.timestamp) map.put("timestamp", timestampString());
+        if (mood != base.mood) map.put("mood", moodName());
+        if (flow != base.flow) map.put("flow", flowName());
+        if (symptoms != base.symptoms) map.put("physicalSymptoms", symptomNames());
+        if (!notes.equals(base.notes)) map.put("notes", notes);
+        return map;
+    }
+
+    /**
+     * Decodes a symptoms/{uid}/{dateKey} value as returned by {@code DataSnapshot.getValue()}.
+     * Unknown mood, flow or symptom names are treated as not specified.
+     *
+     * @return the entry, or {@code null} if the value has no valid date
+     */
+    public static SymptomEntry fromFirebase(Map<String, Object> value) {
+        if (value == null) return null;
+        int epochDay = EpochDays.parseIsoDate(asString(value.get("date")));
+        if (epochDay == EpochDays.INVALID) return null;
+
+        return new SymptomEntry(epochDay,
+                parseTimestamp(asString(value.get("timestamp")), epochDay),
+                moodCode(asString(value.get("mood"))),
+                flowCode(asString(value.get("flow"))),
+                symptomMask(value.get("physicalSymptoms")),
+                asString(value.get("notes")));
+    }
+
+    public static byte moodCode(String name) {
+        return (byte) Math.max(MOOD_NOT_SPECIFIED, indexOf(MOOD_NAMES, name));
+    }
+
+    public static byte flowCode(String name) {
+        return (byte) Math.max(FLOW_NOT_SPECIFIED, indexOf(FLOW_NAMES, name));
+    }
+
+    /** Accepts the list Firebase returns for physicalSymptoms, or a map if it became sparse. */
+    public static int symptomMask(Object physicalSymptoms) {
+        Collection<?> names;
+        if (physicalSymptoms instanceof Collection) {
+            names = (Collection<?>) physicalSymptoms;
+        } else if (physicalSymptoms instanceof Map) {
+            names = ((Map<?, ?>) physicalSymptoms).values();
+        } else {
+            return 0;
+        }
+        int mask = 0;
+        for (Object name : names) {
+            int index = indexOf(SYMPTOM_NAMES, name instanceof String ? (String) name : null);
+            if (index >= 0) mask |= 1 << index;
+        }
+        return mask;
+    }
+
+    /** Parses yyyy-MM-dd HH:mm:ss, falling back to midnight of {@code epochDay}. */
+    static long parseTimestamp(String text, int epochDay) {
+        if (text != null && text.length() == 19 && text.charAt(10) == ' ') {
+            int day = EpochDays.parseIsoDate(text.subSequence(0, 10));
+            int hour = twoDigits(text, 11);
+            int minute = twoDigits(text, 14);
+            int second = twoDigits(text, 17);
+            if (day != EpochDays.INVALID && hour >= 0 && minute >= 0 && second >= 0) {
+                return (long) day * SECONDS_PER_DAY + hour * 3600 + minute * 60 + second;
+            }
+        }
+        return (long) epochDay * SECONDS_PER_DAY;
+    }
+
+    private static int twoDigits(String text, int at) {
+        char a = text.charAt(at);
+        char b = text.charAt(at + 1);
+        if (a < '0' || a > '9' || b < '0' || b > '9') return -1;
+        return (a - '0') * 10 + (b - '0');
+    }
+
+    private static int indexOf(String[] names, String name) {
+        if (name == null) return -1;
+        for (int i = 0; i < names.length; i++) {
+            if (names[i].equals(name)) return i;
+        }
+        return -1;
+    }
+
+    private static String asString(Object value) {
+        return value instanceof String ? (String) value : null;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof SymptomEntry)) return false;
+        SymptomEntry other = (SymptomEntry) o;
+        return epochDay == other.epochDay && timestamp == other.timestamp
+                && mood == other.mood && flow == other.flow && symptoms == other.symptoms
+                && notes.equals(other.notes);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(epochDay, timestamp, mood, flow, symptoms, notes);
+    }
+
+    @Override
+    public String toString() {
+        return "SymptomEntry{" + dateKey() + ", mood=" + mood + ", flow=" + flow
+                + ", symptoms=0x" + Integer.toHexString(symptoms()) + '}';
+    }
+}
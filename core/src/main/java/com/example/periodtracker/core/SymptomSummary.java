@@ -0,0 +1,229 @@
+package com.example.periodtracker.core;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.IntFunction;
+
+/**
+ * Running totals over every entry in symptoms/{uid}, as stored under summary/{uid}.
+ *
+ * Counts are kept per mood, per flow level and per physical symptom, keyed by
+ * the same names {@link SymptomEntry#toFirebase()} writes, plus the latest
+ * period starts. Writers never rewrite the whole node: {@link #addChanges}
+ * turns one saved or overwritten entry into per-counter increments that are
+ * applied in the same update as the entry itself. The increments are relative
+ * to the copy of the entry they replace, so that update must fail if the copy
+ * changed after it was read; the database rules enforce this for
+ * SymptomSyncWorker's writes.
+ */
+public final class SymptomSummary {
+
+    /** Number of most recent period starts kept in the summary. */
+    public static final int LATEST_STARTS = 6;
+
+    public static final SymptomSummary EMPTY = new SymptomSummary(0,
+            new long[SymptomEntry.MOOD_COUNT], new long[SymptomEntry.FLOW_COUNT],
+            new long[SymptomEntry.SYMPTOM_COUNT], new int[0]);
+
+    private final long entries;
+    private final long[] moods;
+    private final long[] flows;
+    private final long[] symptoms;
+    private final int[] periodStarts;
+
+    private SymptomSummary(long entries, long[] moods, long[] flows, long[] symptoms,
+                           int[] periodStarts) {
+        this.entries = entries;
+        this.moods = moods;
+        this.flows = flows;
+        this.symptoms = symptoms;
+        this.periodStarts = periodStarts;
+    }
+
+    /** Summary of a full history, used to build the node the first time. */
+    public static SymptomSummary of(Iterable<SymptomEntry> history, int[] sortedPeriodStarts) {
+        long entries = 0;
+        long[] moods = new long[SymptomEntry.MOOD_COUNT];
+        long[] flows = new long[SymptomEntry.FLOW_COUNT];
+        long[] symptoms = new long[SymptomEntry.SYMPTOM_COUNT];
+        for (SymptomEntry entry : history) {
+            entries++;
+            moods[entry.mood()]++;
+            flows[entry.flow()]++;
+            for (int mask = entry.symptoms(); mask != 0; mask &= mask - 1) {
+                symptoms[Integer.numberOfTrailingZeros(mask)]++;
+            }
+        }
+        return new SymptomSummary(entries, moods, flows, symptoms, latest(sortedPeriodStarts));
+    }
+
+    /**
+     * Decodes a summary/{uid} value as returned by {@code DataSnapshot.getValue()}.
+     * A missing node decodes as {@link #EMPTY}.
+     */
+    public static SymptomSummary fromFirebase(Map<String, Object> value) {
+        if (value == null) return EMPTY;
+        long[] moods = new long[SymptomEntry.MOOD_COUNT];
+        for (int i = 0; i < moods.length; i++) {
+            moods[i] = count(value.get("moods"), SymptomEntry.moodName(i));
+        }
+        long[] flows = new long[SymptomEntry.FLOW_COUNT];
+        for (int i = 0; i < flows.length; i++) {
+            flows[i] = count(value.get("flows"), SymptomEntry.flowName(i));
+        }
+        long[] symptoms = new long[SymptomEntry.SYMPTOM_COUNT];
+        for (int i = 0; i < symptoms.length; i++) {
+            symptoms[i] = count(value.get("symptoms"), SymptomEntry.symptomName(i));
+        }
+
+        int[] starts = new int[0];
+        Object startsValue = value.get("periodStarts");
+        if (startsValue instanceof List) {
+            List<?> list = (List<?>) startsValue;
+            starts = new int[list.size()];
+            int n = 0;
+            for (Object date : list) {
+                int day = date instanceof String
+                        ? EpochDays.parseIsoDate((String) date) : EpochDays.INVALID;
+                if (day != EpochDays.INVALID) starts[n++] = day;
+            }
+            starts = Arrays.copyOf(starts, n);
+            Arrays.sort(starts);
+        }
+
+        Object entries = value.get("entries");
+        return new SymptomSummary(entries instanceof Number ? ((Number) entries).longValue() : 0,
+                moods, flows, symptoms, starts);
+    }
+
+    /** The full shape of summary/{uid}. */
+    public Map<String, Object> toFirebase() {
+        Map<String, Object> map = new HashMap<>();
+        map.put("entries", entries);
+        map.put("moods", namedCounts(moods, SymptomEntry::moodName));
+        map.put("flows", namedCounts(flows, SymptomEntry::flowName));
+        map.put("symptoms", namedCounts(symptoms, SymptomEntry::symptomName));
+        map.put("periodStarts", startKeys(periodStarts));
+        return map;
+    }
+
+    /**
+     * Adds to {@code deltas} the counter changes of replacing {@code previous},
+     * the day's entry currently on the server or {@code null}, with {@code saved}.
+     * Keys are paths relative to summary/{uid}; counters that end up unchanged
+     * are removed.
+     */
+    public static void addChanges(Map<String, Long> deltas, SymptomEntry previous,
+                                  SymptomEntry saved) {
+        if (previous == null) {
+            add(deltas, "entries", 1);
+        } else {
+            add(deltas, "moods/" + previous.moodName(), -1);
+            add(deltas, "flows/" + previous.flowName(), -1);
+        }
+        add(deltas, "moods/" + saved.moodName(), 1);
+        add(deltas, "flows/" + saved.flowName(), 1);
+
+        int before = previous == null ? 0 : previous.symptoms();
+        int after = saved.symptoms();
+        for (int mask = before & ~after; mask != 0; mask &= mask - 1) {
+            add(deltas, "symptoms/" + SymptomEntry.symptomName(Integer.numberOfTrailingZeros(mask)), -1);
+        }
+        for (int mask = after & ~before; mask != 0; mask &= mask - 1) {
+            add(deltas, "symptoms/" + SymptomEntry.symptomName(Integer.numberOfTrailingZeros(mask)), 1);
+        }
+    }
+
+    /** The last {@link #LATEST_STARTS} of a sorted start list as yyyy-MM-dd keys, oldest first. */
+    public static List<String> startKeys(int[] sortedStarts) {
+        int[] latest = latest(sortedStarts);
+        List<String> keys = new ArrayList<>(latest.length);
+        for (int start : latest) {
+            keys.add(EpochDays.formatIso(start));
+        }
+        return keys;
+    }
+
+    public long entryCount() {
+        return entries;
+    }
+
+    public long moodCount(int mood) {
+        return moods[mood];
+    }
+
+    public long flowCount(int flow) {
+        return flows[flow];
+    }
+
+    /** Entries with the symptom at bit {@code index}. */
+    public long symptomCount(int index) {
+        return symptoms[index];
+    }
+
+    /** Latest period starts, oldest first. */
+    public int[] periodStarts() {
+        return periodStarts.clone();
+    }
+
+    /** Bit index of the most often logged symptom, or -1 if none was logged. */
+    public int mostCommonSymptom() {
+        int best = -1;
+        for (int i = 0; i < symptoms.length; i++) {
+            if (symptoms[i] > 0 && (best < 0 || symptoms[i] > symptoms[best])) best = i;
+        }
+        return best;
+    }
+
+    /** Mood code logged most often, ignoring "not specified", or -1 if none was logged. */
+    public int mostCommonMood() {
+        int best = -1;
+        for (int i = SymptomEntry.MOOD_NOT_SPECIFIED + 1; i < moods.length; i++) {
+            if (moods[i] > 0 && (best < 0 || moods[i] > moods[best])) best = i;
+        }
+        return best;
+    }
+
+    /** Mean flow code over entries with a flow logged, 0 if there are none. */
+    public double averageFlow() {
+        long days = 0;
+        long total = 0;
+        for (int i = SymptomEntry.FLOW_NOT_SPECIFIED + 1; i < flows.length; i++) {
+            days += flows[i];
+            total += flows[i] * i;
+        }
+        return days == 0 ? 0 : (double) total / days;
+    }
+
+    private static int[] latest(int[] sortedStarts) {
+        return Arrays.copyOfRange(sortedStarts,
+                Math.max(0, sortedStarts.length - LATEST_STARTS), sortedStarts.length);
+    }
+
+    private static void add(Map<String, Long> deltas, String key, long delta) {
+        Long current = deltas.get(key);
+        long sum = (current == null ? 0 : current) + delta;
+        if (sum == 0) {
+            deltas.remove(key);
+        } else {
+            deltas.put(key, sum);
+        }
+    }
+
+    private static long count(Object counts, String name) {
+        if (!(counts instanceof Map)) return 0;
+        Object count = ((Map<?, ?>) counts).get(name);
+        return count instanceof Number ? ((Number) count).longValue() : 0;
+    }
+
+    private static Map<String, Object> namedCounts(long[] counts, IntFunction<String> names) {
+        Map<String, Object> map = new HashMap<>();
+        for (int i = 0; i < counts.length; i++) {
+            if (counts[i] != 0) map.put(names.apply(i), counts[i]);
+        }
+        return map;
+    }
+}
@@ -0,0 +1,138 @@
+package com.example.periodtracker.core;
+
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * The database paths the app reads and writes: users/{uid}, symptoms/{uid}
+ * and summary/{uid}.
+ *
+ * The app talks to Firebase through FirebaseDataSource; {@link InMemoryDataSource}
+ * stands in for it in JVM tests and benchmarks. Values use Firebase's
+ * shapes: nested maps and lists of strings, numbers and booleans. Callbacks
+ * run on the thread the implementation documents, never on the caller's
+ * stack.
+ */
+public interface TrackerDataSource {
+
+    /** Result of one read or write. */
+    interface Callback<T> {
+        void onSuccess(T result);
+
+        void onFailure(Exception error);
+    }
+
+    /** A live listener; no callbacks arrive after {@link #remove()}. */
+    interface Subscription {
+        void remove();
+    }
+
+    /** One node as read. Converting it can be costly; call these off the main thread. */
+    interface Node {
+        boolean exists();
+
+        /** The node as maps, lists, strings, numbers and booleans; {@code null} if absent. */
+        Object value();
+
+        /** Each child's value by key, in key order; empty if there are none. */
+        SortedMap<String, Object> children();
+    }
+
+    /** Child events of one key-ordered listener, delivered in order. */
+    interface ChildListener {
+        void onChildAdded(String key, Node child);
+
+        void onChildChanged(String key, Node child);
+
+        /** The child was deleted. */
+        void onChildRemoved(String key);
+
+        /** Every child present when listening started has been delivered. */
+        void onCaughtUp();
+
+        void onFailure(Exception error);
+    }
+
+    /** Delivers users/{uid} now and on every change. */
+    Subscription observeUser(String uid, Callback<Node> callback);
+
+    /** Delivers summary/{uid} now and on every change. */
+    Subscription observeSummary(String uid, Callback<Node> callback);
+
+    void getUser(String uid, Callback<Node> callback);
+
+    void getSummary(String uid, Callback<Node> callback);
+
+    /** All of symptoms/{uid}. */
+    void getSymptoms(String uid, Callback<Node> callback);
+
+    /** The days of symptoms/{uid} with keys from {@code firstKey} to {@code lastKey} inclusive. */
+    void getSymptomRange(String uid, String firstKey, String lastKey, Callback<Node> callback);
+
+    /**
+     * The newest {@code limit} days of symptoms/{uid} with keys up to
+     * {@code lastKey} inclusive, or the newest overall if it is {@code null}.
+     */
+    void getSymptomsThrough(String uid, String lastKey, int limit, Callback<Node> callback);
+
+    /**
+     * Streams symptoms/{uid} as child events, limited to the days whose
+     * {@code updatedAt} is {@code sinceUpdatedAt} or later, or every day if it
+     * is {@code null}. {@code updatedAt} is the server's time of the day's
+     * last write, set through {@link #serverTimestamp()}, so a resumed
+     * listener receives every day written since, whatever the writing
+     * device's clock says.
+     */
+    Subscription observeSymptomsSince(String uid, Long sinceUpdatedAt, ChildListener listener);
+
+    /**
+     * Applies root-relative paths atomically, like updateChildren on the
+     * root. A {@code null} value deletes the path.
+     */
+    void update(Map<String, Object> updates, Callback<Void> callback);
+
+    /** A value for {@link #update} that adds {@code delta} to the number stored at its path. */
+    Object increment(long delta);
+
+    /** A value for {@link #update} that the server replaces with its time in epoch milliseconds. */
+    Object serverTimestamp();
+
+    /**
+     * Replaces the node at the root-relative {@code path} with {@code value}
+     * in one transaction, unless its child {@code markerKey} already exists.
+     *
+     * @return through the callback, whether it was written
+     */
+    void initialize(String path, String markerKey, Map<String, Object> value,
+                    Callback<Boolean> callback);
+
+    /**
+     * Runs one call and blocks for its result, for background threads such
+     * as WorkManager workers and JVM benchmarks.
+     *
+     * @throws Exception the failure passed to the callback, or a timeout
+     */
+    static <T> T await(Consumer<Callback<T>> call, long timeout, TimeUnit unit) throws Exception {
+        CompletableFuture<T> future = new CompletableFuture<>();
+        call.accept(new Callback<T>() {
+            @Override
+            public void onSuccess(T result) {
+                future.complete(result);
+            }
+
+            @Override
+            public void onFailure(Exception error) {
+                future.completeExceptionally(error);
+            }
+        });
+        try {
+            return future.get(timeout, unit);
+        } catch (ExecutionException e) {
+            throw e.getCause() instanceof Exception ? (Exception) e.getCause() : e;
+        }
+    }
+}
@@ -0,0 +1,63 @@
+package com.example.periodtracker.core;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class CycleCalendarTest {
+
+    @Test
+    public void matchesForecastMonthByMonth() {
+        int[] starts = {EpochDays.of(2024, 10, 23), EpochDays.of(2024, 11, 20)};
+        CyclePredictor predictor = new CyclePredictor(28);
+        for (int start : starts) predictor.addPeriodStart(start);
+        CycleForecast forecast = predictor.forecast(24);
+        MonthStateCache cache = new MonthStateCache(
+                new CycleCalendar(starts, forecast.cycleLength()), 3);
+
+        for (int i = 0; i < forecast.size(); i++) {
+            assertMarked(cache, forecast.period(i), DayStateTable.PERIOD);
+            assertMarked(cache, forecast.fertileWindow(i), DayStateTable.FERTILE);
+            assertMarked(cache, CyclePredictionEngine.range(forecast.ovulationDay(i),
+                    forecast.ovulationDay(i)), DayStateTable.OVULATION);
+        }
+        assertEquals(3, cache.size());
+    }
+
+    @Test
+    public void projectsFarMonthsAndLoggedHistory() {
+        int first = EpochDays.of(2024, 1, 10);
+        int[] starts = {first, first + 30, first + 200};
+        CycleCalendar calendar = new CycleCalendar(starts, 30);
+
+        // 100 cycles past the latest start
+        int far = first + 200 + 100 * 30;
+        int ovulation = far - CyclePredictionEngine.LUTEAL_PHASE;
+        assertTrue((monthOf(calendar, far).get(far) & DayStateTable.PERIOD) != 0);
+        assertTrue((monthOf(calendar, ovulation).get(ovulation) & DayStateTable.OVULATION) != 0);
+
+        // Logged cycle: period plus the fertile window counted back from the next start
+        DayStateTable february = calendar.month(2024, 2);
+        assertTrue((february.get(first + 30) & DayStateTable.PERIOD) != 0);
+        DayStateTable january = calendar.month(2024, 1);
+        assertTrue((january.get(first + 30 - CyclePredictionEngine.LUTEAL_PHASE)
+                & DayStateTable.OVULATION) != 0);
+
+        // The 170-day gap is a missed log, not a cycle
+        assertEquals(0, monthOf(calendar, first + 200).count(DayStateTable.OVULATION));
+        assertEquals(0, calendar.month(2023, 12).count(DayStateTable.PERIOD | DayStateTable.FERTILE));
+    }
+
+    private static DayStateTable monthOf(CycleCalendar calendar, int epochDay) {
+        return calendar.month(EpochDays.year(epochDay), EpochDays.month(epochDay));
+    }
+
+    private static void assertMarked(MonthStateCache cache, long range, int state) {
+        for (int day = CyclePredictionEngine.rangeStart(range);
+             day <= CyclePredictionEngine.rangeEnd(range); day++) {
+            int s = cache.get(EpochDays.year(day), EpochDays.month(day), EpochDays.dayOfMonth(day));
+            assertTrue((s & state) != 0);
+        }
+    }
+}
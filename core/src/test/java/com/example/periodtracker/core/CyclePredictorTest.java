@@ -0,0 +1,55 @@
+package com.example.periodtracker.core;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+public class CyclePredictorTest {
+
+    @Test
+    public void usesTheProfileLengthUntilACycleIsObserved() {
+        int start = EpochDays.of(2024, 5, 1);
+        CyclePredictor predictor = new CyclePredictor(30);
+        predictor.addPeriodStart(start);
+        assertEquals(30, predictor.predictedCycleLength());
+        assertEquals(CyclePredictor.DEFAULT_STD_DEV, predictor.stdDev(), 0);
+        assertEquals(start + 30, predictor.predictedStart(0));
+        assertEquals(start + 90, predictor.predictedStart(2));
+
+        // One cycle sets the length; the spread stays assumed until a second
+        predictor.addPeriodStart(start + 26);
+        assertEquals(26, predictor.predictedCycleLength());
+        assertEquals(CyclePredictor.DEFAULT_STD_DEV, predictor.stdDev(), 0);
+
+        predictor.addPeriodStart(start + 26 + 30);
+        assertEquals(Math.round(0.3 * 30 + 0.7 * 26), predictor.predictedCycleLength());
+        assertEquals(Math.sqrt(8), predictor.stdDev(), 1e-9);
+
+        predictor.setPriorCycleLength(35);
+        assertEquals(Math.round(0.3 * 30 + 0.7 * 26), predictor.predictedCycleLength());
+    }
+
+    @Test
+    public void bandIsTheEightyPercentIntervalAndWidensWithDistance() {
+        int start = EpochDays.of(2024, 1, 1);
+        CyclePredictor predictor = new CyclePredictor(28);
+        predictor.addPeriodStart(start);
+        // sd 2: ceil(1.2816 * 2 * sqrt(k + 1))
+        assertEquals(3, predictor.bandDays(0));
+        assertEquals(4, predictor.bandDays(1));
+        assertEquals(6, predictor.bandDays(3));
+
+        CycleForecast forecast = predictor.forecast(4);
+        assertEquals(4, forecast.size());
+        assertEquals(start, forecast.lastStart());
+        for (int k = 0; k < 4; k++) {
+            assertEquals(predictor.predictedStart(k), forecast.predictedStart(k));
+            assertEquals(predictor.bandDays(k), forecast.bandDays(k));
+        }
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void forecastNeedsAStart() {
+        new CyclePredictor(28).forecast(1);
+    }
+}
@@ -0,0 +1,71 @@
+package com.example.periodtracker.core;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class CycleStatisticsTest {
+
+    @Test
+    public void meanVarianceAndMovingAverageMatchDirectFormulas() {
+        int[] lengths = {28, 31, 26, 30, 29, 33};
+        CycleStatistics statistics = new CycleStatistics(0.3);
+        int day = EpochDays.of(2023, 1, 1);
+        statistics.addPeriodStart(day);
+        for (int length : lengths) {
+            day += length;
+            statistics.addPeriodStart(day);
+        }
+
+        double sum = 0;
+        for (int length : lengths) sum += length;
+        double mean = sum / lengths.length;
+        double squares = 0;
+        for (int length : lengths) squares += (length - mean) * (length - mean);
+        double ewma = lengths[0];
+        for (int i = 1; i < lengths.length; i++) ewma = 0.3 * lengths[i] + 0.7 * ewma;
+
+        assertEquals(lengths.length, statistics.cycleCount());
+        assertEquals(lengths.length + 1, statistics.startCount());
+        assertEquals(day, statistics.lastStart());
+        assertEquals(mean, statistics.mean(), 1e-9);
+        assertEquals(squares / (lengths.length - 1), statistics.variance(), 1e-9);
+        assertEquals(Math.sqrt(squares / (lengths.length - 1)), statistics.stdDev(), 1e-9);
+        assertEquals(ewma, statistics.weightedMean(), 1e-9);
+    }
+
+    @Test
+    public void gapsOutsideTheCycleRangeAreStartsButNotCycles() {
+        CycleStatistics statistics = new CycleStatistics(0.5);
+        int day = EpochDays.of(2024, 1, 1);
+        assertTrue(statistics.addPeriodStart(day));
+        assertTrue(statistics.addPeriodStart(day += CycleStatistics.MIN_CYCLE_LENGTH - 1));
+        assertTrue(statistics.addPeriodStart(day += CycleStatistics.MAX_CYCLE_LENGTH + 1));
+        assertEquals(0, statistics.cycleCount());
+        assertEquals(0, statistics.variance(), 0);
+
+        assertTrue(statistics.addPeriodStart(day += CycleStatistics.MIN_CYCLE_LENGTH));
+        assertTrue(statistics.addPeriodStart(day += CycleStatistics.MAX_CYCLE_LENGTH));
+        assertEquals(2, statistics.cycleCount());
+        assertEquals(5, statistics.startCount());
+        assertEquals((CycleStatistics.MIN_CYCLE_LENGTH + CycleStatistics.MAX_CYCLE_LENGTH) / 2.0,
+                statistics.mean(), 1e-9);
+
+        // Out of order or repeated starts are ignored
+        assertFalse(statistics.addPeriodStart(day));
+        assertFalse(statistics.addPeriodStart(day - 10));
+        assertEquals(5, statistics.startCount());
+
+        statistics.clear();
+        assertEquals(EpochDays.INVALID, statistics.lastStart());
+        assertEquals(0, statistics.cycleCount());
+        assertEquals(0, statistics.mean(), 0);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void rejectsAlphaOutsideTheUnitInterval() {
+        new CycleStatistics(0);
+    }
+}
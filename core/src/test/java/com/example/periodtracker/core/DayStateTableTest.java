@@ -0,0 +1,23 @@
+package com.example.periodtracker.core;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+public class DayStateTableTest {
+
+    @Test
+    public void daysOutsideTheTableAreUnmarked() {
+        DayStateTable table = new DayStateTable.Builder(EpochDays.of(2024, 2, 1), EpochDays.of(2024, 2, 29))
+                .mark(CyclePredictionEngine.range(EpochDays.of(2024, 1, 30), EpochDays.of(2024, 3, 2)),
+                        DayStateTable.PERIOD)
+                .build();
+
+        assertEquals(0, table.get(2024, 1, 31));
+        assertEquals(DayStateTable.PERIOD, table.get(2024, 2, 1));
+        assertEquals(DayStateTable.PERIOD, table.get(2024, 2, 29));
+        assertEquals(0, table.get(2024, 3, 1));
+        assertEquals(29, table.count(DayStateTable.PERIOD));
+        assertEquals(0, DayStateTable.EMPTY.get(2024, 2, 1));
+    }
+}
@@ -0,0 +1,39 @@
+package com.example.periodtracker.core;
+
+import org.junit.Test;
+
+import java.time.LocalDate;
+
+import static org.junit.Assert.assertEquals;
+
+public class EpochDaysTest {
+
+    @Test
+    public void roundTripsAgainstJavaTime() {
+        for (int day = -800_000; day <= 800_000; day += 7) {
+            LocalDate expected = LocalDate.ofEpochDay(day);
+            assertEquals(expected.getYear(), EpochDays.year(day));
+            assertEquals(expected.getMonthValue(), EpochDays.month(day));
+            assertEquals(expected.getDayOfMonth(), EpochDays.dayOfMonth(day));
+            assertEquals(day, EpochDays.of(expected.getYear(), expected.getMonthValue(),
+                    expected.getDayOfMonth()));
+        }
+    }
+
+    @Test
+    public void parsesAndFormatsIsoDates() {
+        assertEquals(LocalDate.of(2024, 2, 29).toEpochDay(), EpochDays.parseIsoDate("2024-02-29"));
+        assertEquals("2024-02-29", EpochDays.formatIso(EpochDays.parseIsoDate("2024-02-29")));
+        assertEquals(EpochDays.INVALID, EpochDays.parseIsoDate("2023-02-29"));
+        assertEquals(EpochDays.INVALID, EpochDays.parseIsoDate("2023-13-01"));
+        assertEquals(EpochDays.INVALID, EpochDays.parseIsoDate("2023/01/01"));
+        assertEquals(EpochDays.INVALID, EpochDays.parseIsoDate(null));
+    }
+
+    @Test
+    public void packsRanges() {
+        long range = CyclePredictionEngine.fertileWindow(-3, 28);
+        assertEquals(6, CyclePredictionEngine.rangeStart(range));
+        assertEquals(11, CyclePredictionEngine.rangeEnd(range));
+    }
+}
@@ -0,0 +1,43 @@
+package com.example.periodtracker.core;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class HistoryIndexTest {
+
+    @Test
+    public void keepsOneEntryPerDayNewestFirst() {
+        HistoryIndex index = new HistoryIndex();
+        for (int day = 100; day < 140; day += 2) {
+            assertTrue(index.put(entry(day, "")));
+        }
+        List<SymptomEntry> before = index.snapshot();
+
+        assertTrue(index.put(entry(101, "")));
+        assertFalse(index.put(entry(120, "")));
+        assertTrue(index.put(entry(120, "edited")));
+        assertTrue(index.remove(138));
+        assertFalse(index.remove(139));
+
+        List<SymptomEntry> after = index.snapshot();
+        assertEquals(20, before.size());
+        assertEquals(20, after.size());
+        assertEquals(136, after.get(0).epochDay());
+        assertEquals("edited", after.get(8).notes());
+        assertEquals(Arrays.asList(102, 101, 100), Arrays.asList(after.get(17).epochDay(),
+                after.get(18).epochDay(), after.get(19).epochDay()));
+        assertEquals(100, index.oldestDay());
+        assertEquals(138, before.get(0).epochDay());
+    }
+
+    private static SymptomEntry entry(int day, String notes) {
+        return new SymptomEntry(day, (long) day * 86_400, SymptomEntry.MOOD_HAPPY,
+                SymptomEntry.FLOW_NOT_SPECIFIED, 0, notes);
+    }
+}
@@ -0,0 +1,187 @@
+package com.example.periodtracker.core;
+
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class InMemoryDataSourceTest {
+
+    @Test
+    public void updatesIncrementsAndKeyQueriesBehaveLikeFirebase() throws Exception {
+        InMemoryDataSource source = new InMemoryDataSource(1);
+        source.setLatency(2, 3);
+        try {
+            Map<String, Object> updates = new HashMap<>();
+            for (int day = 1; day <= 5; day++) {
+                SymptomEntry entry = new SymptomEntry(EpochDays.of(2024, 3, day), 0,
+                        SymptomEntry.MOOD_HAPPY, SymptomEntry.FLOW_LIGHT, 0, "");
+                updates.put("symptoms/u1/" + entry.dateKey(), entry.toFirebase());
+            }
+            updates.put("summary/u1/entries", source.increment(5));
+            TrackerDataSource.<Void>await(cb -> source.update(updates, cb), 1, TimeUnit.SECONDS);
+            TrackerDataSource.<Void>await(cb -> source.update(
+                    Map.of("summary/u1/entries", source.increment(-2)), cb), 1, TimeUnit.SECONDS);
+
+            TrackerDataSource.Node summary = TrackerDataSource.await(
+                    cb -> source.getSummary("u1", cb), 1, TimeUnit.SECONDS);
+            assertEquals(3L, summary.children().get("entries"));
+
+            TrackerDataSource.Node range = TrackerDataSource.await(
+                    cb -> source.getSymptomRange("u1", "2024-03-02", "2024-03-04", cb),
+                    1, TimeUnit.SECONDS);
+            assertEquals(Arrays.asList("2024-03-02", "2024-03-03", "2024-03-04"),
+                    new ArrayList<>(range.children().keySet()));
+
+            TrackerDataSource.Node page = TrackerDataSource.await(
+                    cb -> source.getSymptomsThrough("u1", "2024-03-04", 2, cb),
+                    1, TimeUnit.SECONDS);
+            assertEquals(Arrays.asList("2024-03-03", "2024-03-04"),
+                    new ArrayList<>(page.children().keySet()));
+
+            Map<String, Object> initial = Map.of("entries", 1L);
+            source.seed("summary/u2/periodStarts", Arrays.asList("2024-03-01"));
+            assertFalse(TrackerDataSource.await(
+                    cb -> source.initialize("summary/u1", "entries", initial, cb), 1, TimeUnit.SECONDS));
+            assertTrue(TrackerDataSource.await(
+                    cb -> source.initialize("summary/u2", "entries", initial, cb), 1, TimeUnit.SECONDS));
+            assertEquals(initial, TrackerDataSource.<TrackerDataSource.Node>await(
+                    cb -> source.getSummary("u2", cb), 1, TimeUnit.SECONDS).value());
+
+            Map<String, Object> delete = new HashMap<>();
+            delete.put("symptoms/u1", null);
+            TrackerDataSource.<Void>await(cb -> source.update(delete, cb), 1, TimeUnit.SECONDS);
+            assertFalse(TrackerDataSource.<TrackerDataSource.Node>await(
+                    cb -> source.getSymptoms("u1", cb), 1, TimeUnit.SECONDS).exists());
+        } finally {
+            source.shutdown();
+        }
+    }
+
+    @Test
+    public void observersSeeEveryChangeInOrderAndFailuresAreSeeded() throws Exception {
+        InMemoryDataSource source = new InMemoryDataSource(7);
+        source.setLatency(0, 20);
+        try {
+            List<Object> seen = new ArrayList<>();
+            TrackerDataSource.Subscription subscription = source.observeUser("u1",
+                    new TrackerDataSource.Callback<TrackerDataSource.Node>() {
+                        @Override
+                        public void onSuccess(TrackerDataSource.Node node) {
+                            synchronized (seen) {
+                                seen.add(node.exists() ? node.children().get("age") : null);
+                            }
+                        }
+
+                        @Override
+                        public void onFailure(Exception error) {
+                        }
+                    });
+            for (long age = 20; age < 25; age++) {
+                long value = age;
+                TrackerDataSource.<Void>await(cb -> source.update(Map.of("users/u1/age", value), cb),
+                        1, TimeUnit.SECONDS);
+            }
+            Thread.sleep(100);
+            subscription.remove();
+            synchronized (seen) {
+                assertEquals(Arrays.asList(null, 20L, 21L, 22L, 23L, 24L), seen);
+            }
+
+            assertEquals(failures(3), failures(3));
+        } finally {
+            source.shutdown();
+        }
+    }
+
+    @Test
+    public void childListenerStartsAtUpdatedAtAndStreamsDeltas() throws Exception {
+        InMemoryDataSource source = new InMemoryDataSource(3);
+        source.setLatency(0, 10);
+        try {
+            source.seed("symptoms/u1/2024-03-01", Map.of("updatedAt", 1_000L));
+            source.seed("symptoms/u1/2024-03-02", Map.of("updatedAt", 2_000L));
+            List<String> events = new ArrayList<>();
+            TrackerDataSource.Subscription subscription = source.observeSymptomsSince("u1",
+                    1_500L, new TrackerDataSource.ChildListener() {
+                        @Override
+                        public void onChildAdded(String key, TrackerDataSource.Node child) {
+                            record("+" + key);
+                        }
+
+                        @Override
+                        public void onChildChanged(String key, TrackerDataSource.Node child) {
+                            record("~" + key);
+                        }
+
+                        @Override
+                        public void onChildRemoved(String key) {
+                            record("-" + key);
+                        }
+
+                        @Override
+                        public void onCaughtUp() {
+                            record("caught up");
+                        }
+
+                        @Override
+                        public void onFailure(Exception error) {
+                        }
+
+                        private void record(String event) {
+                            synchronized (events) {
+                                events.add(event);
+                            }
+                        }
+                    });
+            TrackerDataSource.<Void>await(cb -> source.update(Map.of(
+                    "symptoms/u1/2024-03-03/updatedAt", source.serverTimestamp()), cb), 1, TimeUnit.SECONDS);
+            TrackerDataSource.<Void>await(cb -> source.update(Map.of(
+                    "symptoms/u1/2024-03-02/notes", "cramps"), cb), 1, TimeUnit.SECONDS);
+            TrackerDataSource.<Void>await(cb -> source.update(Map.of(
+                    "symptoms/u1/2024-03-01/notes", "older"), cb), 1, TimeUnit.SECONDS);
+            Map<String, Object> delete = new HashMap<>();
+            delete.put("symptoms/u1/2024-03-03", null);
+            TrackerDataSource.<Void>await(cb -> source.update(delete, cb), 1, TimeUnit.SECONDS);
+            Thread.sleep(100);
+            subscription.remove();
+            synchronized (events) {
+                assertEquals(Arrays.asList("+2024-03-02", "caught up", "+2024-03-03",
+                        "~2024-03-02", "-2024-03-03"), events);
+            }
+        } finally {
+            source.shutdown();
+        }
+    }
+
+    /** Which of 20 reads fail at a 50% failure rate with {@code seed}. */
+    private static List<Boolean> failures(long seed) throws Exception {
+        InMemoryDataSource source = new InMemoryDataSource(seed);
+        source.setFailureRate(0.5);
+        List<Boolean> failed = new ArrayList<>();
+        try {
+            for (int i = 0; i < 20; i++) {
+                try {
+                    TrackerDataSource.<TrackerDataSource.Node>await(
+                            cb -> source.getUser("u1", cb), 1, TimeUnit.SECONDS);
+                    failed.add(false);
+                } catch (IOException e) {
+                    failed.add(true);
+                }
+            }
+        } finally {
+            source.shutdown();
+        }
+        assertTrue(failed.contains(true) && failed.contains(false));
+        return failed;
+    }
+}
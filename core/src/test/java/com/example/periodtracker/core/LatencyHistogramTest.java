@@ -0,0 +1,38 @@
+package com.example.periodtracker.core;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class LatencyHistogramTest {
+
+    @Test
+    public void bucketsCoverEveryValueWithinOneEighth() {
+        for (long value = 0; value < 1_000_000; value += 7) {
+            long upper = LatencyHistogram.upperBound(LatencyHistogram.bucketOf(value));
+            assertTrue(upper >= value);
+            assertTrue(upper - value <= value / 8);
+        }
+        assertEquals(LatencyHistogram.BUCKET_COUNT - 1, LatencyHistogram.bucketOf(Long.MAX_VALUE));
+    }
+
+    @Test
+    public void reportsPercentiles() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (int i = 1; i <= 1000; i++) {
+            histogram.record(i * 1000L);
+        }
+
+        assertEquals(1000, histogram.count());
+        assertEquals(1_000_000, histogram.maxMicros());
+        assertEquals(500_500, histogram.meanMicros(), 0.001);
+        long p50 = histogram.percentileMicros(0.5);
+        long p99 = histogram.percentileMicros(0.99);
+        assertTrue(p50 >= 500_000 && p50 <= 500_000 * 9 / 8);
+        assertTrue(p99 >= 990_000 && p99 <= 1_000_000);
+
+        histogram.reset();
+        assertEquals(0, histogram.percentileMicros(0.5));
+    }
+}
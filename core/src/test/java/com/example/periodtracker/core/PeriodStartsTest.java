@@ -0,0 +1,52 @@
+package com.example.periodtracker.core;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class PeriodStartsTest {
+
+    @Test
+    public void correctingTheLatestStartMovesTheForecast() {
+        int first = EpochDays.of(2024, 1, 1);
+        int second = first + 28;
+        int wrong = second + 35;
+        int corrected = second + 28;
+        int[] logged = {first, second, wrong};
+
+        assertTrue(PeriodStarts.corrects(wrong, corrected));
+        int[] starts = PeriodStarts.without(PeriodStarts.with(logged, corrected), wrong);
+        assertArrayEquals(new int[]{first, second, corrected}, starts);
+
+        CycleForecast before = forecast(logged);
+        CycleForecast after = forecast(starts);
+        assertEquals(wrong, before.lastStart());
+        assertEquals(corrected, after.lastStart());
+        assertEquals(28, after.cycleLength());
+        assertEquals(corrected + 28, after.predictedStart(0));
+        assertTrue(after.predictedStart(0) < before.predictedStart(0));
+    }
+
+    @Test
+    public void aLaterStartIsANewPeriodNotACorrection() {
+        int start = EpochDays.of(2024, 3, 1);
+        assertFalse(PeriodStarts.corrects(start, start + 28));
+        assertFalse(PeriodStarts.corrects(start, start));
+        assertTrue(PeriodStarts.corrects(start, start + CycleStatistics.MIN_CYCLE_LENGTH - 1));
+        assertTrue(PeriodStarts.corrects(start, start - 1));
+
+        int[] starts = {start};
+        assertArrayEquals(starts, PeriodStarts.with(starts, start));
+        assertArrayEquals(starts, PeriodStarts.without(starts, start + 1));
+        assertArrayEquals(new int[]{start, start + 28}, PeriodStarts.with(starts, start + 28));
+    }
+
+    private static CycleForecast forecast(int[] starts) {
+        CyclePredictor predictor = new CyclePredictor(30);
+        for (int start : starts) predictor.addPeriodStart(start);
+        return predictor.forecast(3);
+    }
+}
@@ -0,0 +1,101 @@
+package com.example.periodtracker.core;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+
+public class SymptomAnalyticsTest {
+
+    private static final int START = EpochDays.of(2024, 1, 1);
+
+    @Test
+    public void countsByCycleDayPhaseAndCombination() {
+        SymptomAnalytics analytics = new SymptomAnalytics(28);
+        analytics.setCycles(new int[]{START, START + 30}, 28);
+        analytics.put(entry(START, SymptomEntry.MOOD_TIRED,
+                SymptomEntry.SYMPTOM_CRAMPS | SymptomEntry.SYMPTOM_BACK_PAIN));
+        analytics.put(entry(START + 30, SymptomEntry.MOOD_TIRED, SymptomEntry.SYMPTOM_CRAMPS));
+        // Ovulation of the 30-day logged cycle is day 16; after the last start the 28-day length applies
+        analytics.put(entry(START + 16, SymptomEntry.MOOD_HAPPY, 0));
+        analytics.put(entry(START + 30 + 20, SymptomEntry.MOOD_SAD, SymptomEntry.SYMPTOM_ACNE));
+
+        SymptomAnalytics.Result result = analytics.result();
+        assertEquals(4, result.entryCount());
+        assertEquals(2, result.entriesOnCycleDay(0));
+        assertEquals(1.0, result.symptomFrequency(0, 0), 1e-9);
+        assertEquals(0, result.peakCycleDay(0));
+        assertEquals(2, result.cooccurrence(0, 0));
+        assertEquals(1, result.cooccurrence(0, 4));
+        assertEquals(1, result.cooccurrence(4, 0));
+        assertEquals(SymptomEntry.MOOD_TIRED, result.dominantMood(SymptomAnalytics.PHASE_MENSTRUAL));
+        assertEquals(1, result.moodInPhase(SymptomAnalytics.PHASE_OVULATORY, SymptomEntry.MOOD_HAPPY));
+        assertEquals(1, result.moodInPhase(SymptomAnalytics.PHASE_LUTEAL, SymptomEntry.MOOD_SAD));
+
+        // Overwriting a day moves its counts instead of adding to them
+        analytics.put(entry(START, SymptomEntry.MOOD_HAPPY, SymptomEntry.SYMPTOM_ACNE));
+        result = analytics.result();
+        assertEquals(4, result.entryCount());
+        assertEquals(1, result.cooccurrence(0, 0));
+        assertEquals(0, result.cooccurrence(0, 4));
+        assertEquals(2, result.cooccurrence(3, 3));
+    }
+
+    @Test
+    public void gapsOutsideTheCycleRangeAreNotCycles() {
+        SymptomAnalytics analytics = new SymptomAnalytics(28);
+        // A 120-day gap is missed logs; a start 10 days after another is noise
+        analytics.setCycles(new int[]{START, START + 120, START + 130}, 28);
+        analytics.put(entry(START + 60, SymptomEntry.MOOD_TIRED, SymptomEntry.SYMPTOM_CRAMPS));
+        analytics.put(entry(START + 131, SymptomEntry.MOOD_SAD, SymptomEntry.SYMPTOM_ACNE));
+
+        SymptomAnalytics.Result result = analytics.result();
+        // Day 60 falls in the third projected 28-day cycle, on its day 4
+        assertEquals(1, result.symptomOnCycleDay(4, 0));
+        assertEquals(0, result.entriesOnCycleDay(SymptomAnalytics.MAX_CYCLE_DAYS - 1));
+        assertEquals(1, result.moodInPhase(SymptomAnalytics.PHASE_MENSTRUAL, SymptomEntry.MOOD_TIRED));
+        assertEquals(1, result.symptomOnCycleDay(11, 3));
+        assertEquals(1, result.moodInPhase(SymptomAnalytics.PHASE_FOLLICULAR, SymptomEntry.MOOD_SAD));
+    }
+
+    @Test
+    public void incrementalUpdatesMatchARecount() {
+        List<SymptomEntry> history = new ArrayList<>();
+        for (int day = 0; day < 3650; day++) {
+            history.add(entry(START + day, (byte) (day % SymptomEntry.MOOD_COUNT),
+                    (day * 7) % 64));
+        }
+        int[] starts = new int[120];
+        for (int i = 0; i < starts.length; i++) {
+            starts[i] = START + i * 29 + (i % 3);
+        }
+
+        SymptomAnalytics incremental = new SymptomAnalytics(28);
+        incremental.setCycles(starts, 29);
+        incremental.putAll(history);
+
+        SymptomAnalytics recounted = new SymptomAnalytics(28);
+        recounted.putAll(history);
+        recounted.setCycles(starts, 29);
+
+        SymptomAnalytics.Result a = incremental.result();
+        SymptomAnalytics.Result b = recounted.result();
+        for (int day = 0; day < SymptomAnalytics.MAX_CYCLE_DAYS; day++) {
+            assertEquals(b.entriesOnCycleDay(day), a.entriesOnCycleDay(day));
+            for (int s = 0; s < SymptomEntry.SYMPTOM_COUNT; s++) {
+                assertEquals(b.symptomOnCycleDay(day, s), a.symptomOnCycleDay(day, s));
+            }
+        }
+        for (int phase = 0; phase < SymptomAnalytics.PHASE_COUNT; phase++) {
+            assertEquals(b.entriesInPhase(phase), a.entriesInPhase(phase));
+        }
+        assertEquals(3650, a.entryCount());
+    }
+
+    private static SymptomEntry entry(int day, byte mood, int symptoms) {
+        return new SymptomEntry(day, (long) day * 86_400, mood, SymptomEntry.FLOW_NOT_SPECIFIED,
+                symptoms, "");
+    }
+}
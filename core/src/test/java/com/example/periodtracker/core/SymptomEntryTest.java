@@ -0,0 +1,83 @@
+package com.example.periodtracker.core;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class SymptomEntryTest {
+
+    @Test
+    public void firebaseRoundTripKeepsEveryField() {
+        int day = EpochDays.of(2024, 2, 29);
+        SymptomEntry entry = new SymptomEntry(day, (long) day * 86_400 + 23 * 3600 + 59 * 60 + 7,
+                SymptomEntry.MOOD_IRRITABLE, SymptomEntry.FLOW_HEAVY,
+                SymptomEntry.SYMPTOM_HEADACHE | SymptomEntry.SYMPTOM_BREAST_TENDERNESS, "a, b");
+
+        Map<String, Object> map = entry.toFirebase();
+        SymptomEntry decoded = SymptomEntry.fromFirebase(map);
+
+        assertEquals("2024-02-29 23:59:07", map.get("timestamp"));
+        assertTrue(decoded.changedFields(entry).isEmpty());
+        assertEquals(map, decoded.toFirebase());
+    }
+
+    @Test
+    public void unknownNamesAndLegacyShapesDecodeAsNotSpecified() {
+        Map<String, Object> sparse = new HashMap<>();
+        sparse.put("0", "Cramps");
+        sparse.put("2", "Hiccups");
+        sparse.put("3", "Acne");
+        Map<String, Object> legacy = new HashMap<>();
+        legacy.put("date", "2024-03-05");
+        legacy.put("mood", "Elated");
+        legacy.put("flow", "Spotting");
+        legacy.put("physicalSymptoms", sparse);
+        legacy.put("timestamp", "yesterday");
+        legacy.put("energy", 3L);
+
+        SymptomEntry entry = SymptomEntry.fromFirebase(legacy);
+
+        assertEquals(SymptomEntry.MOOD_NOT_SPECIFIED, entry.mood());
+        assertEquals(SymptomEntry.FLOW_NOT_SPECIFIED, entry.flow());
+        assertEquals(SymptomEntry.SYMPTOM_CRAMPS | SymptomEntry.SYMPTOM_ACNE, entry.symptoms());
+        assertEquals("2024-03-05 00:00:00", entry.timestampString());
+        assertEquals("", entry.notes());
+        assertNull(SymptomEntry.fromFirebase(Map.of("date", "05/03/2024")));
+    }
+
+    @Test
+    public void changedFieldsOnlyHoldsWhatDiffersFromTheServerCopy() {
+        int day = EpochDays.of(2024, 3, 5);
+        long savedAt = (long) day * 86_400 + 9 * 3600;
+        SymptomEntry server = new SymptomEntry(day, savedAt, SymptomEntry.MOOD_HAPPY,
+                SymptomEntry.FLOW_LIGHT, SymptomEntry.SYMPTOM_CRAMPS, "tired");
+        SymptomEntry local = new SymptomEntry(day, savedAt + 60, SymptomEntry.MOOD_HAPPY,
+                SymptomEntry.FLOW_LIGHT, SymptomEntry.SYMPTOM_CRAMPS | SymptomEntry.SYMPTOM_ACNE,
+                "tired");
+
+        Map<String, Object> changed = local.changedFields(server);
+
+        assertEquals(2, changed.size());
+        assertEquals("2024-03-05 09:01:00", changed.get("timestamp"));
+        assertEquals(Arrays.asList("Cramps", "Acne"), changed.get("physicalSymptoms"));
+        assertTrue(server.changedFields(server).isEmpty());
+        assertEquals(server.toFirebase(), server.changedFields(null));
+    }
+
+    @Test
+    public void searchTextAndQueryUseTheSameWords() {
+        SymptomEntry entry = new SymptomEntry(EpochDays.of(2024, 3, 5), 0, SymptomEntry.MOOD_TIRED,
+                SymptomEntry.FLOW_NOT_SPECIFIED, SymptomEntry.SYMPTOM_BACK_PAIN, "Ran 5k");
+
+        assertEquals("Ran 5k Tired Back Pain", entry.searchText());
+        assertEquals("back* pa*", FtsQuery.prefixMatch("  Back, \"pa"));
+        assertEquals("or* not*", FtsQuery.prefixMatch("OR NOT"));
+        assertNull(FtsQuery.prefixMatch(" *-\" "));
+    }
+}
@@ -0,0 +1,47 @@
+package com.example.periodtracker.core;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+
+public class SymptomSummaryTest {
+
+    @Test
+    public void changesMatchRebuildingFromHistory() {
+        int day = EpochDays.of(2024, 3, 5);
+        SymptomEntry first = new SymptomEntry(day, 0, SymptomEntry.MOOD_HAPPY,
+                SymptomEntry.FLOW_LIGHT, SymptomEntry.SYMPTOM_CRAMPS | SymptomEntry.SYMPTOM_ACNE, "");
+        SymptomEntry edited = new SymptomEntry(day, 60, SymptomEntry.MOOD_TIRED,
+                SymptomEntry.FLOW_LIGHT, SymptomEntry.SYMPTOM_CRAMPS | SymptomEntry.SYMPTOM_HEADACHE, "");
+        SymptomEntry nextDay = new SymptomEntry(day + 1, 0, SymptomEntry.MOOD_TIRED,
+                SymptomEntry.FLOW_HEAVY, SymptomEntry.SYMPTOM_HEADACHE, "");
+
+        Map<String, Long> deltas = new HashMap<>();
+        SymptomSummary.addChanges(deltas, null, first);
+        SymptomSummary.addChanges(deltas, first, edited);
+        SymptomSummary.addChanges(deltas, null, nextDay);
+
+        SymptomSummary rebuilt = SymptomSummary.of(Arrays.asList(edited, nextDay), new int[0]);
+        Map<String, Object> expected = new HashMap<>();
+        expected.put("entries", 2L);
+        expected.put("moods/Tired", 2L);
+        expected.put("flows/Light", 1L);
+        expected.put("flows/Heavy", 1L);
+        expected.put("symptoms/Cramps", 1L);
+        expected.put("symptoms/Headache", 2L);
+        assertEquals(expected, new HashMap<String, Object>(deltas));
+        assertEquals(2, rebuilt.entryCount());
+        assertEquals(2, rebuilt.symptomCount(1));
+        assertEquals(1, rebuilt.mostCommonSymptom());
+        assertEquals(SymptomEntry.MOOD_TIRED, rebuilt.mostCommonMood());
+        assertEquals(2.0, rebuilt.averageFlow(), 1e-9);
+
+        assertEquals(rebuilt.toFirebase(),
+                SymptomSummary.fromFirebase(rebuilt.toFirebase()).toFirebase());
+        assertEquals(0, SymptomSummary.fromFirebase(null).entryCount());
+    }
+}
@@ -0,0 +1,18 @@
+plugins {
+    application
+}
+
+java {
+    sourceCompatibility = JavaVersion.VERSION_11
+    targetCompatibility = JavaVersion.VERSION_11
+}
+
+dependencies {
+    implementation(project(":core"))
+}
+
+// Start the emulator with: firebase emulators:start --only database
+// Then: ./gradlew :loadgen:run --args="--users 1000 --years 5 --reads 20000"
+application {
+    mainClass.set("com.example.periodtracker.loadgen.LoadGen")
+}
@@ -0,0 +1,87 @@
+package com.example.periodtracker.loadgen;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+
+/**
+ * REST client for the Realtime Database emulator.
+ *
+ * Requests authenticate as the emulator's built-in "owner", which bypasses
+ * security rules. Only loopback hosts are accepted, so the tool can never
+ * be pointed at a production database.
+ */
+final class EmulatorClient {
+
+    private final HttpClient http = HttpClient.newBuilder()
+            .connectTimeout(Duration.ofSeconds(5))
+            .build();
+    private final String baseUrl;
+    private final String namespace;
+
+    EmulatorClient(String host, int port, String namespace) throws IOException {
+        if (!InetAddress.getByName(host).isLoopbackAddress()) {
+            throw new IllegalArgumentException("Refusing non-loopback host " + host
+                    + "; loadgen only talks to a local emulator");
+        }
+        this.baseUrl = "http://" + host + ":" + port + "/";
+        this.namespace = namespace;
+    }
+
+    /** Multi-path update at {@code path}, like DatabaseReference.updateChildren. */
+    void patch(String path, String json) throws IOException, InterruptedException {
+        send(HttpRequest.newBuilder(uri(path, null))
+                .method("PATCH", HttpRequest.BodyPublishers.ofString(json)));
+    }
+
+    /** Reads {@code path}; {@code query} is raw REST parameters or {@code null}. */
+    String get(String path, String query) throws IOException, InterruptedException {
+        return send(HttpRequest.newBuilder(uri(path, query)).GET());
+    }
+
+    /** Deletes {@code path} and everything under it. */
+    void delete(String path) throws IOException, InterruptedException {
+        send(HttpRequest.newBuilder(uri(path, null)).DELETE());
+    }
+
+    /** {@code orderBy="$key"} with optional bounds, as the app's key-ordered queries send it. */
+    static String keyQuery(String startAt, String endAt, int limitToLast) {
+        StringBuilder query = new StringBuilder("orderBy=").append(quoted("$key"));
+        if (startAt != null) query.append("&startAt=").append(quoted(startAt));
+        if (endAt != null) query.append("&endAt=").append(quoted(endAt));
+        if (limitToLast > 0) query.append("&limitToLast=").append(limitToLast);
+        return query.toString();
+    }
+
+    /** {@code orderBy} a numeric child with a lower bound, as a resumed child listener sends it. */
+    static String childQuery(String child, long startAt) {
+        return "orderBy=" + quoted(child) + "&startAt=" + startAt;
+    }
+
+    private static String quoted(String value) {
+        return URLEncoder.encode('"' + value + '"', StandardCharsets.UTF_8);
+    }
+
+    private URI uri(String path, String query) {
+        return URI.create(baseUrl + path + ".json?ns=" + namespace
+                + (query == null ? "" : "&" + query));
+    }
+
+    private String send(HttpRequest.Builder request) throws IOException, InterruptedException {
+        HttpResponse<String> response = http.send(request
+                        .header("Authorization", "Bearer owner")
+                        .timeout(Duration.ofSeconds(60))
+                        .build(),
+                HttpResponse.BodyHandlers.ofString());
+        if (response.statusCode() / 100 != 2) {
+            throw new IOException("HTTP " + response.statusCode() + ": " + response.body());
+        }
+        return response.body();
+    }
+}
@@ -0,0 +1,240 @@
+package com.example.periodtracker.loadgen;
+
+import com.example.periodtracker.core.EpochDays;
+import com.example.periodtracker.core.LatencyHistogram;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Fills a local Realtime Database emulator with synthetic heavy users and
+ * replays the app's read patterns against it, reporting latency per pattern.
+ *
+ * <pre>
+ * --users N      users to generate (default 100)
+ * --years N      years of history per user (default 5)
+ * --reads N      reads to replay (default 10000, 0 to only load)
+ * --threads N    concurrent requests (default 8)
+ * --seed N       generator seed (default 1)
+ * --host H       emulator host, loopback only (default 127.0.0.1)
+ * --port N       emulator port (default 9000)
+ * --namespace NS database name (default period-tracker-app-e4b59-default-rtdb)
+ * --skip-load    replay reads against users loaded by an earlier run
+ * --clear        delete the generated users and exit
+ * </pre>
+ */
+public final class LoadGen {
+
+    /** Reads the app issues, with how often each happens relative to the others. */
+    enum ReadPattern {
+        /** UserProfileRepository attaching to users/{uid} on every start. */
+        PROFILE(30),
+        /** DashboardViewModel listening to summary/{uid}. */
+        SUMMARY(20),
+        /** SymptomSyncWorker fetching the server copies of the recent outbox range. */
+        RECENT_RANGE(20),
+        /** SymptomHistorySync resuming: the days written since its last sync, by updatedAt. */
+        HISTORY_RESUME(25),
+        /** A full symptoms/{uid} download, as the summary backfill does. */
+        FULL_HISTORY(5);
+
+        final int weight;
+
+        ReadPattern(int weight) {
+            this.weight = weight;
+        }
+    }
+
+    private static final int RECENT_DAYS = 14;
+
+    private int users = 100;
+    private int years = 5;
+    private int reads = 10_000;
+    private int threads = 8;
+    private long seed = 1;
+    private String host = "127.0.0.1";
+    private int port = 9000;
+    private String namespace = "period-tracker-app-e4b59-default-rtdb";
+    private boolean skipLoad;
+    private boolean clear;
+
+    private final int today = EpochDays.today();
+
+    public static void main(String[] args) throws Exception {
+        LoadGen loadGen = new LoadGen();
+        loadGen.parse(args);
+        loadGen.run();
+    }
+
+    private void parse(String[] args) {
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "--users": users = Integer.parseInt(args[++i]); break;
+                case "--years": years = Integer.parseInt(args[++i]); break;
+                case "--reads": reads = Integer.parseInt(args[++i]); break;
+                case "--threads": threads = Integer.parseInt(args[++i]); break;
+                case "--seed": seed = Long.parseLong(args[++i]); break;
+                case "--host": host = args[++i]; break;
+                case "--port": port = Integer.parseInt(args[++i]); break;
+                case "--namespace": namespace = args[++i]; break;
+                case "--skip-load": skipLoad = true; break;
+                case "--clear": clear = true; break;
+                default: throw new IllegalArgumentException("Unknown option " + args[i]);
+            }
+        }
+        if (users <= 0 || years <= 0 || threads <= 0 || reads < 0) {
+            throw new IllegalArgumentException("--users, --years and --threads must be positive");
+        }
+    }
+
+    private void run() throws Exception {
+        EmulatorClient client = new EmulatorClient(host, port, namespace);
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            if (clear) {
+                clear(client, executor);
+                return;
+            }
+            if (!skipLoad) load(client, executor);
+            if (reads > 0) replay(client, executor);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /** Writes every user with one root multi-path PATCH each. */
+    private void load(EmulatorClient client, ExecutorService executor) throws Exception {
+        LatencyHistogram writes = new LatencyHistogram();
+        AtomicLong entries = new AtomicLong();
+        AtomicLong bytes = new AtomicLong();
+        long start = System.nanoTime();
+
+        List<Future<?>> futures = new ArrayList<>(users);
+        for (int i = 0; i < users; i++) {
+            int index = i;
+            futures.add(executor.submit(() -> {
+                SyntheticUser user = SyntheticUser.generate(seed, index, years, today);
+                String json = Json.write(user.rootUpdate());
+                long writeStart = System.nanoTime();
+                client.patch("", json);
+                writes.recordSince(writeStart);
+                entries.addAndGet(user.entries.size());
+                bytes.addAndGet(json.length());
+                return null;
+            }));
+        }
+        for (Future<?> future : futures) {
+            future.get();
+        }
+
+        double seconds = (System.nanoTime() - start) / 1e9;
+        System.out.printf("Loaded %d users, %d entries, %.1f MB in %.1f s%n",
+                users, entries.get(), bytes.get() / 1e6, seconds);
+        Map<String, LatencyHistogram> report = new HashMap<>();
+        report.put("write.user", writes);
+        print(report);
+    }
+
+    /** Issues {@link #reads} reads against random users, weighted by {@link ReadPattern}. */
+    private void replay(EmulatorClient client, ExecutorService executor) throws Exception {
+        Map<String, LatencyHistogram> histograms = new HashMap<>();
+        for (ReadPattern pattern : ReadPattern.values()) {
+            histograms.put("read." + pattern.name().toLowerCase(), new LatencyHistogram());
+        }
+        int totalWeight = 0;
+        for (ReadPattern pattern : ReadPattern.values()) {
+            totalWeight += pattern.weight;
+        }
+
+        Random random = new Random(seed);
+        List<Future<?>> futures = new ArrayList<>(reads);
+        long start = System.nanoTime();
+        for (int i = 0; i < reads; i++) {
+            String uid = SyntheticUser.uid(random.nextInt(users));
+            ReadPattern pattern = pick(random.nextInt(totalWeight));
+            int resumeDay = today - random.nextInt(RECENT_DAYS);
+            LatencyHistogram histogram = histograms.get("read." + pattern.name().toLowerCase());
+            futures.add(executor.submit(() -> {
+                long readStart = System.nanoTime();
+                read(client, pattern, uid, resumeDay);
+                histogram.recordSince(readStart);
+                return null;
+            }));
+        }
+        for (Future<?> future : futures) {
+            future.get();
+        }
+
+        double seconds = (System.nanoTime() - start) / 1e9;
+        System.out.printf("Replayed %d reads with %d threads in %.1f s (%.0f reads/s)%n",
+                reads, threads, seconds, reads / seconds);
+        print(histograms);
+    }
+
+    private void read(EmulatorClient client, ReadPattern pattern, String uid, int resumeDay)
+            throws Exception {
+        switch (pattern) {
+            case PROFILE:
+                client.get("users/" + uid, null);
+                break;
+            case SUMMARY:
+                client.get("summary/" + uid, null);
+                break;
+            case RECENT_RANGE:
+                client.get("symptoms/" + uid, EmulatorClient.keyQuery(
+                        EpochDays.formatIso(today - RECENT_DAYS), EpochDays.formatIso(today), 0));
+                break;
+            case HISTORY_RESUME:
+                client.get("symptoms/" + uid, EmulatorClient.childQuery(
+                        "updatedAt", resumeDay * 86_400_000L));
+                break;
+            case FULL_HISTORY:
+                client.get("symptoms/" + uid, null);
+                break;
+        }
+    }
+
+    private void clear(EmulatorClient client, ExecutorService executor) throws Exception {
+        List<Future<?>> futures = new ArrayList<>(users);
+        for (int i = 0; i < users; i++) {
+            String uid = SyntheticUser.uid(i);
+            futures.add(executor.submit(() -> {
+                client.delete("users/" + uid);
+                client.delete("symptoms/" + uid);
+                client.delete("summary/" + uid);
+                return null;
+            }));
+        }
+        for (Future<?> future : futures) {
+            future.get();
+        }
+        System.out.printf("Deleted %d users%n", users);
+    }
+
+    private static ReadPattern pick(int roll) {
+        for (ReadPattern pattern : ReadPattern.values()) {
+            roll -= pattern.weight;
+            if (roll < 0) return pattern;
+        }
+        throw new AssertionError();
+    }
+
+    private static void print(Map<String, LatencyHistogram> histograms) {
+        System.out.printf("%-20s %8s %10s %10s %10s %10s%n",
+                "metric", "count", "p50 ms", "p95 ms", "p99 ms", "max ms");
+        histograms.keySet().stream().sorted().forEach(name -> {
+            LatencyHistogram h = histograms.get(name);
+            if (h.count() == 0) return;
+            System.out.printf("%-20s %8d %10.2f %10.2f %10.2f %10.2f%n", name, h.count(),
+                    h.percentileMicros(0.5) / 1000.0, h.percentileMicros(0.95) / 1000.0,
+                    h.percentileMicros(0.99) / 1000.0, h.maxMicros() / 1000.0);
+        });
+    }
+}
@@ -0,0 +1,159 @@
+package com.example.periodtracker.loadgen;
+
+import com.example.periodtracker.core.CyclePredictionEngine;
+import com.example.periodtracker.core.EpochDays;
+import com.example.periodtracker.core.SymptomEntry;
+import com.example.periodtracker.core.SymptomSummary;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * One generated user: a profile, years of irregular cycles and the symptom
+ * days they logged, in the shapes SetupActivity and SymptomSyncWorker write.
+ *
+ * Users are derived from (seed, index) alone, so the read phase can rebuild
+ * a user's uid and history without keeping every user in memory.
+ */
+final class SyntheticUser {
+
+    private static final String[] NAMES =
+            {"Asha", "Maya", "Priya", "Sara", "Lena", "Nora", "Ines", "Zoe", "Kira", "Ana"};
+    private static final String[] NOTES = {
+            "Slept badly", "Long day at work", "Ran 5k", "Yoga in the morning",
+            "Took ibuprofen", "Drank lots of water", "Skipped coffee", "Felt better by evening",
+            "Travel day", "Hot water bottle helped"};
+
+    final String uid;
+    final String name;
+    final int age;
+    final int cycleLength;
+    /** Sorted epoch days. */
+    final int[] periodStarts;
+    /** Oldest first. */
+    final List<SymptomEntry> entries;
+
+    private SyntheticUser(String uid, String name, int age, int cycleLength, int[] periodStarts,
+                          List<SymptomEntry> entries) {
+        this.uid = uid;
+        this.name = name;
+        this.age = age;
+        this.cycleLength = cycleLength;
+        this.periodStarts = periodStarts;
+        this.entries = entries;
+    }
+
+    static String uid(int index) {
+        return String.format("loadgen-%06d", index);
+    }
+
+    /** Generates {@code years} of history ending on {@code today}. */
+    static SyntheticUser generate(long seed, int index, int years, int today) {
+        Random random = new Random(seed * 1_000_003 + index);
+        int cycleLength = 24 + random.nextInt(12);
+        int periodLength = 3 + random.nextInt(5);
+        double logRate = 0.2 + random.nextDouble() * 0.7;
+
+        int firstDay = today - years * 365;
+        int[] starts = new int[years * 365 / 21 + 2];
+        int startCount = 0;
+        for (int start = firstDay + random.nextInt(cycleLength); start <= today; ) {
+            starts[startCount++] = start;
+            int length = cycleLength + (int) Math.round(random.nextGaussian() * 2);
+            start += Math.max(21, Math.min(45, length));
+        }
+        starts = Arrays.copyOf(starts, startCount);
+
+        List<SymptomEntry> entries = new ArrayList<>();
+        int cycle = -1;
+        for (int day = firstDay; day <= today; day++) {
+            while (cycle + 1 < startCount && starts[cycle + 1] <= day) cycle++;
+            if (cycle < 0) continue;
+            int cycleDay = day - starts[cycle];
+            int length = cycle + 1 < startCount ? starts[cycle + 1] - starts[cycle] : cycleLength;
+            boolean bleeding = cycleDay < periodLength;
+            if (random.nextDouble() >= (bleeding ? 0.95 : logRate)) continue;
+            entries.add(entry(random, day, cycleDay, length - cycleDay, bleeding));
+        }
+
+        return new SyntheticUser(uid(index), NAMES[index % NAMES.length], 18 + random.nextInt(28),
+                cycleLength, starts, entries);
+    }
+
+    private static SymptomEntry entry(Random random, int day, int cycleDay, int daysLeft,
+                                      boolean bleeding) {
+        boolean luteal = daysLeft <= CyclePredictionEngine.LUTEAL_PHASE;
+        boolean premenstrual = daysLeft <= 7;
+
+        byte flow = SymptomEntry.FLOW_NOT_SPECIFIED;
+        if (bleeding) {
+            flow = cycleDay < 2
+                    ? (random.nextBoolean() ? SymptomEntry.FLOW_HEAVY : SymptomEntry.FLOW_MODERATE)
+                    : SymptomEntry.FLOW_LIGHT;
+        }
+
+        int symptoms = 0;
+        if (bleeding && cycleDay < 3 && random.nextDouble() < 0.7) symptoms |= SymptomEntry.SYMPTOM_CRAMPS;
+        if (bleeding && random.nextDouble() < 0.3) symptoms |= SymptomEntry.SYMPTOM_BACK_PAIN;
+        if (random.nextDouble() < 0.1) symptoms |= SymptomEntry.SYMPTOM_HEADACHE;
+        if (luteal && random.nextDouble() < 0.3) symptoms |= SymptomEntry.SYMPTOM_BLOATING;
+        if (luteal && random.nextDouble() < 0.2) symptoms |= SymptomEntry.SYMPTOM_ACNE;
+        if (premenstrual && random.nextDouble() < 0.35) symptoms |= SymptomEntry.SYMPTOM_BREAST_TENDERNESS;
+
+        byte mood;
+        double roll = random.nextDouble();
+        if (roll < 0.15) {
+            mood = SymptomEntry.MOOD_NOT_SPECIFIED;
+        } else if (premenstrual && roll < 0.55) {
+            mood = random.nextBoolean() ? SymptomEntry.MOOD_IRRITABLE : SymptomEntry.MOOD_ANXIOUS;
+        } else if (bleeding && roll < 0.5) {
+            mood = SymptomEntry.MOOD_TIRED;
+        } else {
+            mood = (byte) (1 + random.nextInt(SymptomEntry.MOOD_COUNT - 1));
+        }
+
+        String notes = random.nextDouble() < 0.15 ? NOTES[random.nextInt(NOTES.length)] : "";
+        long savedAt = (long) day * 86_400 + 18 * 3600 + random.nextInt(5 * 3600);
+        return new SymptomEntry(day, savedAt, mood, flow, symptoms, notes);
+    }
+
+    /** users/{uid}, as UserProfile.toMap writes it. */
+    Map<String, Object> profile() {
+        Map<String, Object> map = new HashMap<>();
+        map.put("name", name);
+        map.put("age", age);
+        map.put("cycleLength", cycleLength);
+        map.put("lastPeriodDate", EpochDays.formatIso(periodStarts[periodStarts.length - 1]));
+        Map<String, Object> starts = new HashMap<>();
+        for (int start : periodStarts) {
+            starts.put(EpochDays.formatIso(start), true);
+        }
+        map.put("periodStarts", starts);
+        return map;
+    }
+
+    /** symptoms/{uid}, keyed by yyyy-MM-dd. */
+    Map<String, Object> symptoms() {
+        Map<String, Object> map = new HashMap<>();
+        for (SymptomEntry entry : entries) {
+            Map<String, Object> day = entry.toFirebase();
+            // The server time of the write; the synthetic save time stands in for it
+            day.put("updatedAt", entry.timestamp() * 1000);
+            map.put(entry.dateKey(), day);
+        }
+        return map;
+    }
+
+    /** One root multi-path update that writes the whole user. */
+    Map<String, Object> rootUpdate() {
+        Map<String, Object> updates = new HashMap<>();
+        updates.put("users/" + uid, profile());
+        updates.put("symptoms/" + uid, symptoms());
+        updates.put("summary/" + uid, SymptomSummary.of(entries, periodStarts).toFirebase());
+        return updates;
+    }
+}
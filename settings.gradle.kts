@@ -23,3 +23,7 @@ dependencyResolutionManagement {
 
 rootProject.name = "Period Tracker"
 include(":app")
+include(":core")
+include(":core-jmh")
+include(":benchmark")
+include(":loadgen")